@@ -0,0 +1,149 @@
+package org.alien4cloud.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Resolve the archive benchmark parameter to a TOSCA definition file.
+ *
+ * The parameter is either:
+ * <ul>
+ * <li><code>synthetic-[count]</code>: a generated self-contained archive with [count] node types (as well as data, capability and relationship types and a
+ * topology that uses a tenth of the node types),</li>
+ * <li>the path of a definition file,</li>
+ * <li>the path of an (unzipped) archive directory that contains a single root definition file, for example a checkout of the tosca-normative-types or one of
+ * the test archives under alien4cloud-rest-it/src/test/resources/data/csars.</li>
+ * </ul>
+ */
+public class BenchmarkArchives {
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+    /** Number of children of every node type in the generated type hierarchy. */
+    private static final int HIERARCHY_FAN_OUT = 8;
+
+    private BenchmarkArchives() {
+    }
+
+    /**
+     * Get the definition file to parse for the given archive parameter.
+     *
+     * @param archive The archive parameter.
+     * @param workDirectory The directory in which to generate synthetic archives.
+     * @return The path of the definition file to parse.
+     * @throws IOException In case the archive cannot be read or generated.
+     */
+    public static Path resolve(String archive, Path workDirectory) throws IOException {
+        if (archive.startsWith(SYNTHETIC_PREFIX)) {
+            int typeCount = Integer.parseInt(archive.substring(SYNTHETIC_PREFIX.length()));
+            Path definition = workDirectory.resolve(archive + ".yml");
+            generate(definition, archive, typeCount);
+            return definition;
+        }
+        Path path = Paths.get(archive);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        List<Path> definitions = Lists.newArrayList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*.{yml,yaml}")) {
+            stream.forEach(definitions::add);
+        }
+        if (definitions.size() != 1) {
+            throw new IllegalArgumentException("Archive directory <" + path + "> must contain a single root definition file, found " + definitions);
+        }
+        return definitions.get(0);
+    }
+
+    /**
+     * Generate a self-contained archive definition.
+     *
+     * @param definition The path of the definition file to generate.
+     * @param name The name of the archive.
+     * @param typeCount The number of node types to generate.
+     * @throws IOException In case the file cannot be written.
+     */
+    public static void generate(Path definition, String name, int typeCount) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(definition, StandardCharsets.UTF_8)) {
+            writer.write("tosca_definitions_version: alien_dsl_2_0_0\n\n");
+            writer.write("metadata:\n");
+            writer.write("  template_name: " + name + "\n");
+            writer.write("  template_version: 1.0.0-SNAPSHOT\n");
+            writer.write("  template_author: alien4cloud\n\n");
+            writer.write("description: Generated archive for parser benchmarks.\n\n");
+
+            writer.write("data_types:\n");
+            writer.write("  bench.datatypes.Endpoint:\n");
+            writer.write("    properties:\n");
+            writer.write("      host:\n");
+            writer.write("        type: string\n");
+            writer.write("      port:\n");
+            writer.write("        type: integer\n");
+            writer.write("        constraints:\n");
+            writer.write("          - in_range: [ 1, 65535 ]\n\n");
+
+            writer.write("capability_types:\n");
+            writer.write("  bench.capabilities.Endpoint:\n");
+            writer.write("    properties:\n");
+            writer.write("      protocol:\n");
+            writer.write("        type: string\n");
+            writer.write("        default: tcp\n\n");
+
+            writer.write("relationship_types:\n");
+            writer.write("  bench.relationships.ConnectsTo:\n");
+            writer.write("    valid_target_types: [ bench.capabilities.Endpoint ]\n\n");
+
+            writer.write("node_types:\n");
+            for (int i = 0; i < typeCount; i++) {
+                writer.write("  bench.nodes.Type" + i + ":\n");
+                if (i > 0) {
+                    writer.write("    derived_from: bench.nodes.Type" + ((i - 1) / HIERARCHY_FAN_OUT) + "\n");
+                }
+                writer.write("    description: Generated node type " + i + "\n");
+                writer.write("    tags:\n");
+                writer.write("      generated: true\n");
+                writer.write("    properties:\n");
+                writer.write("      name_" + i + ":\n");
+                writer.write("        type: string\n");
+                writer.write("        default: type" + i + "\n");
+                writer.write("      size_" + i + ":\n");
+                writer.write("        type: integer\n");
+                writer.write("        required: false\n");
+                writer.write("        constraints:\n");
+                writer.write("          - greater_or_equal: 0\n");
+                writer.write("      endpoint_" + i + ":\n");
+                writer.write("        type: bench.datatypes.Endpoint\n");
+                writer.write("        required: false\n");
+                writer.write("    attributes:\n");
+                writer.write("      state_" + i + ":\n");
+                writer.write("        type: string\n");
+                writer.write("    capabilities:\n");
+                writer.write("      endpoint_" + i + ":\n");
+                writer.write("        type: bench.capabilities.Endpoint\n");
+                writer.write("    requirements:\n");
+                writer.write("      - dependency_" + i + ":\n");
+                writer.write("          capability: bench.capabilities.Endpoint\n");
+                writer.write("          relationship: bench.relationships.ConnectsTo\n");
+                writer.write("          occurrences: [ 0, UNBOUNDED ]\n");
+            }
+
+            writer.write("\ntopology_template:\n");
+            writer.write("  node_templates:\n");
+            // use the deepest types of the hierarchy.
+            int templateCount = Math.max(typeCount / 10, 1);
+            for (int i = 0; i < templateCount; i++) {
+                int type = typeCount - 1 - i;
+                writer.write("    Node" + i + ":\n");
+                writer.write("      type: bench.nodes.Type" + type + "\n");
+                writer.write("      properties:\n");
+                writer.write("        name_" + type + ": node" + i + "\n");
+                writer.write("        size_" + type + ": " + i + "\n");
+            }
+        }
+    }
+}
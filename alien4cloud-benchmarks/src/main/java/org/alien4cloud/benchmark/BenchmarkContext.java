@@ -0,0 +1,52 @@
+package org.alien4cloud.benchmark;
+
+import java.nio.file.Path;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+
+import alien4cloud.tosca.repository.LocalRepositoryImpl;
+
+/**
+ * Spring context of the TOSCA parser used by the benchmarks.
+ *
+ * Dependencies of the parsed archives are resolved from a file based local repository (see {@link LocalRepositoryImpl}) so archives that import the normative
+ * types can be benchmarked by pointing the repository to a directory that contains them (repository/[name]/[version]/[name]-[version].csar).
+ */
+public class BenchmarkContext {
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Create and start the parser context.
+     *
+     * @param repositoryPath The path of the local repository from which to resolve dependencies.
+     * @return The started application context.
+     */
+    public static AnnotationConfigApplicationContext create(Path repositoryPath) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(ParserConfiguration.class);
+        context.refresh();
+        context.getBean(LocalRepositoryImpl.class).setLocalRepositoryPath(repositoryPath);
+        return context;
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @ComponentScan(basePackages = { "alien4cloud.tosca.context", "alien4cloud.tosca.parser", "alien4cloud.paas.wf" })
+    public static class ParserConfiguration {
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        public LocalRepositoryImpl localRepository() {
+            return new LocalRepositoryImpl();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.alien4cloud.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Accepts the usual JMH command line options (benchmarks filter, -p parameters, -f forks etc.) and always enables the GC profiler so results report the
+ * allocation rate (gc.alloc.rate.norm is the number of bytes allocated per operation) together with the throughput.
+ *
+ * <pre>
+ * mvn -Dbenchmarks clean package -pl alien4cloud-benchmarks -am
+ * java -jar alien4cloud-benchmarks/target/benchmarks.jar ToscaParserBenchmark -p archive=synthetic-1000,/path/to/tosca-normative-types
+ * </pre>
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args)).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,15 @@
+package org.alien4cloud.benchmark;
+
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ToscaParser;
+
+/**
+ * TOSCA parser that only maps the yaml nodes to the archive model and skips the post-processing, used to benchmark the mapping and the post-processors
+ * separately.
+ */
+public class MappingOnlyToscaParser extends ToscaParser {
+    @Override
+    protected void postParsing(ArchiveRoot result) {
+        // post-processors are benchmarked separately.
+    }
+}
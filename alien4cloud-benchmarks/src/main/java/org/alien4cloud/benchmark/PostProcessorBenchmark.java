@@ -0,0 +1,190 @@
+package org.alien4cloud.benchmark;
+
+import static alien4cloud.utils.AlienUtils.safe;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.model.templates.NodeTemplate;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.google.common.collect.Sets;
+
+import alien4cloud.tosca.context.ToscaContext;
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingContextExecution;
+import alien4cloud.tosca.parser.ParsingException;
+import alien4cloud.tosca.parser.postprocess.ArchiveRootPostProcessor;
+import alien4cloud.tosca.parser.postprocess.DerivedFromPostProcessor;
+import alien4cloud.tosca.parser.postprocess.NodeTemplatePostProcessor;
+import alien4cloud.tosca.parser.postprocess.ReferencePostProcessor;
+
+/**
+ * Benchmarks of the TOSCA post-processors.
+ *
+ * Post-processors modify the archive they process, so every invocation works on an archive freshly mapped (without post-processing) in an invocation level
+ * setup that is not part of the measurement. The node templates and references benchmarks run on archives whose types have already been post-processed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostProcessorBenchmark {
+
+    /**
+     * Parser context shared by all the benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Parsers {
+        /** The archive to parse, see {@link BenchmarkArchives}. */
+        @Param({ "synthetic-1000", "synthetic-10000" })
+        public String archive;
+        /** The local repository from which to resolve the dependencies of the archive, an empty repository is used by default. */
+        @Param({ "" })
+        public String repository;
+
+        private Path workDirectory;
+        private Path definition;
+        private AnnotationConfigApplicationContext context;
+        private MappingOnlyToscaParser mappingOnlyParser;
+
+        @Setup
+        public void setup() throws IOException {
+            workDirectory = Files.createTempDirectory("a4c-benchmark");
+            definition = BenchmarkArchives.resolve(archive, workDirectory);
+            context = BenchmarkContext.create(repository.isEmpty() ? workDirectory.resolve("repository") : Paths.get(repository));
+            mappingOnlyParser = context.getAutowireCapableBeanFactory().createBean(MappingOnlyToscaParser.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+            FileSystemUtils.deleteRecursively(workDirectory.toFile());
+        }
+
+        /**
+         * Map the archive in new parsing and TOSCA contexts that are left opened for the post-processing.
+         */
+        private ArchiveRoot map() throws ParsingException {
+            ParsingContextExecution.init();
+            ToscaContext.init(Sets.newHashSet());
+            return mappingOnlyParser.parseFile(definition).getResult();
+        }
+
+        private <T> T getBean(Class<T> beanClass) {
+            return context.getBean(beanClass);
+        }
+    }
+
+    /**
+     * An archive that has been mapped but not post-processed.
+     */
+    @State(Scope.Thread)
+    public static class MappedArchive {
+        private ArchiveRoot archiveRoot;
+
+        @Setup(Level.Invocation)
+        public void setup(Parsers parsers) throws ParsingException {
+            archiveRoot = parsers.map();
+            // like the archive root post processor, register the archive types so they can be resolved.
+            ToscaContext.get().register(archiveRoot);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            ToscaContext.destroy();
+            ParsingContextExecution.destroy();
+        }
+    }
+
+    /**
+     * An archive that has been mapped and fully post-processed.
+     */
+    @State(Scope.Thread)
+    public static class ProcessedArchive {
+        private ArchiveRoot archiveRoot;
+
+        @Setup(Level.Invocation)
+        public void setup(Parsers parsers) throws ParsingException {
+            archiveRoot = parsers.map();
+            parsers.getBean(ArchiveRootPostProcessor.class).process(archiveRoot);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            ToscaContext.destroy();
+            ParsingContextExecution.destroy();
+        }
+    }
+
+    private ArchiveRootPostProcessor archiveRootPostProcessor;
+    private DerivedFromPostProcessor derivedFromPostProcessor;
+    private NodeTemplatePostProcessor nodeTemplatePostProcessor;
+    private ReferencePostProcessor referencePostProcessor;
+
+    @Setup
+    public void setup(Parsers parsers) {
+        archiveRootPostProcessor = parsers.getBean(ArchiveRootPostProcessor.class);
+        derivedFromPostProcessor = parsers.getBean(DerivedFromPostProcessor.class);
+        nodeTemplatePostProcessor = parsers.getBean(NodeTemplatePostProcessor.class);
+        referencePostProcessor = parsers.getBean(ReferencePostProcessor.class);
+    }
+
+    @Benchmark
+    public ArchiveRoot archiveRoot(MappedArchive mappedArchive) {
+        archiveRootPostProcessor.process(mappedArchive.archiveRoot);
+        return mappedArchive.archiveRoot;
+    }
+
+    @Benchmark
+    public ArchiveRoot derivedFrom(MappedArchive mappedArchive) {
+        ArchiveRoot archiveRoot = mappedArchive.archiveRoot;
+        derivedFromPostProcessor.process(archiveRoot.getDataTypes());
+        derivedFromPostProcessor.process(archiveRoot.getArtifactTypes());
+        derivedFromPostProcessor.process(archiveRoot.getCapabilityTypes());
+        derivedFromPostProcessor.process(archiveRoot.getRelationshipTypes());
+        derivedFromPostProcessor.process(archiveRoot.getNodeTypes());
+        derivedFromPostProcessor.process(archiveRoot.getPolicyTypes());
+        return archiveRoot;
+    }
+
+    @Benchmark
+    public ArchiveRoot nodeTemplates(ProcessedArchive processedArchive) {
+        ArchiveRoot archiveRoot = processedArchive.archiveRoot;
+        if (archiveRoot.getTopology() != null) {
+            safe(archiveRoot.getTopology().getNodeTemplates()).values().forEach(nodeTemplatePostProcessor);
+        }
+        return archiveRoot;
+    }
+
+    @Benchmark
+    public ArchiveRoot references(ProcessedArchive processedArchive) {
+        ArchiveRoot archiveRoot = processedArchive.archiveRoot;
+        if (archiveRoot.getTopology() != null) {
+            for (NodeTemplate nodeTemplate : safe(archiveRoot.getTopology().getNodeTemplates()).values()) {
+                referencePostProcessor.process(new ReferencePostProcessor.TypeReference(nodeTemplate, nodeTemplate.getType(), NodeType.class));
+            }
+        }
+        return archiveRoot;
+    }
+}
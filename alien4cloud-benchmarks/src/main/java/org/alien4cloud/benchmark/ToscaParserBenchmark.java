@@ -0,0 +1,76 @@
+package org.alien4cloud.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingException;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.tosca.parser.ToscaParser;
+
+/**
+ * Benchmarks of the parsing of a TOSCA definition file: full parsing (yaml composition, mapping and post-processing) and mapping only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ToscaParserBenchmark {
+    /** The archive to parse, see {@link BenchmarkArchives}. */
+    @Param({ "synthetic-1000", "synthetic-10000" })
+    public String archive;
+    /** The local repository from which to resolve the dependencies of the archive, an empty repository is used by default. */
+    @Param({ "" })
+    public String repository;
+
+    private Path workDirectory;
+    private Path definition;
+    private AnnotationConfigApplicationContext context;
+    private ToscaParser toscaParser;
+    private MappingOnlyToscaParser mappingOnlyParser;
+
+    @Setup
+    public void setup() throws IOException {
+        workDirectory = Files.createTempDirectory("a4c-benchmark");
+        definition = BenchmarkArchives.resolve(archive, workDirectory);
+        context = BenchmarkContext.create(repository.isEmpty() ? workDirectory.resolve("repository") : Paths.get(repository));
+        toscaParser = context.getBean(ToscaParser.class);
+        mappingOnlyParser = context.getAutowireCapableBeanFactory().createBean(MappingOnlyToscaParser.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        FileSystemUtils.deleteRecursively(workDirectory.toFile());
+    }
+
+    @Benchmark
+    public ParsingResult<ArchiveRoot> parse() throws ParsingException {
+        return toscaParser.parseFile(definition);
+    }
+
+    @Benchmark
+    public ParsingResult<ArchiveRoot> parseMappingOnly() throws ParsingException {
+        return mappingOnlyParser.parseFile(definition);
+    }
+}
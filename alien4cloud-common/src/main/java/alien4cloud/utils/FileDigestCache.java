@@ -0,0 +1,71 @@
+package alien4cloud.utils;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Cache of the SHA-1 digests of files used by {@link FileUtil#deepSHA1(Path)} so files that did not change are not read again.
+ *
+ * A cached digest is used only if the size and the last modification time of the file did not change since the digest has been computed. The cache is
+ * disabled until a maximum size is configured. Only the digests of files of the default file system are cached.
+ */
+public final class FileDigestCache {
+    private static volatile Cache<String, CachedDigest> cache;
+
+    private FileDigestCache() {
+    }
+
+    /**
+     * Configure the maximum number of file digests kept in the cache. The cached digests are dropped.
+     *
+     * @param maximumSize The maximum number of file digests to cache, 0 disables the cache.
+     */
+    public static void configure(long maximumSize) {
+        cache = maximumSize > 0 ? CacheBuilder.newBuilder().maximumSize(maximumSize).<String, CachedDigest> build() : null;
+    }
+
+    /**
+     * Get the digest of a file if it is cached and the file did not change.
+     *
+     * @param path The path of the file.
+     * @param attributes The current attributes of the file.
+     * @return The cached digest or null if the digest is not cached (or the file changed).
+     */
+    static byte[] get(Path path, BasicFileAttributes attributes) {
+        Cache<String, CachedDigest> currentCache = cache;
+        if (currentCache == null) {
+            return null;
+        }
+        CachedDigest cachedDigest = currentCache.getIfPresent(path.toUri().toString());
+        if (cachedDigest != null && cachedDigest.size == attributes.size() && cachedDigest.lastModified == attributes.lastModifiedTime().toMillis()) {
+            return cachedDigest.digest;
+        }
+        return null;
+    }
+
+    /**
+     * Cache the digest of a file.
+     *
+     * @param path The path of the file.
+     * @param attributes The attributes of the file when the digest has been computed.
+     * @param digest The digest of the file.
+     */
+    static void put(Path path, BasicFileAttributes attributes, byte[] digest) {
+        Cache<String, CachedDigest> currentCache = cache;
+        if (currentCache != null) {
+            currentCache.put(path.toUri().toString(), new CachedDigest(attributes.size(), attributes.lastModifiedTime().toMillis(), digest));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class CachedDigest {
+        private final long size;
+        private final long lastModified;
+        private final byte[] digest;
+    }
+}
@@ -3,24 +3,31 @@ package alien4cloud.utils;
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.file.*;
-import java.nio.file.FileSystem;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipOutputStream;
 
 import javax.xml.bind.DatatypeConverter;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closeables;
 
@@ -29,6 +36,9 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public final class FileUtil {
+    /** Size of the buffer used to read files when computing their digest. */
+    private static final int DIGEST_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Utility class should have private constructor.
      */
@@ -112,6 +122,101 @@ public final class FileUtil {
         }
     }
 
+    /**
+     * Recursively zip a directory, reusing the entries of the zip previously generated at the output path (if any).
+     *
+     * Entries of files which content did not change (same size and SHA-1) are copied raw from the previous zip without being compressed again, only new and
+     * modified files are compressed. Digests are not stored in the zip: the digest of a previous entry is computed from its content when its size matches the
+     * file size (inflating an entry is much cheaper than compressing it again). The zip is written to a temporary file then moved to the output path.
+     *
+     * @param inputPath the directory to zip
+     * @param outputPath where to put the zip
+     * @throws IOException when IO error happened
+     */
+    public static void updateZip(final Path inputPath, final Path outputPath) throws IOException {
+        if (!Files.isDirectory(inputPath) || !isZipFile(outputPath)) {
+            zip(inputPath, outputPath);
+            return;
+        }
+        Path tempPath = Files.createTempFile(outputPath.toAbsolutePath().getParent(), outputPath.getFileName().toString(), ".tmp");
+        try {
+            try (ZipFile previousZip = new ZipFile(outputPath.toFile());
+                    ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(tempPath.toFile())) {
+                Files.walkFileTree(inputPath, new IncrementalZipDirWalker(inputPath, previousZip, zipOutputStream));
+            } catch (ZipException e) {
+                log.debug("Previous zip <{}> cannot be read, zipping the whole directory", outputPath);
+                zip(inputPath, tempPath);
+            }
+            Files.move(tempPath, outputPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private static class IncrementalZipDirWalker extends SimpleFileVisitor<Path> {
+        private final Path inputPath;
+        private final ZipFile previousZip;
+        private final ZipArchiveOutputStream zipOutputStream;
+        private int copied;
+        private int compressed;
+
+        private IncrementalZipDirWalker(Path inputPath, ZipFile previousZip, ZipArchiveOutputStream zipOutputStream) {
+            this.inputPath = inputPath;
+            this.previousZip = previousZip;
+            this.zipOutputStream = zipOutputStream;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+            if (!dir.equals(inputPath)) {
+                ZipArchiveEntry entry = new ZipArchiveEntry(getChildEntryRelativePath(inputPath, dir, true));
+                entry.setTime(attrs.lastModifiedTime().toMillis());
+                zipOutputStream.putArchiveEntry(entry);
+                zipOutputStream.closeArchiveEntry();
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            String entryName = getChildEntryRelativePath(inputPath, file, true);
+            ZipArchiveEntry previousEntry = previousZip.getEntry(entryName);
+            if (previousEntry != null && previousEntry.getSize() == attrs.size() && Arrays.equals(getFileDigest(file), getEntryDigest(previousEntry))) {
+                try (InputStream rawInput = previousZip.getRawInputStream(previousEntry)) {
+                    zipOutputStream.addRawArchiveEntry(previousEntry, rawInput);
+                }
+                copied++;
+            } else {
+                ZipArchiveEntry entry = new ZipArchiveEntry(entryName);
+                entry.setTime(attrs.lastModifiedTime().toMillis());
+                zipOutputStream.putArchiveEntry(entry);
+                try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+                    ByteStreams.copy(input, zipOutputStream);
+                }
+                zipOutputStream.closeArchiveEntry();
+                compressed++;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+            if (exc != null) {
+                throw exc;
+            }
+            if (dir.equals(inputPath)) {
+                log.debug("Zip of <{}> updated: {} entries copied, {} entries compressed", inputPath, copied, compressed);
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        private byte[] getEntryDigest(ZipArchiveEntry entry) throws IOException {
+            try (InputStream input = previousZip.getInputStream(entry)) {
+                return computeDigest(input);
+            }
+        }
+    }
+
     /**
      * Recursively tar file
      *
@@ -157,7 +262,7 @@ public final class FileUtil {
      * @throws IOException In case something fails.
      */
     public static void unzip(final Path zipFile, final Path destination) throws IOException {
-        try (FileSystem zipFS = FileSystems.newFileSystem(zipFile, null)) {
+        try (SharedZipFileSystem zipFS = SharedZipFileSystem.open(zipFile)) {
             final Path root = zipFS.getPath("/");
             copy(root, destination, StandardCopyOption.REPLACE_EXISTING);
         }
@@ -363,21 +468,22 @@ public final class FileUtil {
         if (!Files.exists(path)) {
             throw new FileNotFoundException("File not found in hash processor" + path);
         }
-        MessageDigest digest = MessageDigest.getInstance("SHA1");
-        addFileToDigest(digest, path);
-        return DatatypeConverter.printHexBinary(digest.digest());
+        return DatatypeConverter.printHexBinary(computeFileDigest(path));
     }
 
     /**
      * Computes a SHA-1 checksum on a directory. The checksum ignores hidden files.
      *
+     * The checksum is computed from the relative path and the SHA-1 of every file taken in relative path order, so it does not depend on the order in which
+     * the file system lists the files. Files are hashed concurrently and their digests may be cached (see {@link FileDigestCache}).
+     *
      * @param rootPath The root path for which to compute SHA-1 on every sub files and folders.
      * @return The SHA-1 hash string.
      */
     @SneakyThrows({ IOException.class })
     public static String deepSHA1(Path rootPath) {
         if (isZipFile(rootPath)) {
-            try (FileSystem csarFS = FileSystems.newFileSystem(rootPath, null)) {
+            try (SharedZipFileSystem csarFS = SharedZipFileSystem.open(rootPath)) {
                 Path innerZipPath = csarFS.getPath(FileSystems.getDefault().getSeparator());
                 return computeDirectoryHash(innerZipPath);
             }
@@ -391,18 +497,57 @@ public final class FileUtil {
 
     @SneakyThrows({ IOException.class, NoSuchAlgorithmException.class })
     private static String computeDirectoryHash(Path rootPath) {
+        Map<String, Path> filesByRelativePath = Maps.newTreeMap();
+        try (Stream<Path> paths = Files.walk(rootPath)) {
+            paths.filter(FileUtil::isNotHidden).filter(Files::isRegularFile)
+                    .forEach(path -> filesByRelativePath.put(toLinuxPath(rootPath.relativize(path)), path));
+        }
+        List<byte[]> fileDigests = filesByRelativePath.values().parallelStream().map(FileUtil::getFileDigest).collect(Collectors.toList());
+
         MessageDigest digest = MessageDigest.getInstance("SHA1");
-        Files.walk(rootPath).filter(FileUtil::isNotHidden).filter(Files::isRegularFile).forEach(path -> addFileToDigest(digest, path));
+        int i = 0;
+        for (String relativePath : filesByRelativePath.keySet()) {
+            digest.update(relativePath.getBytes(Charsets.UTF_8));
+            digest.update(fileDigests.get(i++));
+        }
         return DatatypeConverter.printHexBinary(digest.digest());
+    }
 
+    private static String toLinuxPath(Path relativePath) {
+        return relativePath.toString().replace(relativePath.getFileSystem().getSeparator(), "/");
     }
 
     @SneakyThrows({ IOException.class })
-    private static void addFileToDigest(MessageDigest digest, Path path) {
-        try (InputStream digestInputStream = new DigestInputStream(new BufferedInputStream(Files.newInputStream(path)), digest)) {
-            while (digestInputStream.read() != -1) {
-            }
+    private static byte[] getFileDigest(Path path) {
+        if (path.getFileSystem() != FileSystems.getDefault()) {
+            // zip entries modification times have a 2 seconds precision and do not identify a version of the entry, their digest is never cached.
+            return computeFileDigest(path);
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        byte[] fileDigest = FileDigestCache.get(path, attributes);
+        if (fileDigest == null) {
+            fileDigest = computeFileDigest(path);
+            FileDigestCache.put(path, attributes, fileDigest);
+        }
+        return fileDigest;
+    }
+
+    @SneakyThrows({ IOException.class })
+    private static byte[] computeFileDigest(Path path) {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return computeDigest(inputStream);
+        }
+    }
+
+    @SneakyThrows({ NoSuchAlgorithmException.class })
+    private static byte[] computeDigest(InputStream inputStream) throws IOException {
+        MessageDigest digest = MessageDigest.getInstance("SHA1");
+        byte[] buffer = new byte[DIGEST_BUFFER_SIZE];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
         }
+        return digest.digest();
     }
 
     @SneakyThrows({ IOException.class })
@@ -0,0 +1,158 @@
+package alien4cloud.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import com.google.common.collect.Maps;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reference counted zip file system shared by all the readers of a given zip file.
+ *
+ * Opening a zip file system reads and indexes the whole central directory of the zip, which is expensive for large archives. Readers that open a zip through
+ * {@link #open(Path)} while another handle on the same file is still open reuse the already opened file system, so opening a handle around a whole processing
+ * (pre-parsing, parsing, post-processing and indexing of an archive) ensures that the zip is read only once. The file system is closed when the last handle is
+ * closed. File systems are opened in read mode and can be used concurrently from multiple threads.
+ *
+ * File systems are shared only between handles opened on the same version of the file (same file key, size and last modification time): once a zip has been
+ * replaced, new handles open a new file system while the handles opened before keep reading the previous version.
+ */
+@Slf4j
+public final class SharedZipFileSystem implements Closeable {
+    private static final Map<FileIdentity, Entry> OPENED = Maps.newHashMap();
+
+    private final Entry entry;
+    private boolean closed = false;
+
+    private SharedZipFileSystem(Entry entry) {
+        this.entry = entry;
+    }
+
+    /**
+     * Open a handle on the zip file system of the given file, reusing the file system of any handle already opened on the same file.
+     *
+     * @param zipFile The zip file to open.
+     * @return A handle on the zip file system that must be closed once the reader is done with the file system.
+     * @throws IOException In case the zip file cannot be read.
+     * @throws ProviderNotFoundException In case the file is not a zip file.
+     */
+    public static SharedZipFileSystem open(Path zipFile) throws IOException {
+        Path path = zipFile.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        FileIdentity key = new FileIdentity(path, attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+        synchronized (OPENED) {
+            Entry entry = OPENED.get(key);
+            if (entry != null) {
+                entry.references++;
+                return new SharedZipFileSystem(entry);
+            }
+        }
+        // open outside of the lock so unrelated archives are not serialized behind the central directory reading.
+        FileSystem fileSystem = FileSystems.newFileSystem(path, null);
+        synchronized (OPENED) {
+            Entry entry = OPENED.get(key);
+            if (entry == null) {
+                entry = new Entry(key, fileSystem);
+                OPENED.put(key, entry);
+            } else {
+                // another thread opened the same zip concurrently.
+                closeQuietly(fileSystem);
+            }
+            entry.references++;
+            return new SharedZipFileSystem(entry);
+        }
+    }
+
+    /**
+     * Open a handle on the zip file system of the given file if it is a readable zip file.
+     *
+     * @param zipFile The file to open.
+     * @return A handle on the zip file system or null if the file is not a readable zip file (directory, yaml file, missing file etc.).
+     */
+    public static SharedZipFileSystem openIfZip(Path zipFile) {
+        if (!FileUtil.isZipFile(zipFile)) {
+            return null;
+        }
+        try {
+            return open(zipFile);
+        } catch (IOException | ProviderNotFoundException e) {
+            log.debug("Unable to open zip file system for " + zipFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return The shared zip file system, it must not be closed directly.
+     */
+    public FileSystem getFileSystem() {
+        return entry.fileSystem;
+    }
+
+    /**
+     * Get a path inside the zip file system.
+     *
+     * @param first The path string or initial part of the path string.
+     * @param more Additional strings to be joined to form the path string.
+     * @return The path inside the zip.
+     */
+    public Path getPath(String first, String... more) {
+        return entry.fileSystem.getPath(first, more);
+    }
+
+    @Override
+    public void close() {
+        synchronized (OPENED) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            entry.references--;
+            if (entry.references > 0) {
+                return;
+            }
+            OPENED.remove(entry.identity);
+        }
+        closeQuietly(entry.fileSystem);
+    }
+
+    private static void closeQuietly(FileSystem fileSystem) {
+        try {
+            fileSystem.close();
+        } catch (IOException e) {
+            log.warn("Unable to close zip file system", e);
+        }
+    }
+
+    /** Identifies a version of a zip file, the file key changes when the file is replaced and the size or modification time when it is rewritten. */
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class FileIdentity {
+        private final Path path;
+        /** Unique file key (inode on unix), may be null on file systems that do not provide it. */
+        private final Object fileKey;
+        private final long size;
+        private final FileTime lastModifiedTime;
+    }
+
+    private static class Entry {
+        private final FileIdentity identity;
+        private final FileSystem fileSystem;
+        private int references = 0;
+
+        private Entry(FileIdentity identity, FileSystem fileSystem) {
+            this.identity = identity;
+            this.fileSystem = fileSystem;
+        }
+    }
+}
@@ -24,6 +24,7 @@ public class TarDirWalker extends SimpleFileVisitor<Path> {
     public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
         if (!dir.equals(basePath)) {
             tarArchiveOutputStream.putArchiveEntry(new TarArchiveEntry(FileUtil.getChildEntryRelativePath(basePath, dir, true)));
+            tarArchiveOutputStream.closeArchiveEntry();
         }
         return FileVisitResult.CONTINUE;
     }
@@ -0,0 +1,179 @@
+package alien4cloud.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+
+public class FileUtilTest {
+    private Path tempDirectory;
+
+    @Before
+    public void init() throws IOException {
+        tempDirectory = Files.createTempDirectory("file-util-test");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileDigestCache.configure(0);
+        FileUtil.delete(tempDirectory);
+    }
+
+    @Test
+    public void deepSHA1ShouldNotDependOnFilesCreationOrder() throws IOException {
+        Path first = tempDirectory.resolve("first");
+        write(first.resolve("a.yml"), "a");
+        write(first.resolve("dir/b.yml"), "b");
+        Path second = tempDirectory.resolve("second");
+        write(second.resolve("dir/b.yml"), "b");
+        write(second.resolve("a.yml"), "a");
+
+        Assert.assertEquals(FileUtil.deepSHA1(first), FileUtil.deepSHA1(second));
+    }
+
+    @Test
+    public void deepSHA1ShouldChangeWhenAFileIsRenamed() throws IOException {
+        Path first = tempDirectory.resolve("first");
+        write(first.resolve("a.yml"), "a");
+        Path second = tempDirectory.resolve("second");
+        write(second.resolve("b.yml"), "a");
+
+        Assert.assertNotEquals(FileUtil.deepSHA1(first), FileUtil.deepSHA1(second));
+    }
+
+    @Test
+    public void deepSHA1UsesCachedDigestWhenMtimeAndSizeUnchanged() throws IOException {
+        FileDigestCache.configure(100);
+        Path directory = tempDirectory.resolve("directory");
+        Path file = directory.resolve("a.yml");
+        write(file, "a");
+        String hash = FileUtil.deepSHA1(directory);
+
+        // same size and same modification date, the file is not read again and the cached digest is used.
+        FileTime lastModifiedTime = Files.getLastModifiedTime(file);
+        write(file, "b");
+        Files.setLastModifiedTime(file, lastModifiedTime);
+        Assert.assertEquals(hash, FileUtil.deepSHA1(directory));
+    }
+
+    @Test
+    public void deepSHA1ShouldNotUseCachedDigestWhenMtimeChanged() throws IOException {
+        FileDigestCache.configure(100);
+        Path directory = tempDirectory.resolve("directory");
+        Path file = directory.resolve("a.yml");
+        write(file, "a");
+        FileTime lastModifiedTime = Files.getLastModifiedTime(file);
+        String hash = FileUtil.deepSHA1(directory);
+
+        write(file, "b");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModifiedTime.toMillis() + 1000));
+        Assert.assertNotEquals(hash, FileUtil.deepSHA1(directory));
+        Assert.assertEquals(FileUtil.deepSHA1(copy(directory)), FileUtil.deepSHA1(directory));
+    }
+
+    @Test
+    public void deepSHA1ShouldNotUseCachedDigestWhenSizeChanged() throws IOException {
+        FileDigestCache.configure(100);
+        Path directory = tempDirectory.resolve("directory");
+        Path file = directory.resolve("a.yml");
+        write(file, "a");
+        FileTime lastModifiedTime = Files.getLastModifiedTime(file);
+        String hash = FileUtil.deepSHA1(directory);
+
+        write(file, "bb");
+        Files.setLastModifiedTime(file, lastModifiedTime);
+        Assert.assertNotEquals(hash, FileUtil.deepSHA1(directory));
+        Assert.assertEquals(FileUtil.deepSHA1(copy(directory)), FileUtil.deepSHA1(directory));
+    }
+
+    @Test
+    public void deepSHA1ShouldNotUseCachedDigestOfZipEntries() throws IOException {
+        FileDigestCache.configure(100);
+        Path zip = tempDirectory.resolve("archive.zip");
+        zip(zip, "a");
+        String hash = FileUtil.deepSHA1(zip);
+
+        // same entry size and modification time.
+        zip(zip, "b");
+        Assert.assertNotEquals(hash, FileUtil.deepSHA1(zip));
+    }
+
+    @Test
+    public void updateZipShouldOnlyContainCurrentFiles() throws IOException {
+        Path directory = tempDirectory.resolve("directory");
+        write(directory.resolve("unchanged.yml"), "unchanged");
+        write(directory.resolve("dir/modified.yml"), "modified");
+        write(directory.resolve("deleted.yml"), "deleted");
+        Path zip = tempDirectory.resolve("archive.zip");
+        FileUtil.updateZip(directory, zip);
+
+        write(directory.resolve("dir/modified.yml"), "modified content");
+        write(directory.resolve("dir/new.yml"), "new");
+        Files.delete(directory.resolve("deleted.yml"));
+        FileUtil.updateZip(directory, zip);
+
+        Path unzipped = tempDirectory.resolve("unzipped");
+        FileUtil.unzip(zip, unzipped);
+        Assert.assertEquals("unchanged", read(unzipped.resolve("unchanged.yml")));
+        Assert.assertEquals("modified content", read(unzipped.resolve("dir/modified.yml")));
+        Assert.assertEquals("new", read(unzipped.resolve("dir/new.yml")));
+        Assert.assertFalse(Files.exists(unzipped.resolve("deleted.yml")));
+    }
+
+    @Test
+    public void updateZipShouldDetectModifiedFilesOfSameSize() throws IOException {
+        Path directory = tempDirectory.resolve("directory");
+        write(directory.resolve("file.yml"), "aaaa");
+        Path zip = tempDirectory.resolve("archive.zip");
+        FileUtil.updateZip(directory, zip);
+        FileUtil.updateZip(directory, zip);
+
+        write(directory.resolve("file.yml"), "bbbb");
+        FileUtil.updateZip(directory, zip);
+
+        Path unzipped = tempDirectory.resolve("unzipped");
+        FileUtil.unzip(zip, unzipped);
+        Assert.assertEquals("bbbb", read(unzipped.resolve("file.yml")));
+        // digests are internal and must not be stored in the zip.
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            Assert.assertNull(zipFile.getEntry("file.yml").getComment());
+        }
+    }
+
+    private void zip(Path zipFile, String content) throws IOException {
+        try (OutputStream os = Files.newOutputStream(zipFile); ZipOutputStream zos = new ZipOutputStream(os)) {
+            ZipEntry entry = new ZipEntry("a.yml");
+            entry.setTime(0);
+            zos.putNextEntry(entry);
+            zos.write(content.getBytes(Charsets.UTF_8));
+            zos.closeEntry();
+        }
+    }
+
+    /** Copy the files of a directory so their digests are computed without the cache. */
+    private Path copy(Path directory) throws IOException {
+        Path copy = tempDirectory.resolve("copy");
+        FileUtil.copy(directory, copy);
+        return copy;
+    }
+
+    private String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), Charsets.UTF_8);
+    }
+
+    private void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(Charsets.UTF_8));
+    }
+}
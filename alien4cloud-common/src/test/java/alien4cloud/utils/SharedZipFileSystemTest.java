@@ -0,0 +1,80 @@
+package alien4cloud.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+
+public class SharedZipFileSystemTest {
+    private Path tempDirectory;
+
+    @Before
+    public void init() throws IOException {
+        tempDirectory = Files.createTempDirectory("shared-zip-test");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtil.delete(tempDirectory);
+    }
+
+    @Test
+    public void fileSystemShouldBeSharedUntilLastHandleIsClosed() throws IOException {
+        Path zip = zip(tempDirectory.resolve("archive.zip"), "content");
+        SharedZipFileSystem first = SharedZipFileSystem.open(zip);
+        SharedZipFileSystem second = SharedZipFileSystem.open(zip);
+        Assert.assertSame(first.getFileSystem(), second.getFileSystem());
+
+        first.close();
+        // closing a handle twice must not release the file system of the other handle.
+        first.close();
+        Assert.assertTrue(second.getFileSystem().isOpen());
+        Assert.assertEquals("content", read(second));
+
+        second.close();
+        Assert.assertFalse(second.getFileSystem().isOpen());
+
+        try (SharedZipFileSystem reopened = SharedZipFileSystem.open(zip)) {
+            Assert.assertNotSame(second.getFileSystem(), reopened.getFileSystem());
+            Assert.assertEquals("content", read(reopened));
+        }
+    }
+
+    @Test
+    public void replacedZipShouldNotReuseThePreviousFileSystem() throws IOException {
+        Path zip = zip(tempDirectory.resolve("archive.zip"), "previous");
+        try (SharedZipFileSystem previous = SharedZipFileSystem.open(zip)) {
+            Path replacement = zip(tempDirectory.resolve("replacement.zip"), "current");
+            Files.move(replacement, zip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            try (SharedZipFileSystem current = SharedZipFileSystem.open(zip)) {
+                Assert.assertNotSame(previous.getFileSystem(), current.getFileSystem());
+                Assert.assertEquals("current", read(current));
+            }
+            Assert.assertTrue(previous.getFileSystem().isOpen());
+        }
+    }
+
+    private Path zip(Path zipFile, String content) throws IOException {
+        try (OutputStream os = Files.newOutputStream(zipFile); ZipOutputStream zos = new ZipOutputStream(os)) {
+            zos.putNextEntry(new ZipEntry("file.txt"));
+            zos.write(content.getBytes(Charsets.UTF_8));
+            zos.closeEntry();
+        }
+        return zipFile;
+    }
+
+    private String read(SharedZipFileSystem zipFileSystem) throws IOException {
+        return new String(Files.readAllBytes(zipFileSystem.getPath("file.txt")), Charsets.UTF_8);
+    }
+}
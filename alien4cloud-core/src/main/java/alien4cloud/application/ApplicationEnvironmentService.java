@@ -40,6 +40,7 @@ import alien4cloud.model.application.ApplicationTopologyVersion;
 import alien4cloud.model.application.ApplicationVersion;
 import alien4cloud.model.application.EnvironmentType;
 import alien4cloud.model.deployment.Deployment;
+import alien4cloud.model.deployment.DeploymentTopology;
 import alien4cloud.model.service.ServiceResource;
 import alien4cloud.paas.model.DeploymentStatus;
 import alien4cloud.security.AuthorizationUtil;
@@ -325,11 +326,22 @@ public class ApplicationEnvironmentService {
      * @throws InterruptedException In case there is a failure while communicating with the orchestrator.
      */
     public DeploymentStatus getStatus(final Deployment deployment) {
+        return getStatus(deployment, null);
+    }
+
+    /**
+     * Get the deployment status of the given deployment using an already fetched runtime topology.
+     *
+     * @param deployment The deployment for which to get deployment status.
+     * @param runtimeTopology The runtime topology of the deployment, if null the runtime topology is fetched from the repository.
+     * @return The deployment status of the environment. {@link DeploymentStatus}.
+     */
+    public DeploymentStatus getStatus(final Deployment deployment, final DeploymentTopology runtimeTopology) {
         if (deployment == null) {
             return DeploymentStatus.UNDEPLOYED;
         }
         return deploymentLockService.doWithDeploymentReadLock(deployment.getOrchestratorDeploymentId(), () -> {
-            DeploymentStatus currentStatus = deploymentRuntimeStateService.getDeploymentStatus(deployment);
+            DeploymentStatus currentStatus = deploymentRuntimeStateService.getDeploymentStatus(deployment, runtimeTopology);
             return currentStatus;
         });
     }
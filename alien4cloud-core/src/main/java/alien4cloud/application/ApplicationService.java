@@ -251,7 +251,8 @@ public class ApplicationService {
         deleteApplicationEnvironments.delete();
         publisher.publishEvent(new BeforeApplicationDeleted(this, applicationId));
         alienDAO.delete(Application.class, applicationId);
-        if (application != null && StringUtils.isNotBlank(application.getImageId())) {
+        // shared images (topology icons) are removed with the archives that use them.
+        if (application != null && StringUtils.isNotBlank(application.getImageId()) && !imageDAO.isSharedImage(application.getImageId())) {
             imageDAO.deleteAll(application.getImageId());
         }
         publisher.publishEvent(new AfterApplicationDeleted(this, applicationId));
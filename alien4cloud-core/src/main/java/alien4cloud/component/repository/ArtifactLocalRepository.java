@@ -1,30 +1,146 @@
-
 package alien4cloud.component.repository;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.Striped;
+
 import alien4cloud.component.repository.exception.RepositoryIOException;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Local repository of the artifacts uploaded in alien4cloud.
+ *
+ * The content of the files stored without an id is content addressed: it is stored once in a blob named by its SHA-256 hash and every stored file is a
+ * hard link to the blob (the id of the file starts with the hash of its content). Blobs are reference counted and deleted once no file uses them anymore. If
+ * the file system does not support hard links the files are stored as plain files (without deduplication).
+ *
+ * As all the files with the same content share the same blob, blobs are read-only: a stored file must never be modified in place (writing it fails), it must
+ * be replaced using {@link #storeFile(String, InputStream)} or stored under a new id.
+ */
+@Slf4j
 @Component
 public class ArtifactLocalRepository extends AbstractLocalRepository {
+    private static final String BLOBS_DIRECTORY = ".blobs";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern CONTENT_ADDRESSED_ID = Pattern.compile("^([0-9a-f]{64})-[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}$");
 
     private Path repositoryPath;
+    private boolean hardLinksSupported;
+    /** Number of files linked to each blob (by blob hash), guarded by the blob lock. */
+    private final Map<String, Integer> references = Maps.newConcurrentMap();
+    private final Striped<Lock> blobLocks = Striped.lock(64);
 
     @Override
     public Path getRepositoryPath() {
         return this.repositoryPath;
     }
 
+    @PostConstruct
+    public void init() throws IOException {
+        ensureRepositoryExists();
+        hardLinksSupported = checkHardLinks();
+        if (!hardLinksSupported) {
+            log.warn("Hard links are not supported in artifact repository <{}>, artifacts with the same content will not be deduplicated.", repositoryPath);
+        }
+        // count the files linked to each blob then remove the blobs that are not used anymore.
+        references.clear();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(repositoryPath)) {
+            for (Path file : files) {
+                String hash = getBlobHash(file.getFileName().toString());
+                if (hash != null && Files.exists(getBlobPath(hash))) {
+                    references.merge(hash, 1, Integer::sum);
+                }
+            }
+        }
+        // no upload is in progress yet, temporary files are left by uploads interrupted by a previous shutdown.
+        collectGarbage(true);
+    }
+
+    private boolean checkHardLinks() throws IOException {
+        Path probe = Files.createTempFile(getBlobsPath(), "link", TEMP_FILE_SUFFIX);
+        Path link = probe.resolveSibling(probe.getFileName() + ".link");
+        try {
+            Files.createLink(link, probe);
+            return true;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            return false;
+        } finally {
+            Files.deleteIfExists(link);
+            Files.deleteIfExists(probe);
+        }
+    }
+
+    /**
+     * Delete the blobs that are not used by any file anymore.
+     *
+     * @return The number of deleted blobs.
+     */
+    public int collectGarbage() throws IOException {
+        return collectGarbage(false);
+    }
+
+    private int collectGarbage(boolean deleteTempFiles) throws IOException {
+        int deleted = 0;
+        try (DirectoryStream<Path> blobs = Files.newDirectoryStream(getBlobsPath())) {
+            for (Path blob : blobs) {
+                String name = blob.getFileName().toString();
+                if (name.endsWith(TEMP_FILE_SUFFIX)) {
+                    if (deleteTempFiles) {
+                        Files.deleteIfExists(blob);
+                    }
+                    continue;
+                }
+                Lock lock = blobLocks.get(name);
+                lock.lock();
+                try {
+                    if (!references.containsKey(name)) {
+                        if (Files.deleteIfExists(blob)) {
+                            deleted++;
+                        }
+                    } else if (deleteTempFiles) {
+                        // on startup, protect the blobs created before blobs were read-only.
+                        setReadOnly(blob);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        log.debug("Artifact repository garbage collection deleted {} blobs, {} blobs in use", deleted, references.size());
+        return deleted;
+    }
+
     @Override
     public void storeFile(String id, InputStream data) {
+        String hash = getBlobHash(id);
+        if (hash != null) {
+            // the file content changes, it is not linked to its blob anymore.
+            deleteFile(id);
+        }
         try {
             super.storeFile(id, data);
         } catch (RepositoryIOException e) {
@@ -35,14 +151,107 @@ public class ArtifactLocalRepository extends AbstractLocalRepository {
 
     @Override
     public String storeFile(InputStream data) {
+        Path tempFile = null;
         try {
-            return super.storeFile(data);
-        } catch (RepositoryIOException e) {
-            ensureRepositoryExists();
-            return super.storeFile(data);
+            tempFile = Files.createTempFile(getBlobsPath(), "upload", TEMP_FILE_SUFFIX);
+            String hash = copyAndHash(data, tempFile);
+            String id = hash + "-" + UUID.randomUUID().toString();
+            if (!hardLinksSupported) {
+                Files.move(tempFile, resolveFile(id), StandardCopyOption.ATOMIC_MOVE);
+                return id;
+            }
+            Lock lock = blobLocks.get(hash);
+            lock.lock();
+            try {
+                Path blob = getBlobPath(hash);
+                if (Files.exists(blob)) {
+                    log.debug("Artifact content <{}> already stored, linking file <{}> to the existing blob", hash, id);
+                } else {
+                    Files.move(tempFile, blob, StandardCopyOption.ATOMIC_MOVE);
+                    setReadOnly(blob);
+                }
+                Files.createLink(resolveFile(id), blob);
+                references.merge(hash, 1, Integer::sum);
+            } finally {
+                lock.unlock();
+            }
+            return id;
+        } catch (IOException e) {
+            throw new RepositoryIOException("Could not store file in repository <" + repositoryPath + ">", e);
+        } finally {
+            deleteTempFile(tempFile);
         }
     }
 
+    @Override
+    public boolean deleteFile(String id) {
+        String hash = getBlobHash(id);
+        if (hash == null) {
+            return super.deleteFile(id);
+        }
+        Lock lock = blobLocks.get(hash);
+        lock.lock();
+        try {
+            boolean deleted = super.deleteFile(id);
+            if (deleted && references.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null) == null) {
+                Files.deleteIfExists(getBlobPath(hash));
+            }
+            return deleted;
+        } catch (IOException e) {
+            log.error("Failed to delete unused artifact blob <" + hash + ">, it will be deleted by next garbage collection", e);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String copyAndHash(InputStream data, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 digest is not available", e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream os = Files.newOutputStream(target)) {
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                os.write(buffer, 0, read);
+            }
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    private void setReadOnly(Path blob) {
+        if (!blob.toFile().setReadOnly()) {
+            log.warn("Unable to make artifact blob <{}> read-only", blob);
+        }
+    }
+
+    private void deleteTempFile(Path tempFile) {
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary file <" + tempFile + ">", e);
+            }
+        }
+    }
+
+    private String getBlobHash(String id) {
+        Matcher matcher = CONTENT_ADDRESSED_ID.matcher(id);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private Path getBlobsPath() {
+        return repositoryPath.resolve(BLOBS_DIRECTORY);
+    }
+
+    private Path getBlobPath(String hash) {
+        return getBlobsPath().resolve(hash);
+    }
+
     @Required
     @Value("${directories.alien}/${directories.artifact_repository}")
     public void setRepositoryPath(String path) throws IOException {
@@ -51,9 +260,10 @@ public class ArtifactLocalRepository extends AbstractLocalRepository {
     }
 
     private void ensureRepositoryExists() {
-        if (!Files.exists(repositoryPath)) {
+        Path blobsPath = getBlobsPath();
+        if (!Files.exists(blobsPath)) {
             try {
-                Files.createDirectories(repositoryPath);
+                Files.createDirectories(blobsPath);
             } catch (IOException e) {
                 throw new RepositoryIOException("Fails to create artifact repository at " + repositoryPath.toString());
             }
@@ -55,6 +55,9 @@ public interface IFileRepository {
     /**
      * Retrieve the path to access a given file based on it's id.
      * 
+     * The returned path must only be used to read the file: files may share their content with other files (and be read-only), to change the content of a
+     * file use {@link #storeFile(String, InputStream)}.
+     * 
      * @param id The id of the file to retrieve.
      * @return a path to the file.
      */
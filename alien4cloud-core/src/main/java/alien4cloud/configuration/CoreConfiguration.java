@@ -1,9 +1,12 @@
 package alien4cloud.configuration;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
+import alien4cloud.utils.FileDigestCache;
+
 @Configuration
 public class CoreConfiguration {
 
@@ -11,4 +14,14 @@ public class CoreConfiguration {
     public LocalValidatorFactoryBean validator() {
         return new LocalValidatorFactoryBean();
     }
-}
\ No newline at end of file
+
+    /**
+     * Configure the cache of file digests used to compute the hash of archives.
+     *
+     * @param digestCacheSize The maximum number of file digests to cache, 0 disables the cache.
+     */
+    @Value("${archive.digest_cache_size:0}")
+    public void setDigestCacheSize(long digestCacheSize) {
+        FileDigestCache.configure(digestCacheSize);
+    }
+}
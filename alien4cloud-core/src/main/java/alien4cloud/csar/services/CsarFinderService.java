@@ -72,10 +72,8 @@ public class CsarFinderService {
             Path relativePath = rootPath.relativize(path);
             Path zipPath = zipRootPath.resolve(relativePath).resolve("archive.zip");
             try {
-                if (Files.exists(zipPath)) {
-                    FileUtil.delete(zipPath);
-                }
-                FileUtil.zip(path, zipPath);
+                // the zip of a previous import of the repository is updated with the files that changed since.
+                FileUtil.updateZip(path, zipPath);
                 toscaArchives.add(zipPath);
             } catch (IOException e) {
                 throw new GitException("Failed to zip archives in order to import them.", e);
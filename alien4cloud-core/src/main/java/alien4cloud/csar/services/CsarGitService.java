@@ -4,6 +4,7 @@ import alien4cloud.component.repository.exception.CSARUsedInActiveDeployment;
 import alien4cloud.component.repository.exception.ToscaTypeAlreadyDefinedInOtherCSAR;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.exception.AlreadyExistException;
+import alien4cloud.exception.GitException;
 import alien4cloud.git.RepositoryManager;
 import alien4cloud.model.components.CSARSource;
 import alien4cloud.model.git.CsarGitCheckoutLocation;
@@ -16,7 +17,11 @@ import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.tosca.parser.impl.ErrorCode;
 import alien4cloud.utils.AlienConstants;
 import alien4cloud.utils.FileUtil;
+import alien4cloud.utils.SharedZipFileSystem;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.catalog.ArchiveUploadService;
 import org.alien4cloud.tosca.catalog.exception.UploadExceptionUtil;
@@ -24,21 +29,34 @@ import org.alien4cloud.tosca.catalog.index.CsarService;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.CsarDependenciesBean;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.eclipse.jgit.api.Git;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static alien4cloud.utils.AlienUtils.safe;
 
 @Slf4j
 @Service
@@ -57,6 +75,23 @@ public class CsarGitService {
     private Path tempDirPath;
     private Path tempZipDirPath;
 
+    /** Maximum number of archives of the same dependency level imported concurrently. */
+    @Value("${archive.git_import_threads:4}")
+    private int importThreads;
+    private ExecutorService importExecutor;
+
+    @PostConstruct
+    public void init() {
+        // uploads check the roles of the user so the security context is propagated to the import threads.
+        importExecutor = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(Math.max(importThreads, 1), new NamedThreadFactory("a4c-git-import")));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        importExecutor.shutdownNow();
+    }
+
     @Required
     @Value("${directories.alien}/${directories.upload_temp}")
     public void setTempDirPath(String tempDirPath) throws IOException {
@@ -156,101 +191,162 @@ public class CsarGitService {
         Set<Path> archivePaths = csarFinderService.prepare(archiveGitRoot, archiveZipRoot);
 
         List<ParsingResult<Csar>> parsingResults = Lists.newArrayList();
-
-        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = uploadService.preParsing(archivePaths, parsingResults);
-        List<CsarDependenciesBean> sorted = sort(csarDependenciesBeans);
-        for (CsarDependenciesBean csarBean : sorted) {
-            String archiveRepoPath = archiveZipRoot.relativize(csarBean.getPath().getParent()).toString();
-            if (csarGitCheckoutLocation.getLastImportedHash() != null && csarGitCheckoutLocation.getLastImportedHash().equals(gitHash)
-                    && csarService.get(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
-                // no commit since last import and the archive still exist in the repo, so do not import
-                addAlreadyImportParsingResult(archiveRepoPath, parsingResults);
-                continue;
+        // keep the archives zips opened for both the pre-parsing and the upload so every zip is read only once.
+        List<SharedZipFileSystem> archiveFileSystems = Lists.newArrayList();
+        try {
+            for (Path archivePath : archivePaths) {
+                SharedZipFileSystem archiveFS = SharedZipFileSystem.openIfZip(archivePath);
+                if (archiveFS != null) {
+                    archiveFileSystems.add(archiveFS);
+                }
             }
-            try {
-                // FIXME Add possibility to choose an workspace
-                ParsingResult<Csar> result = uploadService.upload(csarBean.getPath(), CSARSource.GIT, AlienConstants.GLOBAL_WORKSPACE_ID);
-                result.getContext().setFileName(archiveRepoPath + "/" + result.getContext().getFileName());
-                parsingResults.add(result);
-            } catch (ParsingException e) {
-                ParsingResult<Csar> failedResult = new ParsingResult<>();
-                failedResult.setContext(new ParsingContext(archiveRepoPath));
-                failedResult.getContext().setParsingErrors(e.getParsingErrors());
-                parsingResults.add(failedResult);
-                log.debug("Failed to import archive from git as it cannot be parsed", e);
-            } catch (AlreadyExistException | ToscaTypeAlreadyDefinedInOtherCSAR | CSARUsedInActiveDeployment e) {
-                ParsingResult<Csar> failedResult = new ParsingResult<>();
-                failedResult.setContext(new ParsingContext(archiveRepoPath));
-                failedResult.getContext().setParsingErrors(Lists.newArrayList(UploadExceptionUtil.parsingErrorFromException(e)));
-                parsingResults.add(failedResult);
+            Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = uploadService.preParsing(archivePaths, parsingResults);
+            // archives of a level only depend on archives of the previous levels so they can be imported concurrently.
+            Set<CSARDependency> failedArchives = Sets.newHashSet();
+            for (List<CsarDependenciesBean> level : sortByLevel(csarDependenciesBeans)) {
+                List<Future<ParsingResult<Csar>>> futures = Lists.newArrayList();
+                for (CsarDependenciesBean csarBean : level) {
+                    String archiveRepoPath = archiveZipRoot.relativize(csarBean.getPath().getParent()).toString();
+                    CSARDependency failedDependency = csarBean.getDependencies().stream().filter(failedArchives::contains).findFirst().orElse(null);
+                    if (failedDependency != null) {
+                        futures.add(CompletableFuture.completedFuture(createDependencyFailedParsingResult(archiveRepoPath, failedDependency)));
+                    } else if (csarGitCheckoutLocation.getLastImportedHash() != null && csarGitCheckoutLocation.getLastImportedHash().equals(gitHash)
+                            && csarService.get(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
+                        // no commit since last import and the archive still exist in the repo, so do not import
+                        futures.add(CompletableFuture.completedFuture(createAlreadyImportParsingResult(archiveRepoPath)));
+                    } else {
+                        futures.add(importExecutor.submit(() -> importArchive(csarBean, archiveRepoPath)));
+                    }
+                }
+                // wait for the whole level to be imported before importing the archives that depends on it.
+                try {
+                    for (int i = 0; i < level.size(); i++) {
+                        ParsingResult<Csar> result = getImportResult(futures.get(i));
+                        if (result.hasError(ParsingErrorLevel.ERROR)) {
+                            failedArchives.add(level.get(i).getSelf());
+                        }
+                        parsingResults.add(result);
+                    }
+                } finally {
+                    // cancel remaining work in case of failure.
+                    futures.forEach(future -> future.cancel(true));
+                }
             }
+        } finally {
+            archiveFileSystems.forEach(SharedZipFileSystem::close);
         }
         return parsingResults;
 
     }
 
+    private ParsingResult<Csar> importArchive(CsarDependenciesBean csarBean, String archiveRepoPath) {
+        try {
+            // FIXME Add possibility to choose an workspace
+            ParsingResult<Csar> result = uploadService.upload(csarBean.getPath(), CSARSource.GIT, AlienConstants.GLOBAL_WORKSPACE_ID);
+            result.getContext().setFileName(archiveRepoPath + "/" + result.getContext().getFileName());
+            return result;
+        } catch (ParsingException e) {
+            ParsingResult<Csar> failedResult = new ParsingResult<>();
+            failedResult.setContext(new ParsingContext(archiveRepoPath));
+            failedResult.getContext().setParsingErrors(e.getParsingErrors());
+            log.debug("Failed to import archive from git as it cannot be parsed", e);
+            return failedResult;
+        } catch (AlreadyExistException | ToscaTypeAlreadyDefinedInOtherCSAR | CSARUsedInActiveDeployment e) {
+            ParsingResult<Csar> failedResult = new ParsingResult<>();
+            failedResult.setContext(new ParsingContext(archiveRepoPath));
+            failedResult.getContext().setParsingErrors(Lists.newArrayList(UploadExceptionUtil.parsingErrorFromException(e)));
+            return failedResult;
+        }
+    }
+
+    private ParsingResult<Csar> getImportResult(Future<ParsingResult<Csar>> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitException("Interrupted while importing archives from git", e);
+        }
+    }
+
     /**
-     * Just add a parsing info to the list stating that the archive is already imported and
+     * Create a parsing info stating that the archive is already imported.
      *
      * @param archivePath The path of the archive in the repo.
-     * @param parsingResults The list of parsing results.
+     * @return The parsing result of the archive.
      */
-    private void addAlreadyImportParsingResult(String archivePath, List<ParsingResult<Csar>> parsingResults) {
+    private ParsingResult<Csar> createAlreadyImportParsingResult(String archivePath) {
         ParsingResult<Csar> result = new ParsingResult<>();
         result.setContext(new ParsingContext(archivePath));
         result.getContext().setParsingErrors(Lists.newArrayList(new ParsingError(ParsingErrorLevel.INFO, ErrorCode.CSAR_ALREADY_INDEXED,
                 "No new commit since last import and archive already indexed.", null, null, null, null
 
         )));
-        parsingResults.add(result);
+        return result;
     }
 
-    private List<CsarDependenciesBean> sort(Map<CSARDependency, CsarDependenciesBean> elements) {
-        List<CsarDependenciesBean> sortedCsars = Lists.newArrayList();
+    /**
+     * Create a parsing error stating that the archive has not been imported as one of its dependencies failed to be imported.
+     *
+     * @param archivePath The path of the archive in the repo.
+     * @param failedDependency The dependency that failed to be imported.
+     * @return The parsing result of the archive.
+     */
+    private ParsingResult<Csar> createDependencyFailedParsingResult(String archivePath, CSARDependency failedDependency) {
+        ParsingResult<Csar> result = new ParsingResult<>();
+        result.setContext(new ParsingContext(archivePath));
+        result.getContext().setParsingErrors(Lists.newArrayList(new ParsingError(ParsingErrorLevel.ERROR, ErrorCode.MISSING_DEPENDENCY,
+                "Dependency failed to be imported from git.", null, "The archive is not imported as one of its dependencies failed to be imported.", null,
+                failedDependency.getName() + ":" + failedDependency.getVersion())));
+        return result;
+    }
 
-        List<CsarDependenciesBean> independents = Lists.newArrayList();
-        for (Map.Entry<CSARDependency, CsarDependenciesBean> entry : elements.entrySet()) {
-            CsarDependenciesBean csar = entry.getValue();
-            if (csar.getDependencies() == null) {
-                // the element has no dependencies
-                independents.add(csar);
-            } else {
-                // complete the list of dependent elements
-                List<CSARDependency> toClears = Lists.newArrayList();
-                for (CSARDependency dependency : csar.getDependencies()) {
-                    CsarDependenciesBean providedDependency = elements.get(dependency);
-                    if (providedDependency == null) {
-                        // remove the dependency as it may be in the alien repo
-                        toClears.add(dependency);
-                    } else {
-                        providedDependency.getDependents().add(csar);
-                    }
-                }
-                for (CSARDependency toClear : toClears) {
-                    csar.getDependencies().remove(toClear);
-                }
-                if (csar.getDependencies().isEmpty()) {
-                    independents.add(csar);
-                }
+    /**
+     * Sort the archives by dependency levels: the archives of a level only depend on archives of the previous levels (or on archives that are not part of
+     * the repository and that may be in the catalog). Archives of a level are sorted by path.
+     *
+     * @param elements The archives to sort.
+     * @return The archives grouped by dependency level.
+     */
+    private List<List<CsarDependenciesBean>> sortByLevel(Map<CSARDependency, CsarDependenciesBean> elements) {
+        Map<CSARDependency, Integer> remainingDependencies = Maps.newHashMap();
+        List<CsarDependenciesBean> level = Lists.newArrayList();
+        for (CsarDependenciesBean csar : elements.values()) {
+            // only keep the dependencies on archives of the repository as the other dependencies may be in the alien repo.
+            Set<CSARDependency> dependencies = safe(csar.getDependencies()).stream().filter(elements::containsKey)
+                    .collect(Collectors.toSet());
+            csar.setDependencies(dependencies);
+            for (CSARDependency dependency : dependencies) {
+                elements.get(dependency).getDependents().add(csar);
+            }
+            remainingDependencies.put(csar.getSelf(), dependencies.size());
+            if (dependencies.isEmpty()) {
+                level.add(csar);
             }
         }
 
-        while (!independents.isEmpty()) {
-            CsarDependenciesBean independent = independents.remove(0);
-            elements.remove(independent.getSelf()); // remove from the elements
-            sortedCsars.add(independent); // element has no more dependencies
-            for (CsarDependenciesBean dependent : independent.getDependents()) {
-                dependent.getDependencies().remove(independent.getSelf());
-                if (dependent.getDependencies().isEmpty()) {
-                    independents.add(dependent);
+        List<List<CsarDependenciesBean>> levels = Lists.newArrayList();
+        int sortedCount = 0;
+        while (!level.isEmpty()) {
+            level.sort(Comparator.comparing(CsarDependenciesBean::getPath));
+            levels.add(level);
+            sortedCount += level.size();
+            List<CsarDependenciesBean> nextLevel = Lists.newArrayList();
+            for (CsarDependenciesBean csar : level) {
+                for (CsarDependenciesBean dependent : csar.getDependents()) {
+                    if (remainingDependencies.merge(dependent.getSelf(), -1, Integer::sum) == 0) {
+                        nextLevel.add(dependent);
+                    }
                 }
             }
+            level = nextLevel;
         }
 
-        if (elements.size() > 0) {
+        if (sortedCount < elements.size()) {
             // TODO there is looping dependencies throw exception or ignore ?
+            log.warn("Archives with cyclic dependencies are ignored from git import.");
         }
-
-        return sortedCsars;
+        return levels;
     }
 }
\ No newline at end of file
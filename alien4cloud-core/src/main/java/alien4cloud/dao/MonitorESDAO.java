@@ -43,6 +43,9 @@ public class MonitorESDAO extends ESGenericSearchDAO {
         initIndices("deployedunprocessedtopologies", null, DeploymentUnprocessedTopology.class);
         initIndices("deploymentmonitorevents", null, classes);
         initIndices(PaaSDeploymentLog.class.getSimpleName().toLowerCase(), null, PaaSDeploymentLog.class);
+        // monitor events and logs are ingested at high rate and do not need to be searchable right after being written.
+        setWriteVisibility(WriteVisibility.EVENTUAL, classes);
+        setWriteVisibility(WriteVisibility.EVENTUAL, PaaSDeploymentLog.class);
         initCompleted();
     }
 }
\ No newline at end of file
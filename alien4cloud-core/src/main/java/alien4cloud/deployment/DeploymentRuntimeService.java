@@ -68,6 +68,19 @@ public class DeploymentRuntimeService {
     public PaaSTopologyDeploymentContext buildPaaSTopologyDeploymentContext(OperationExecRequest request) {
         Deployment deployment = deploymentService.getActiveDeploymentOrFail(request.getApplicationEnvironmentId());
         DeploymentTopology deploymentTopology = deploymentRuntimeStateService.getRuntimeTopologyFromEnvironment(deployment.getEnvironmentId());
+        return buildPaaSTopologyDeploymentContext(request, deployment, deploymentTopology);
+    }
+
+    /**
+     * Build the deployment context of an operation execution request from an already fetched deployment and runtime topology.
+     *
+     * @param request the operation's execution description.
+     * @param deployment The active deployment of the environment targeted by the request.
+     * @param deploymentTopology The runtime topology of the deployment.
+     * @return The context to use to execute the operation.
+     */
+    public PaaSTopologyDeploymentContext buildPaaSTopologyDeploymentContext(OperationExecRequest request, Deployment deployment,
+            DeploymentTopology deploymentTopology) {
         Map<String, String> locationIds = TopologyLocationUtils.getLocationIds(deploymentTopology);
         Map<String, Location> locations = deploymentTopologyService.getLocations(locationIds);
         SecretProviderConfigurationAndCredentials secretProviderConfigurationAndCredentials = secretProviderService.generateToken(locations,
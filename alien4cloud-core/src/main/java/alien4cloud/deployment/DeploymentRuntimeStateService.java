@@ -21,6 +21,7 @@ import org.springframework.stereotype.Service;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manage runtime operations on deployments.
@@ -63,6 +64,16 @@ public class DeploymentRuntimeStateService {
         return alienMonitorDao.findById(DeploymentTopology.class, deploymentId);
     }
 
+    /**
+     * Get the deployed (runtime) topology of an application from the deployment's id without blocking the calling thread.
+     *
+     * @param deploymentId id of the deployment
+     * @return A future completed with the DeploymentTopology requested or null if not found
+     */
+    public CompletableFuture<DeploymentTopology> getRuntimeTopologyAsync(String deploymentId) {
+        return alienMonitorDao.findByIdAsync(DeploymentTopology.class, deploymentId);
+    }
+
     public Topology getUnprocessedTopology(String deploymentId) {
         DeploymentUnprocessedTopology deploymentUnprocessedTopology = alienMonitorDao.findById(DeploymentUnprocessedTopology.class, deploymentId);
         if (deploymentUnprocessedTopology != null) {
@@ -90,11 +101,22 @@ public class DeploymentRuntimeStateService {
      * @param deployment deployment for which we want the status.
      * @return The status of the topology.
      */
-    @SneakyThrows
     public DeploymentStatus getDeploymentStatus(Deployment deployment) {
+        return getDeploymentStatus(deployment, null);
+    }
+
+    /**
+     * Synchronously get the current deployment status for a topology using an already fetched runtime topology.
+     *
+     * @param deployment deployment for which we want the status.
+     * @param runtimeTopology The runtime topology of the deployment, if null the runtime topology is fetched from the repository.
+     * @return The status of the topology.
+     */
+    @SneakyThrows
+    public DeploymentStatus getDeploymentStatus(Deployment deployment, DeploymentTopology runtimeTopology) {
         final SettableFuture<DeploymentStatus> statusSettableFuture = SettableFuture.create();
         // update the deployment status from PaaS if it cannot be found.
-        getDeploymentStatus(deployment, new IPaaSCallback<DeploymentStatus>() {
+        getDeploymentStatus(deployment, runtimeTopology, new IPaaSCallback<DeploymentStatus>() {
             @Override
             public void onSuccess(DeploymentStatus data) {
                 statusSettableFuture.set(data);
@@ -117,6 +139,11 @@ public class DeploymentRuntimeStateService {
      * @throws alien4cloud.paas.exception.OrchestratorDisabledException In case the cloud selected for the topology is disabled.
      */
     public void getDeploymentStatus(final Deployment deployment, final IPaaSCallback<DeploymentStatus> callback) throws OrchestratorDisabledException {
+        getDeploymentStatus(deployment, null, callback);
+    }
+
+    private void getDeploymentStatus(final Deployment deployment, final DeploymentTopology runtimeTopology, final IPaaSCallback<DeploymentStatus> callback)
+            throws OrchestratorDisabledException {
         deploymentLockService.doWithDeploymentReadLock(deployment.getOrchestratorDeploymentId(), () -> {
             if (deployment == null) {
                 callback.onSuccess(DeploymentStatus.UNDEPLOYED);
@@ -124,7 +151,8 @@ public class DeploymentRuntimeStateService {
             }
             IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
 
-            PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, getRuntimeTopology(deployment.getId()), null);
+            PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment,
+                    runtimeTopology == null ? getRuntimeTopology(deployment.getId()) : runtimeTopology, null);
             IPaaSCallback<DeploymentStatus> esCallback = new IPaaSCallback<DeploymentStatus>() {
                 @Override
                 public void onSuccess(DeploymentStatus data) {
@@ -155,7 +183,19 @@ public class DeploymentRuntimeStateService {
             callback.onSuccess(instancesInformation);
             return;
         }
-        DeploymentTopology runtimeTopology = alienMonitorDao.findById(DeploymentTopology.class, deployment.getId());
+        getInstancesInformation(deployment, alienMonitorDao.findById(DeploymentTopology.class, deployment.getId()), callback);
+    }
+
+    /**
+     * Get the detailed status for each instance of each node template using an already fetched runtime topology.
+     *
+     * @param deployment The deployment for witch to get the instance informations.
+     * @param runtimeTopology The runtime topology of the deployment.
+     * @param callback callback on witch to send the map of node template's id to map of instance's id to instance information.
+     * @throws alien4cloud.paas.exception.OrchestratorDisabledException In case the cloud selected for the topology is disabled.
+     */
+    public void getInstancesInformation(final Deployment deployment, DeploymentTopology runtimeTopology,
+            IPaaSCallback<Map<String, Map<String, InstanceInformation>>> callback) throws OrchestratorDisabledException {
         PaaSTopologyDeploymentContext deploymentContext = deploymentContextService.buildTopologyDeploymentContext(null, deployment,
                 deploymentTopologyService.getLocations(runtimeTopology), runtimeTopology);
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
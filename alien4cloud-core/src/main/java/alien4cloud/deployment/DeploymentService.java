@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 
@@ -210,6 +211,46 @@ public class DeploymentService {
         return null;
     }
 
+    /**
+     * Get the active deployments of multiple environments using a single search request.
+     *
+     * @param applicationEnvironmentIds ids of the environments
+     * @return A map of environment id to active deployment, environments that are not deployed are not in the map.
+     */
+    public Map<String, Deployment> getActiveDeployments(Collection<String> applicationEnvironmentIds) {
+        Map<String, Deployment> activeDeployments = Maps.newHashMap();
+        if (applicationEnvironmentIds.isEmpty()) {
+            return activeDeployments;
+        }
+        FilterBuilder activeDeploymentsFilter = FilterBuilders.boolFilter().must(FilterBuilders.termsFilter("environmentId", applicationEnvironmentIds))
+                .must(FilterBuilders.missingFilter("endDate"));
+        GetMultipleDataResult<Deployment> dataResult = alienDao.search(Deployment.class, null, null, activeDeploymentsFilter, null, 0,
+                applicationEnvironmentIds.size());
+        if (dataResult.getData() != null) {
+            for (Deployment deployment : dataResult.getData()) {
+                activeDeployments.put(deployment.getEnvironmentId(), deployment);
+            }
+        }
+        return activeDeployments;
+    }
+
+    /**
+     * Get an active deployment for a given environment without blocking the calling thread.
+     *
+     * @param applicationEnvironmentId id of the environment
+     * @return A future completed with the active deployment or null if not exist
+     */
+    public CompletableFuture<Deployment> getActiveDeploymentAsync(String applicationEnvironmentId) {
+        FilterBuilder activeDeploymentFilter = FilterBuilders.boolFilter().must(FilterBuilders.termFilter("environmentId", applicationEnvironmentId))
+                .must(FilterBuilders.missingFilter("endDate"));
+        return alienDao.searchAsync(Deployment.class, null, activeDeploymentFilter, 0, 1).thenApply(dataResult -> {
+            if (dataResult.getData() != null && dataResult.getData().length > 0) {
+                return dataResult.getData()[0];
+            }
+            return null;
+        });
+    }
+
     /**
      * Get an active Deployment for a given cloud and topology or throw a NotFoundException if no active deployment can be found.
      *
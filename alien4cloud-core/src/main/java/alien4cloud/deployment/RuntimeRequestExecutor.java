@@ -0,0 +1,52 @@
+package alien4cloud.deployment;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.util.NamedThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded executor used to process runtime requests (operation execution, instances information) once their data has been fetched asynchronously.
+ *
+ * Asynchronous elasticsearch requests complete on the elasticsearch client listener threads which must not be used for blocking calls (elasticsearch
+ * lookups, orchestrator plugins calls). Continuations are executed on this executor instead, with the security context of the request that triggered them.
+ */
+@Component
+public class RuntimeRequestExecutor {
+    @Value("${paas_monitor.runtime_request_threads:8}")
+    private int threads;
+    @Value("${paas_monitor.runtime_request_queue_size:100}")
+    private int queueSize;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = Math.max(threads, 1);
+        // requests are rejected (and fail) once the queue is full.
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(queueSize, 1)),
+                new NamedThreadFactory("a4c-runtime-request"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get an executor that runs tasks with the security context of the current thread. Must be called from the request thread.
+     *
+     * @return An executor propagating the current security context.
+     */
+    public Executor withCurrentSecurityContext() {
+        return new DelegatingSecurityContextExecutor(executor, SecurityContextHolder.getContext());
+    }
+}
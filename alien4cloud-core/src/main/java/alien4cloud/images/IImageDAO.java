@@ -1,5 +1,7 @@
 package alien4cloud.images;
 
+import java.util.function.BooleanSupplier;
+
 import alien4cloud.utils.ImageQuality;
 
 /**
@@ -16,6 +18,32 @@ public interface IImageDAO {
      */
     String writeImage(byte[] imageBytes);
 
+    /**
+     * Save an image that may be shared by multiple elements. The id of the image is computed from its content so identical images are stored once.
+     * 
+     * The image is retained (it is never deleted by {@link #deleteAllIfUnused(String, BooleanSupplier)}) until it is released using
+     * {@link #releaseSharedImage(String)}, so it is not deleted before the elements that reference it are indexed.
+     * 
+     * @param imageBytes The image content.
+     * @return The id of the image (existing if the same image has already been saved).
+     */
+    String writeSharedImage(byte[] imageBytes);
+
+    /**
+     * Release an image retained by {@link #writeSharedImage(byte[])} once the elements that reference it have been indexed.
+     * 
+     * @param id The id of the image.
+     */
+    void releaseSharedImage(String id);
+
+    /**
+     * Check if an image has been saved using {@link #writeSharedImage(byte[])} and may be used by other elements.
+     * 
+     * @param id The id of the image.
+     * @return true if the image may be shared.
+     */
+    boolean isSharedImage(String id);
+
     /**
      * Save an image in the DAO layer.
      * 
@@ -45,4 +73,14 @@ public interface IImageDAO {
      * @param id Id of the ORIGINAL image to delete
      */
     void deleteAll(String id);
+
+    /**
+     * Delete all images build from original unless the image is retained or still used. The check and the deletion are done while holding the lock of the
+     * image so they cannot interleave with a concurrent write of the same shared image.
+     *
+     * @param id Id of the ORIGINAL image to delete
+     * @param used Check if the image is still used by any element.
+     * @return true if the image has been deleted.
+     */
+    boolean deleteAllIfUnused(String id, BooleanSupplier used);
 }
\ No newline at end of file
@@ -3,25 +3,37 @@ package alien4cloud.images;
 import java.awt.image.BufferedImage;
 import java.beans.IntrospectionException;
 import java.io.ByteArrayInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BooleanSupplier;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.imageio.ImageIO;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.apache.lucene.util.NamedThreadFactory;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Striped;
+
 import alien4cloud.dao.ESGenericIdDAO;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.exception.NotFoundException;
@@ -31,14 +43,31 @@ import alien4cloud.utils.ImageResizeUtil;
 
 /**
  * A dao to store/load images.
+ *
+ * Only the original image is written synchronously. Resized qualities are generated on a bounded background pool (from the original image read from disk)
+ * and, if not generated yet (or if the pool is saturated), lazily when they are first read.
  */
 @Slf4j
 @Component("image-dao")
 public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
+    /** Qualities generated for every image. */
+    private static final ImageQuality[] RESIZED_QUALITIES = { ImageQuality.QUALITY_16, ImageQuality.QUALITY_32, ImageQuality.QUALITY_64,
+            ImageQuality.QUALITY_128 };
+
     @Resource
     private MappingBuilder mappingBuilder;
     private Path rootPath;
 
+    @Value("${images.resize_threads:2}")
+    private int resizeThreads;
+    @Value("${images.resize_queue_size:1000}")
+    private int resizeQueueSize;
+    private ThreadPoolExecutor resizeExecutor;
+    /** Serialize the writes of a given image (and of its qualities). */
+    private final Striped<Lock> imageLocks = Striped.lock(64);
+    /** Number of writers of each shared image that did not release it yet (by image id), guarded by the image lock. */
+    private final Map<String, Integer> retainedImages = Maps.newConcurrentMap();
+
     @Required
     @Value("${directories.alien}/${directories.images}")
     public void setRootPath(String path) throws IOException {
@@ -59,6 +88,16 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
         // init indexes and mapped classes
         initIndices(ImageData.class.getSimpleName().toLowerCase(), null, ImageData.class);
         initCompleted();
+
+        // resized qualities not generated in background (queue full) are generated when first read.
+        int threads = Math.max(resizeThreads, 1);
+        resizeExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(resizeQueueSize, 1)),
+                new NamedThreadFactory("a4c-image-resize"), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        resizeExecutor.shutdownNow();
     }
 
     @Override
@@ -72,55 +111,140 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
     }
 
     @Override
-    public void writeImage(final ImageData imageData) {
-        // resize the image to store the different available qualities.
-        InputStream is = new ByteArrayInputStream(imageData.getData());
+    public String writeSharedImage(byte[] imageBytes) {
+        String imageId = UUID.nameUUIDFromBytes(imageBytes).toString();
+        Lock lock = imageLocks.get(imageId);
+        lock.lock();
         try {
-            BufferedImage original = ImageIO.read(is);
-            if (original == null) {
-                throw new ImageUploadException("The image is not valid and cannot be read");
+            if (exist(ImageData.class, imageId) && Files.exists(getImagePath(imageId))) {
+                log.debug("Image <{}> already exists, skipping write", imageId);
+            } else {
+                ImageData imageData = new ImageData();
+                imageData.setData(imageBytes);
+                imageData.setId(imageId);
+                writeImage(imageData);
             }
-            resizeAndWrite(getImageId(ImageQuality.QUALITY_16, imageData.getId()), original, ImageQuality.QUALITY_16.getSize());
-            resizeAndWrite(getImageId(ImageQuality.QUALITY_32, imageData.getId()), original, ImageQuality.QUALITY_32.getSize());
-            resizeAndWrite(getImageId(ImageQuality.QUALITY_64, imageData.getId()), original, ImageQuality.QUALITY_64.getSize());
-            resizeAndWrite(getImageId(ImageQuality.QUALITY_128, imageData.getId()), original, ImageQuality.QUALITY_128.getSize());
-            // resizeAndWrite(getImageId(ImageQuality.QUALITY_512, imageData.getId()), original, ImageQuality.QUALITY_512.getSize());
+            // only retain the image once it is stored so a failed write does not prevent it from being deleted later.
+            retainedImages.merge(imageId, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+        return imageId;
+    }
 
-            saveAsPng(imageData.getId(), original);
+    @Override
+    public void releaseSharedImage(String id) {
+        Lock lock = imageLocks.get(id);
+        lock.lock();
+        try {
+            retainedImages.computeIfPresent(id, (key, count) -> count > 1 ? count - 1 : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isSharedImage(String id) {
+        // shared images ids are name based (version 3) uuids while other images ids are random (version 4) uuids.
+        try {
+            return UUID.fromString(id).version() == 3;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void writeImage(final ImageData imageData) {
+        final String imageId = imageData.getId();
+        final BufferedImage original = decode(imageData.getData());
+        try {
+            saveAsPng(imageId, original);
         } catch (IOException e) {
             throw new ImageUploadException("Unable to write uploaded image to data source", e);
         }
+        // resize the image to store the different available qualities, only the id is queued so pending tasks do not retain decoded images.
+        resizeExecutor.execute(() -> resizeAll(imageId));
+    }
+
+    private void resizeAll(String imageId) {
+        BufferedImage original;
+        try {
+            original = decode(Files.readAllBytes(getImagePath(imageId)));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unable to read image <" + imageId + "> to resize it (image may have been deleted)", e);
+            return;
+        }
+        for (ImageQuality quality : RESIZED_QUALITIES) {
+            try {
+                resizeIfAbsent(imageId, quality, original);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to resize image <" + imageId + "> to " + quality + ", it will be resized when requested", e);
+            }
+        }
     }
 
-    private void resizeAndWrite(final String imageId, final BufferedImage original, final int size) throws IOException {
-        BufferedImage target = ImageResizeUtil.resizeImageWithHint(original, size, size, true);
-        saveAsPng(imageId, target);
+    private BufferedImage decode(byte[] imageBytes) {
+        InputStream is = new ByteArrayInputStream(imageBytes);
+        try {
+            BufferedImage image = ImageIO.read(is);
+            if (image == null) {
+                throw new ImageUploadException("The image is not valid and cannot be read");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new ImageUploadException("Unable to read image", e);
+        }
     }
 
-    private void saveAsPng(String imageId, BufferedImage target) throws IOException {
-        FileOutputStream fos = new FileOutputStream(rootPath.resolve(imageId + ".png").toFile());
+    /**
+     * Resize and write the given quality of an image unless it already exists.
+     *
+     * @return The resized image data or null if the quality was already existing (or if the original image has been deleted).
+     */
+    private ImageData resizeIfAbsent(String id, ImageQuality imageQuality, BufferedImage original) throws IOException {
+        String imageId = getImageId(imageQuality, id);
+        Lock lock = imageLocks.get(id);
+        lock.lock();
         try {
-            ImageIO.write(target, "png", fos);
-            fos.flush();
+            if (!Files.exists(getImagePath(id)) || (exist(ImageData.class, imageId) && Files.exists(getImagePath(imageId)))) {
+                return null;
+            }
+            BufferedImage target = ImageResizeUtil.resizeImageWithHint(original, imageQuality.getSize(), imageQuality.getSize(), true);
+            return saveAsPng(imageId, target);
         } finally {
-            fos.close();
+            lock.unlock();
+        }
+    }
+
+    private ImageData saveAsPng(String imageId, BufferedImage target) throws IOException {
+        // write in a temporary file first so concurrent readers never read a partially written image.
+        Path imagePath = getImagePath(imageId);
+        Path tempPath = Files.createTempFile(rootPath, imageId, ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(tempPath)) {
+                ImageIO.write(target, "png", os);
+            }
+            Files.move(tempPath, imagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
         }
         // save in elastic search
         ImageData imageData = new ImageData();
         imageData.setId(imageId);
         imageData.setMime("image/png");
         this.save(imageData);
+        return imageData;
     }
 
     @Override
     public ImageData readImage(final String id, ImageQuality imageQuality) {
         ImageData imageData = findById(ImageData.class, getImageId(imageQuality, id));
         if (imageData == null) {
-            throw new NotFoundException("Unable to find image.");
+            imageData = resizeOnRead(id, imageQuality);
         }
         if (imageData.getData() == null) {
             try {
-                imageData.setData(Files.readAllBytes(rootPath.resolve(imageData.getId() + ".png")));
+                imageData.setData(Files.readAllBytes(getImagePath(imageData.getId())));
             } catch (IOException e) {
                 throw new NotFoundException("Unable to find image on disk.");
             }
@@ -128,20 +252,71 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
         return imageData;
     }
 
+    /**
+     * Generate a quality of an image that has not been generated in background yet.
+     */
+    private ImageData resizeOnRead(String id, ImageQuality imageQuality) {
+        if (!isResizedQuality(imageQuality)) {
+            throw new NotFoundException("Unable to find image.");
+        }
+        byte[] originalData;
+        try {
+            originalData = Files.readAllBytes(getImagePath(id));
+        } catch (IOException e) {
+            throw new NotFoundException("Unable to find image.");
+        }
+        try {
+            ImageData imageData = resizeIfAbsent(id, imageQuality, decode(originalData));
+            if (imageData == null) {
+                // generated concurrently in background (or original deleted concurrently).
+                imageData = findById(ImageData.class, getImageId(imageQuality, id));
+            }
+            if (imageData == null) {
+                throw new NotFoundException("Unable to find image.");
+            }
+            return imageData;
+        } catch (IOException e) {
+            throw new NotFoundException("Unable to resize image.");
+        }
+    }
+
+    private boolean isResizedQuality(ImageQuality imageQuality) {
+        for (ImageQuality quality : RESIZED_QUALITIES) {
+            if (quality == imageQuality) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void delete(String id) {
         delete(ImageData.class, id);
         // delete image from hard drive
-        safeDeleteFile(rootPath.resolve(id + ".png"));
+        safeDeleteFile(getImagePath(id));
     }
 
     @Override
     public void deleteAll(String id) {
         delete(id);
-        delete(getImageId(ImageQuality.QUALITY_16, id));
-        delete(getImageId(ImageQuality.QUALITY_32, id));
-        delete(getImageId(ImageQuality.QUALITY_64, id));
-        delete(getImageId(ImageQuality.QUALITY_128, id));
+        for (ImageQuality quality : RESIZED_QUALITIES) {
+            delete(getImageId(quality, id));
+        }
+    }
+
+    @Override
+    public boolean deleteAllIfUnused(String id, BooleanSupplier used) {
+        Lock lock = imageLocks.get(id);
+        lock.lock();
+        try {
+            if (retainedImages.containsKey(id) || used.getAsBoolean()) {
+                return false;
+            }
+            deleteAll(id);
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 
     private void safeDeleteFile(Path file) {
@@ -152,6 +327,10 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
         }
     }
 
+    private Path getImagePath(String imageId) {
+        return rootPath.resolve(imageId + ".png");
+    }
+
     private String getImageId(final ImageQuality imageQuality, final String id) {
         switch (imageQuality) {
         case QUALITY_16:
@@ -168,4 +347,4 @@ public class ImageDAO extends ESGenericIdDAO implements IImageDAO {
             return id;
         }
     }
-}
\ No newline at end of file
+}
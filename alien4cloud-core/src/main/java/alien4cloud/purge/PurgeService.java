@@ -4,6 +4,7 @@ import alien4cloud.dao.ESGenericSearchDAO;
 import alien4cloud.dao.ElasticSearchDAO;
 
 import alien4cloud.dao.MonitorESDAO;
+import alien4cloud.dao.WriteVisibility;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.events.DeploymentUndeployedEvent;
 import alien4cloud.model.deployment.Deployment;
@@ -21,8 +22,6 @@ import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.HashSetValuedHashMap;
 import org.apache.lucene.util.NamedThreadFactory;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
-import org.elasticsearch.action.search.SearchRequestBuilder;
-import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.*;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.springframework.beans.factory.annotation.Value;
@@ -163,17 +162,14 @@ public class PurgeService {
                 log.debug("=> {} deployments candidates for purge", deployments.getData().length);
             }
             if (deployments.getData().length >0) {
+                Collection<String> ids = Arrays.stream(deployments.getData()).map(Deployment::getId).collect(Collectors.toList());
 
-                for (Deployment d : deployments.getData()) {
-                    fullPurge(context, d.getId());
-                }
+                fullPurge(context, ids);
 
                 // Flush pending deletes
                 context.flush();
 
                 // Delete deployments
-                Collection<String> ids = Arrays.stream(deployments.getData()).map(Deployment::getId).collect(Collectors.toList());
-
                 bulkDelete(Deployment.class,ids);
                 context.addStat(Deployment.class, ids.size());
 
@@ -189,42 +185,43 @@ public class PurgeService {
         }
     }
 
-    private void fullPurge(PurgeContext context,String id) {
+    private void fullPurge(PurgeContext context, Collection<String> ids) {
         if (log.isTraceEnabled()) {
-            log.trace("=> Purging Deployment {}", id);
+            log.trace("=> Purging Deployments {}", ids);
         }
 
-        purge(context,id);
+        purge(context,ids);
 
-        purge(context,id,Task.class);
-        purge(context,id,Execution.class);
+        purge(context,ids,Task.class);
+        purge(context,ids,Execution.class);
 
-        purge(context,id,PaaSDeploymentLog.class);
+        purge(context,ids,PaaSDeploymentLog.class);
     }
 
-    private void purge(PurgeContext context, String id) {
-        context.add(DeploymentTopology.class,id);
-        context.add(DeploymentUnprocessedTopology.class,id);
-
+    private void purge(PurgeContext context, Collection<String> ids) {
+        for (String id : ids) {
+            context.add(DeploymentTopology.class,id);
+            context.add(DeploymentUnprocessedTopology.class,id);
+        }
 
-        purge(context, id, WorkflowStepInstance.class);
-        purge(context,id,TaskFailedEvent.class);
-        purge(context,id,TaskSentEvent.class);
-        purge(context,id,TaskStartedEvent.class);
-        purge(context,id,TaskCancelledEvent.class);
-        purge(context,id,TaskSucceededEvent.class);
+        purge(context, ids, WorkflowStepInstance.class);
+        purge(context,ids,TaskFailedEvent.class);
+        purge(context,ids,TaskSentEvent.class);
+        purge(context,ids,TaskStartedEvent.class);
+        purge(context,ids,TaskCancelledEvent.class);
+        purge(context,ids,TaskSucceededEvent.class);
 
-        purge(context,id, WorkflowStepStartedEvent.class);
-        purge(context,id, WorkflowStepCompletedEvent.class);
+        purge(context,ids, WorkflowStepStartedEvent.class);
+        purge(context,ids, WorkflowStepCompletedEvent.class);
 
-        purge(context,id, PaaSWorkflowSucceededEvent.class);
-        purge(context,id, PaaSWorkflowStartedEvent.class);
-        purge(context,id, PaaSWorkflowCancelledEvent.class);
-        purge(context,id, PaaSWorkflowFailedEvent.class);
+        purge(context,ids, PaaSWorkflowSucceededEvent.class);
+        purge(context,ids, PaaSWorkflowStartedEvent.class);
+        purge(context,ids, PaaSWorkflowCancelledEvent.class);
+        purge(context,ids, PaaSWorkflowFailedEvent.class);
 
-        purge(context,id,PaaSDeploymentStatusMonitorEvent.class);
+        purge(context,ids,PaaSDeploymentStatusMonitorEvent.class);
 
-        purge(context,id, PaaSInstanceStateMonitorEvent.class);
+        purge(context,ids, PaaSInstanceStateMonitorEvent.class);
 
         // Index : DeploymentMonitorEvent
         // ------------------------------
@@ -234,31 +231,20 @@ public class PurgeService {
         // PaaSMessageMonitorEvent
     }
 
-    private <T> void purge(PurgeContext context, String id, Class<T> clazz) {
+    private <T> void purge(PurgeContext context, Collection<String> ids, Class<T> clazz) {
         ESGenericSearchDAO dao = getDaoFor(clazz);
 
-        String indexName = dao.getIndexForType(clazz);
-
-        // Get Id of documents owned by our deployment
-        SearchRequestBuilder searchRequestBuilder = dao.getClient()
-                .prepareSearch(indexName)
-                .setTypes(dao.getTypesFromClass(clazz))
-                .setQuery(QueryBuilders.termQuery("deploymentId",id))
-                .setFetchSource(false)
-                .setFrom(0).setSize(batch);
-
-        for (;;) {
-            SearchResponse response = searchRequestBuilder.execute().actionGet();
-
-            if (response.getHits() == null || response.getHits().getHits() == null) break;
-
-            for (int i = 0; i < response.getHits().getHits().length; i++) {
-                context.add(clazz, response.getHits().getHits()[i].getId());
-            }
+        // Delete documents owned by our deployments, purged data is not searched anymore so no refresh is required.
+        long count = dao.deleteByQuery(clazz, deploymentIdsQuery(ids), batch, WriteVisibility.EVENTUAL);
+        context.addStat(clazz, (int) count);
+    }
 
-            // Redo the query if we hit the batch
-            if (response.getHits().getHits().length < batch) break;
-        }
+    /**
+     * Query matching the documents owned by the given deployments. A terms filter is used as a terms query is rewritten into one boolean clause per id and
+     * fails as soon as the purge threshold goes over the maximum clause count (1024 by default).
+     */
+    static QueryBuilder deploymentIdsQuery(Collection<String> ids) {
+        return QueryBuilders.filteredQuery(QueryBuilders.matchAllQuery(), FilterBuilders.termsFilter("deploymentId", ids));
     }
 
     private <T> ESGenericSearchDAO getDaoFor(Class<T> clazz) {
@@ -299,7 +285,7 @@ public class PurgeService {
             log.debug("Cleaning Deployment {}", event.getDeploymentId());
         }
 
-        purge(context,event.getDeploymentId());
+        purge(context, Collections.singletonList(event.getDeploymentId()));
 
         // Flush pending deletes
         context.flush();
@@ -1,8 +1,6 @@
 package org.alien4cloud.tosca.catalog;
 
 import java.io.IOException;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -11,6 +9,7 @@ import org.springframework.stereotype.Component;
 import alien4cloud.deployment.exceptions.UnresolvableArtifactException;
 import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.utils.SharedZipFileSystem;
 
 @Component
 public class ArchivePostProcessor extends AbstractArchivePostProcessor implements IArchivePostProcessor {
@@ -25,10 +24,10 @@ public class ArchivePostProcessor extends AbstractArchivePostProcessor implement
     }
 
     private class ZipArchivePathResolver extends AbstractArchivePathResolver {
-        private FileSystem fileSystem;
+        private SharedZipFileSystem fileSystem;
 
         private ZipArchivePathResolver(Path archive) throws IOException {
-            fileSystem = FileSystems.newFileSystem(archive, null);
+            fileSystem = SharedZipFileSystem.open(archive);
         }
 
         @Override
@@ -38,11 +37,7 @@ public class ArchivePostProcessor extends AbstractArchivePostProcessor implement
 
         @Override
         public void close() {
-            try {
-                fileSystem.close();
-            } catch (Exception e) {
-                // Ignored
-            }
+            fileSystem.close();
         }
     }
 
@@ -4,15 +4,26 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.catalog.index.ArchiveIndexer;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.CsarDependenciesBean;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import alien4cloud.component.repository.exception.CSARUsedInActiveDeployment;
@@ -25,6 +36,8 @@ import alien4cloud.tosca.parser.ParsingContext;
 import alien4cloud.tosca.parser.ParsingErrorLevel;
 import alien4cloud.tosca.parser.ParsingException;
 import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.tosca.parser.ParsingTechnicalException;
+import alien4cloud.utils.SharedZipFileSystem;
 import lombok.extern.slf4j.Slf4j;
 
 @Component
@@ -37,8 +50,25 @@ public class ArchiveUploadService {
     @Inject
     private SuggestionService suggestionService;
 
+    /** Maximum number of archives parsed concurrently during pre-parsing. */
+    @Value("${archive.parsing_threads:4}")
+    private int parsingThreads;
+    private ExecutorService preParsingExecutor;
+
+    @PostConstruct
+    public void init() {
+        preParsingExecutor = Executors.newFixedThreadPool(Math.max(parsingThreads, 1), new NamedThreadFactory("a4c-archive-pre-parsing"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        preParsingExecutor.shutdownNow();
+    }
+
     /**
      * Upload a TOSCA archive and index its components.
+     *
+     * The archive zip is opened once for the whole upload and shared by the parsing, post-processing and indexing (icons loading) steps.
      * 
      * @param path The archive path.
      * @param csarSource The source of the upload.
@@ -49,6 +79,13 @@ public class ArchiveUploadService {
     @ToscaContextual
     public ParsingResult<Csar> upload(Path path, CSARSource csarSource, String workspace)
             throws ParsingException, CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
+        try (SharedZipFileSystem archiveFS = SharedZipFileSystem.openIfZip(path)) {
+            return doUpload(path, csarSource, workspace);
+        }
+    }
+
+    private ParsingResult<Csar> doUpload(Path path, CSARSource csarSource, String workspace)
+            throws ParsingException, CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
         // parse the archive.
         ParsingResult<ArchiveRoot> parsingResult = parser.parseWithExistingContext(path, workspace);
 
@@ -71,22 +108,52 @@ public class ArchiveUploadService {
         return ArchiveParserUtil.toSimpleResult(parsingResult);
     }
 
+    /**
+     * Parse the imports of multiple archives.
+     *
+     * Archives are independent from each other at this stage so they are parsed concurrently on a bounded pool, each worker parsing in its own TOSCA context.
+     * Results are merged in the order of the archive paths so the outcome does not depend on the scheduling of the workers.
+     *
+     * Callers that upload the archives after the pre-parsing may keep a {@link SharedZipFileSystem} opened on every archive so the zips are read only once.
+     *
+     * @param paths The paths of the archives to pre-parse.
+     * @param parsingResults The list in which to add the results of the archives that cannot be parsed.
+     * @return The dependencies of every archive that has been parsed.
+     */
     @ToscaContextual
     public Map<CSARDependency, CsarDependenciesBean> preParsing(Set<Path> paths, List<ParsingResult<Csar>> parsingResults) {
-        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = Maps.newHashMap();
-        for (Path path : paths) {
-            try {
-                // FIXME cleanup git import archives
-                ParsingResult<CsarDependenciesBean> parsingResult = parser.parseImports(path);
-                parsingResult.getResult().setPath(path);
-                csarDependenciesBeans.put(parsingResult.getResult().getSelf(), parsingResult.getResult());
-            } catch (ParsingException e) {
-                ParsingResult<Csar> failedResult = new ParsingResult<>();
-                failedResult.setContext(new ParsingContext(path.getFileName().toString()));
-                failedResult.getContext().setParsingErrors(e.getParsingErrors());
-                parsingResults.add(failedResult);
-                log.debug("Not able to parse archive, ignoring it", e);
+        List<Path> sortedPaths = paths.stream().sorted().collect(Collectors.toList());
+        List<Future<ParsingResult<CsarDependenciesBean>>> futures = Lists.newArrayList();
+        for (Path path : sortedPaths) {
+            // FIXME cleanup git import archives
+            futures.add(preParsingExecutor.submit(() -> parser.parseImports(path)));
+        }
+
+        Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = Maps.newLinkedHashMap();
+        try {
+            for (int i = 0; i < sortedPaths.size(); i++) {
+                Path path = sortedPaths.get(i);
+                try {
+                    ParsingResult<CsarDependenciesBean> parsingResult = futures.get(i).get();
+                    parsingResult.getResult().setPath(path);
+                    csarDependenciesBeans.put(parsingResult.getResult().getSelf(), parsingResult.getResult());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof ParsingException)) {
+                        throw Throwables.propagate(e.getCause());
+                    }
+                    ParsingResult<Csar> failedResult = new ParsingResult<>();
+                    failedResult.setContext(new ParsingContext(path.getFileName().toString()));
+                    failedResult.getContext().setParsingErrors(((ParsingException) e.getCause()).getParsingErrors());
+                    parsingResults.add(failedResult);
+                    log.debug("Not able to parse archive, ignoring it", e.getCause());
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParsingTechnicalException("Interrupted while pre-parsing archives", e);
+        } finally {
+            // cancel remaining work in case of failure.
+            futures.forEach(future -> future.cancel(true));
         }
         return csarDependenciesBeans;
     }
@@ -2,17 +2,19 @@ package org.alien4cloud.tosca.catalog.index;
 
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import javax.inject.Inject;
 
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Sets;
+
 import alien4cloud.images.IImageDAO;
-import alien4cloud.images.ImageData;
 import alien4cloud.images.exception.ImageUploadException;
 import alien4cloud.model.common.Tag;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
@@ -20,6 +22,7 @@ import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.ParsingError;
 import alien4cloud.tosca.parser.ParsingErrorLevel;
 import alien4cloud.tosca.parser.impl.ErrorCode;
+import alien4cloud.utils.SharedZipFileSystem;
 
 import static alien4cloud.utils.AlienUtils.safe;
 
@@ -40,56 +43,71 @@ public class ArchiveImageLoader {
      * @param archiveFile The path to the root of the archive file.
      * @param archiveRoot The parsed archive object that contains all the types and topologies.
      * @param parsingErrors The list of parsing error in which to add errors in case there are (format error, file not found etc.)
+     * @return The ids of the imported images, they must be released using {@link #releaseImages(Collection)} once the archive elements are indexed.
      */
-    public void importImages(Path archiveFile, ArchiveRoot archiveRoot, List<ParsingError> parsingErrors) {
+    public Set<String> importImages(Path archiveFile, ArchiveRoot archiveRoot, List<ParsingError> parsingErrors) {
+        Set<String> imageIds = Sets.newHashSet();
         // Import archive icons
-        importImages(archiveFile, archiveRoot.getNodeTypes(), parsingErrors);
-        importImages(archiveFile, archiveRoot.getRelationshipTypes(), parsingErrors);
-        importImages(archiveFile, archiveRoot.getCapabilityTypes(), parsingErrors);
-        importImages(archiveFile, archiveRoot.getArtifactTypes(), parsingErrors);
-        importImages(archiveFile, archiveRoot.getPolicyTypes(), parsingErrors);
+        importImages(archiveFile, archiveRoot.getNodeTypes(), parsingErrors, imageIds);
+        importImages(archiveFile, archiveRoot.getRelationshipTypes(), parsingErrors, imageIds);
+        importImages(archiveFile, archiveRoot.getCapabilityTypes(), parsingErrors, imageIds);
+        importImages(archiveFile, archiveRoot.getArtifactTypes(), parsingErrors, imageIds);
+        importImages(archiveFile, archiveRoot.getPolicyTypes(), parsingErrors, imageIds);
         // Import topology icon
-        importImages(archiveFile, archiveRoot.getArchive().getTags(), parsingErrors);
+        importImages(archiveFile, archiveRoot.getArchive().getTags(), parsingErrors, imageIds);
         if (archiveRoot.getArchive().isHasTopology()) {
-            importImages(archiveFile, archiveRoot.getTopology().getTags(), parsingErrors);
+            importImages(archiveFile, archiveRoot.getTopology().getTags(), parsingErrors, imageIds);
+        }
+        return imageIds;
+    }
+
+    /**
+     * Release the images imported by {@link #importImages(Path, ArchiveRoot, List)} so they can be deleted once they are not used anymore.
+     *
+     * @param imageIds The ids of the imported images.
+     */
+    public void releaseImages(Collection<String> imageIds) {
+        for (String imageId : safe(imageIds)) {
+            imageDAO.releaseSharedImage(imageId);
         }
     }
 
-    private void importImages(Path archiveFile, Map<String, ? extends AbstractInheritableToscaType> toscaInheritableElement, List<ParsingError> parsingErrors) {
+    private void importImages(Path archiveFile, Map<String, ? extends AbstractInheritableToscaType> toscaInheritableElement, List<ParsingError> parsingErrors,
+            Set<String> imageIds) {
         for (Map.Entry<String, ? extends AbstractInheritableToscaType> element : safe(toscaInheritableElement).entrySet()) {
-            importImages(archiveFile, element.getValue().getTags(), parsingErrors);
+            importImages(archiveFile, element.getValue().getTags(), parsingErrors, imageIds);
         }
     }
 
-    private void importImages(Path archiveFile, List<Tag> tags, List<ParsingError> parsingErrors) {
+    private void importImages(Path archiveFile, List<Tag> tags, List<ParsingError> parsingErrors, Set<String> imageIds) {
         if (tags == null) {
             return;
         }
         Tag iconTag = ArchiveImageLoader.getIconTag(tags);
         if (iconTag != null && !UUID_PATTERN.matcher(iconTag.getValue()).matches()) {
-            importImage(archiveFile, parsingErrors, iconTag);
+            importImage(archiveFile, parsingErrors, iconTag, imageIds);
         }
     }
 
-    private void importImage(Path archiveFile, List<ParsingError> parsingErrors, Tag iconTag) {
-        FileSystem csarFS = null;
+    private void importImage(Path archiveFile, List<ParsingError> parsingErrors, Tag iconTag, Set<String> imageIds) {
         Path iconPath = null;
+        SharedZipFileSystem csarFS = null;
 
         try {
-            if ( Files.isDirectory(archiveFile) ) {
-                csarFS = FileSystems.getDefault();
-                iconPath = csarFS.getPath(archiveFile.toString(), iconTag.getValue());
+            if (Files.isDirectory(archiveFile)) {
+                iconPath = FileSystems.getDefault().getPath(archiveFile.toString(), iconTag.getValue());
             } else {
-                csarFS = FileSystems.newFileSystem(archiveFile, null);
+                // the archive zip is shared with the parsing when uploaded through the ArchiveUploadService.
+                csarFS = SharedZipFileSystem.open(archiveFile);
                 iconPath = csarFS.getPath(iconTag.getValue());
             }
             if (!Files.isDirectory(iconPath)) {
-                String iconId = UUID.randomUUID().toString();
-                // Saving the image
-                ImageData imageData = new ImageData();
-                imageData.setData(Files.readAllBytes(iconPath));
-                imageData.setId(iconId);
-                imageDAO.writeImage(imageData);
+                // Saving the image (identical icons are stored once)
+                String iconId = imageDAO.writeSharedImage(Files.readAllBytes(iconPath));
+                // every write retains the image, it is released once for each write.
+                if (!imageIds.add(iconId)) {
+                    imageDAO.releaseSharedImage(iconId);
+                }
                 // Replace the image uri by the indexed image ID
                 iconTag.setValue(iconId);
             } else {
@@ -105,6 +123,10 @@ public class ArchiveImageLoader {
         } catch (IOException e) {
             parsingErrors.add(new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.FAILED_TO_READ_FILE, "Icon loading", null,
                     "IO error while loading icon at path <" + iconPath + ">", null, safeToString(iconPath)));
+        } finally {
+            if (csarFS != null) {
+                csarFS.close();
+            }
         }
     }
 
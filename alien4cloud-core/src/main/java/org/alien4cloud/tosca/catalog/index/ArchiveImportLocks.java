@@ -0,0 +1,263 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import static alien4cloud.utils.AlienUtils.safe;
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PostConstruct;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Locks used to import archives in the catalog.
+ *
+ * Imports of an archive are serialized on the archive name and version (using striped locks). An import also holds a shared lock on each of the archive
+ * dependencies so an archive is never indexed while one of its dependencies is being imported (and is never imported while an archive that depends on it
+ * is being indexed). Finally the number of imports executed concurrently is capped to limit the load on elasticsearch and on the file repository.
+ *
+ * Imports also lock the ids of the tosca types they define (see {@link #lockTypes(Collection)}) so two archives cannot define the same type concurrently.
+ *
+ * Locks are always acquired in the same order so concurrent imports cannot deadlock: archive stripes (in stripe order), then the import slot, then types
+ * stripes (in stripe order). They are released in reverse order.
+ *
+ * An import executed while the current thread is already importing an archive (nested import) reuses the locks of the outer import and does not wait for a
+ * slot. A nested import that would break the lock order is rejected:
+ * <ul>
+ * <li>a shared lock cannot be upgraded to an exclusive one so a nested import that requires the exclusive lock of a stripe on which the outer import only
+ * holds a shared lock is rejected,</li>
+ * <li>once an import holds types locks, nested imports can only use the archive and types stripes already held by the current thread.</li>
+ * </ul>
+ *
+ * The following metrics are registered:
+ * <ul>
+ * <li><code>alien4cloud.archive.import.wait</code>: timer of the time imports are waiting for a slot and for the archive locks,</li>
+ * <li><code>alien4cloud.archive.import</code>: timer of the imports (once the locks are acquired),</li>
+ * <li><code>alien4cloud.archive.import.waiting</code>: gauge of the number of imports currently waiting,</li>
+ * <li><code>alien4cloud.archive.import.active</code>: gauge of the number of imports currently executed.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class ArchiveImportLocks {
+    private static final String PREFIX = "alien4cloud.archive.import";
+
+    @Value("${archive.import_lock_stripes:64}")
+    private int lockStripes;
+    @Value("${archive.max_concurrent_imports:4}")
+    private int maxConcurrentImports;
+
+    private ReentrantReadWriteLock[] locks;
+    private ReentrantLock[] typeLocks;
+    private Semaphore importSlots;
+    /** Keep track of the imports executed by the current thread so nested imports do not wait for a second slot. */
+    private final ThreadLocal<Integer> importDepth = ThreadLocal.withInitial(() -> 0);
+    /** Keep track of the types locks held by the current thread so nested imports cannot break the lock order. */
+    private final ThreadLocal<Integer> typesLockDepth = ThreadLocal.withInitial(() -> 0);
+
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private Timer waitTimer;
+    private Timer importTimer;
+
+    @PostConstruct
+    public void init() {
+        locks = new ReentrantReadWriteLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantReadWriteLock(true);
+        }
+        typeLocks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            typeLocks[i] = new ReentrantLock();
+        }
+        importSlots = new Semaphore(maxConcurrentImports, true);
+        registerMetrics();
+    }
+
+    /**
+     * Register the import metrics in the application metric registry (if any).
+     *
+     * @param metricRegistry The application metric registry.
+     */
+    @Autowired(required = false)
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    private void registerMetrics() {
+        waitTimer = metricRegistry.timer(name(PREFIX, "wait"));
+        importTimer = metricRegistry.timer(PREFIX);
+        registerGauge(name(PREFIX, "waiting"), () -> importSlots.getQueueLength());
+        registerGauge(name(PREFIX, "active"), () -> maxConcurrentImports - importSlots.availablePermits());
+    }
+
+    private void registerGauge(String name, Gauge<Integer> gauge) {
+        // the application registry may outlive the context (and already contain a gauge from a previous context).
+        metricRegistry.remove(name);
+        metricRegistry.register(name, gauge);
+    }
+
+    /**
+     * Acquire the locks required to import an archive and wait for an import slot.
+     *
+     * @param archiveName The name of the archive to import.
+     * @param archiveVersion The version of the archive to import.
+     * @param dependencies The dependencies of the archive.
+     * @return A handle to close (in a finally block or using try-with-resources) once the archive has been imported.
+     * @throws IllegalStateException In case of a nested import that requires the exclusive lock of a stripe that the outer import holds in shared mode or
+     *             that requires archive locks not held by the outer import while it holds types locks.
+     */
+    public ImportLock acquire(String archiveName, String archiveVersion, Collection<CSARDependency> dependencies) {
+        // stripes to lock by index, true if the stripe must be locked exclusively.
+        Map<Integer, Boolean> stripes = Maps.newTreeMap();
+        for (CSARDependency dependency : safe(dependencies)) {
+            stripes.put(stripe(dependency.getName(), dependency.getVersion()), false);
+        }
+        stripes.put(stripe(archiveName, archiveVersion), true);
+
+        boolean nested = importDepth.get() > 0;
+        if (nested) {
+            checkNoLockUpgrade(archiveName, archiveVersion, stripes);
+        }
+        if (typesLockDepth.get() > 0) {
+            checkArchiveLocksHeld(archiveName, archiveVersion, stripes);
+        }
+        long start = System.nanoTime();
+        List<Lock> acquired = Lists.newArrayList();
+        for (Map.Entry<Integer, Boolean> stripe : stripes.entrySet()) {
+            Lock lock = stripe.getValue() ? locks[stripe.getKey()].writeLock() : locks[stripe.getKey()].readLock();
+            lock.lock();
+            acquired.add(lock);
+        }
+        if (!nested) {
+            importSlots.acquireUninterruptibly();
+        }
+        long waited = System.nanoTime() - start;
+        waitTimer.update(waited, TimeUnit.NANOSECONDS);
+        log.debug("Waited {} ms to import archive {}:{}", TimeUnit.NANOSECONDS.toMillis(waited), archiveName, archiveVersion);
+        importDepth.set(importDepth.get() + 1);
+        return new ImportLock(acquired, nested, importTimer.time());
+    }
+
+    private void checkNoLockUpgrade(String archiveName, String archiveVersion, Map<Integer, Boolean> stripes) {
+        for (Map.Entry<Integer, Boolean> stripe : stripes.entrySet()) {
+            ReentrantReadWriteLock lock = locks[stripe.getKey()];
+            if (stripe.getValue() && !lock.isWriteLockedByCurrentThread() && lock.getReadHoldCount() > 0) {
+                // waiting for the write lock while holding the read lock would deadlock.
+                throw new IllegalStateException("Archive " + archiveName + ":" + archiveVersion
+                        + " cannot be imported while importing an archive that depends on it (or on an archive sharing the same lock).");
+            }
+        }
+    }
+
+    private void checkArchiveLocksHeld(String archiveName, String archiveVersion, Map<Integer, Boolean> stripes) {
+        for (Map.Entry<Integer, Boolean> stripe : stripes.entrySet()) {
+            ReentrantReadWriteLock lock = locks[stripe.getKey()];
+            boolean held = lock.isWriteLockedByCurrentThread() || (!stripe.getValue() && lock.getReadHoldCount() > 0);
+            if (!held) {
+                // waiting for an archive lock while holding types locks would deadlock with an import waiting for the types locks.
+                throw new IllegalStateException("Archive " + archiveName + ":" + archiveVersion
+                        + " cannot be imported while indexing the types of another archive (its locks are not held by the current import).");
+            }
+        }
+    }
+
+    /**
+     * Acquire the locks of the given tosca types ids. The locks must be held from the check that the types are not defined in another archive until the types
+     * are indexed. Locks are acquired in stripe order.
+     *
+     * @param elementIds The ids of the tosca types defined by an archive.
+     * @return A handle to close (in a finally block or using try-with-resources) once the types have been indexed.
+     * @throws IllegalStateException In case types locks are already held by the current thread and some of the required ones are not.
+     */
+    public TypesLock lockTypes(Collection<String> elementIds) {
+        Set<Integer> stripes = Sets.newTreeSet();
+        for (String elementId : safe(elementIds)) {
+            stripes.add(Math.floorMod(elementId.hashCode(), typeLocks.length));
+        }
+        if (typesLockDepth.get() > 0) {
+            for (Integer stripe : stripes) {
+                if (!typeLocks[stripe].isHeldByCurrentThread()) {
+                    // stripes must be acquired in order, acquiring a new one while holding others may deadlock.
+                    throw new IllegalStateException("Types cannot be locked while the current thread already holds the locks of other types.");
+                }
+            }
+        }
+        List<Lock> acquired = Lists.newArrayList();
+        for (Integer stripe : stripes) {
+            typeLocks[stripe].lock();
+            acquired.add(typeLocks[stripe]);
+        }
+        typesLockDepth.set(typesLockDepth.get() + 1);
+        return new TypesLock(acquired);
+    }
+
+    private int stripe(String archiveName, String archiveVersion) {
+        return Math.floorMod((archiveName + ":" + archiveVersion).hashCode(), locks.length);
+    }
+
+    /**
+     * Locks held by an archive import.
+     */
+    public class ImportLock implements AutoCloseable {
+        private final List<Lock> acquired;
+        private final boolean nested;
+        private final Timer.Context importContext;
+
+        private ImportLock(List<Lock> acquired, boolean nested, Timer.Context importContext) {
+            this.acquired = acquired;
+            this.nested = nested;
+            this.importContext = importContext;
+        }
+
+        @Override
+        public void close() {
+            importContext.stop();
+            importDepth.set(importDepth.get() - 1);
+            if (!nested) {
+                importSlots.release();
+            }
+            for (Lock lock : Lists.reverse(acquired)) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Locks held on the tosca types of an archive.
+     */
+    public class TypesLock implements AutoCloseable {
+        private final List<Lock> acquired;
+
+        private TypesLock(List<Lock> acquired) {
+            this.acquired = acquired;
+        }
+
+        @Override
+        public void close() {
+            typesLockDepth.set(typesLockDepth.get() - 1);
+            for (Lock lock : Lists.reverse(acquired)) {
+                lock.unlock();
+            }
+        }
+    }
+}
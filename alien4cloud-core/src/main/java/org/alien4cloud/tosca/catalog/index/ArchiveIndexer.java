@@ -5,6 +5,7 @@ import alien4cloud.component.repository.exception.CSARUsedInActiveDeployment;
 import alien4cloud.component.repository.exception.ToscaTypeAlreadyDefinedInOtherCSAR;
 import alien4cloud.dao.FilterUtil;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.deployment.DeploymentService;
 import alien4cloud.exception.AlreadyExistException;
@@ -101,6 +102,8 @@ public class ArchiveIndexer {
     private MetaPropertiesService metaPropertiesService;
     @Inject
     private MetaPropertyFeeder metaFeeder;
+    @Inject
+    private ArchiveImportLocks importLocks;
 
     @Value("${features.archive_indexer_lock_used_archive:#{true}}")
     private boolean lockUsedArchive;
@@ -131,8 +134,14 @@ public class ArchiveIndexer {
      * @param topology The topology to be part of the topology.
      * @param topologyPath if the new topology must be created inside this directory to have all its artifacts
      */
+    public void importNewArchive(Csar csar, Topology topology, Path topologyPath) {
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire(csar.getName(), csar.getVersion(), topology.getDependencies())) {
+            doImportNewArchive(csar, topology, topologyPath);
+        }
+    }
+
     @SneakyThrows
-    public synchronized void importNewArchive(Csar csar, Topology topology, Path topologyPath) {
+    private void doImportNewArchive(Csar csar, Topology topology, Path topologyPath) {
         ArchiveRoot archiveRoot = new ArchiveRoot();
         archiveRoot.setArchive(csar);
         archiveRoot.setTopology(topology);
@@ -178,7 +187,27 @@ public class ArchiveIndexer {
      * @param parsingErrors The non-null list of parsing errors in which to add errors.
      * @throws CSARUsedInActiveDeployment
      */
-    public synchronized void importArchive(final ArchiveRoot archiveRoot, CSARSource source, Path archivePath, List<ParsingError> parsingErrors)
+    public void importArchive(final ArchiveRoot archiveRoot, CSARSource source, Path archivePath, List<ParsingError> parsingErrors)
+            throws CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
+        Csar archive = archiveRoot.getArchive();
+        // types are locked so no other archive can define them between the check that they are not defined elsewhere and their indexing.
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire(archive.getName(), archive.getVersion(), archive.getDependencies());
+                ArchiveImportLocks.TypesLock typesLock = importLocks.lockTypes(getToscaTypesIds(archiveRoot))) {
+            doImportArchive(archiveRoot, source, archivePath, parsingErrors);
+        }
+    }
+
+    private Set<String> getToscaTypesIds(ArchiveRoot archiveRoot) {
+        Set<String> elementIds = Sets.newHashSet();
+        elementIds.addAll(safe(archiveRoot.getNodeTypes()).keySet());
+        elementIds.addAll(safe(archiveRoot.getRelationshipTypes()).keySet());
+        elementIds.addAll(safe(archiveRoot.getCapabilityTypes()).keySet());
+        elementIds.addAll(safe(archiveRoot.getArtifactTypes()).keySet());
+        elementIds.addAll(safe(archiveRoot.getDataTypes()).keySet());
+        return elementIds;
+    }
+
+    private void doImportArchive(final ArchiveRoot archiveRoot, CSARSource source, Path archivePath, List<ParsingError> parsingErrors)
             throws CSARUsedInActiveDeployment, ToscaTypeAlreadyDefinedInOtherCSAR {
         archiveIndexerAuthorizationFilter.checkAuthorization(archiveRoot);
         String archiveName = archiveRoot.getArchive().getName();
@@ -236,13 +265,18 @@ public class ArchiveIndexer {
         // save the archive in the repository
         archiveRepositry.storeCSAR(archiveRoot.getArchive(), archivePath);
         // manage images before archive storage in the repository
-        imageLoader.importImages(archivePath, archiveRoot, parsingErrors);
-
-        Map<String, MetaPropConfiguration> metapropsNames = metaPropertiesService.getMetaPropConfigurationsByName(MetaPropertyTarget.COMPONENT);
-
-        // index the archive content in elastic-search
-        indexArchiveTypes(archiveName, archiveVersion, archiveRoot.getArchive().getWorkspace(), archiveRoot, currentIndexedArchive, metapropsNames);
-        indexTopology(archiveRoot, parsingErrors, archiveName, archiveVersion);
+        Set<String> importedImages = imageLoader.importImages(archivePath, archiveRoot, parsingErrors);
+        try {
+            Map<String, MetaPropConfiguration> metapropsNames = metaPropertiesService.getMetaPropConfigurationsByName(MetaPropertyTarget.COMPONENT);
+
+            // index the archive content in elastic-search
+            indexArchiveTypes(archiveName, archiveVersion, archiveRoot.getArchive().getWorkspace(), archiveRoot, currentIndexedArchive, metapropsNames,
+                    parsingErrors);
+            indexTopology(archiveRoot, parsingErrors, archiveName, archiveVersion);
+        } finally {
+            // the images can be deleted by other imports once the elements that reference them are indexed.
+            imageLoader.releaseImages(importedImages);
+        }
 
         publisher.publishEvent(new AfterArchiveIndexed(this, archiveRoot));
     }
@@ -357,18 +391,21 @@ public class ArchiveIndexer {
      * @param archiveVersion The version of the archive.
      * @param root The archive root.
      * @param archive The previous archive that must be replaced if any.
+     * @param parsingErrors The list of parsing errors in which to add the types that could not be indexed.
      */
-    private void indexArchiveTypes(String archiveName, String archiveVersion, String workspace, ArchiveRoot root, Csar archive, Map<String, MetaPropConfiguration> metapropsNames) {
+    private void indexArchiveTypes(String archiveName, String archiveVersion, String workspace, ArchiveRoot root, Csar archive,
+            Map<String, MetaPropConfiguration> metapropsNames, List<ParsingError> parsingErrors) {
+        Map<String, AbstractToscaType> previousElements = null;
         if (archive != null) {
             // get element from the archive so we get the creation date.
-            Map<String, AbstractToscaType> previousElements = indexerService.getArchiveElements(archiveName, archiveVersion);
+            previousElements = indexerService.getArchiveElements(archiveName, archiveVersion);
             prepareForUpdate(root, previousElements, metapropsNames);
 
-            // delete the all objects related to the previous archive .
-            csarService.deleteCsarContent(archive);
+            // delete the topology of the previous archive, types are updated based on their content.
+            csarService.deleteCsarTopology(archive);
         }
 
-        performIndexing(root, metapropsNames);
+        performIndexing(root, metapropsNames, previousElements, parsingErrors);
     }
 
     private void prepareForUpdate(ArchiveRoot root, Map<String, AbstractToscaType> previousElements,Map<String, MetaPropConfiguration> metapropsNames) {
@@ -425,20 +462,46 @@ public class ArchiveIndexer {
         }
     }
 
-    private void performIndexing(ArchiveRoot root, Map<String, MetaPropConfiguration> metapropsNames) {
-        indexerService.indexInheritableElements(root.getArtifactTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getCapabilityTypes(), root.getArchive().getDependencies());
+    private void performIndexing(ArchiveRoot root, Map<String, MetaPropConfiguration> metapropsNames, Map<String, AbstractToscaType> previousElements,
+            List<ParsingError> parsingErrors) {
+        // accumulate the types of the archive and of its local imports so they are all written using bulk requests and a single refresh.
+        List<AbstractInheritableToscaType> elements = Lists.newArrayList();
+        collectElements(root, metapropsNames, elements);
+        BulkSaveResult result;
+        if (previousElements == null) {
+            result = indexerService.indexInheritableElements(elements, root.getArchive().getDependencies());
+        } else {
+            // only index the types that changed since the previous import of the archive
+            result = indexerService.updateInheritableElements(previousElements, elements, root.getArchive().getDependencies());
+        }
+        log.info("Indexed {} types of archive {} in {} ms using {} bulk requests ({} types/s)", result.getSaved(), root.getArchive().getId(),
+                result.getDuration(), result.getRequests(), String.format("%.1f", result.getThroughput()));
+        for (Map.Entry<String, String> failure : result.getFailures().entrySet()) {
+            parsingErrors.add(new ParsingError(ParsingErrorLevel.ERROR, ErrorCode.TOSCA_TYPE_INDEXING_FAILED, "", null, failure.getValue(), null,
+                    failure.getKey()));
+        }
+        if (result.hasFailures()) {
+            // the archive has been saved with the hash of its content before indexing, clear it so a new upload of the same content is indexed again.
+            log.warn("Failed to index {} types of archive {}, clearing the archive hash", result.getFailures().size(), root.getArchive().getId());
+            root.getArchive().setHash(null);
+            csarService.save(root.getArchive());
+        }
+    }
+
+    private void collectElements(ArchiveRoot root, Map<String, MetaPropConfiguration> metapropsNames, List<AbstractInheritableToscaType> elements) {
         root.getNodeTypes().forEach((id, nodeType) -> {
             metaFeeder.feed(nodeType, nodeType.getTags(), metapropsNames); }
         );
-        indexerService.indexInheritableElements(root.getNodeTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getRelationshipTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getDataTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(root.getPolicyTypes(), root.getArchive().getDependencies());
+        elements.addAll(safe(root.getArtifactTypes()).values());
+        elements.addAll(safe(root.getCapabilityTypes()).values());
+        elements.addAll(safe(root.getNodeTypes()).values());
+        elements.addAll(safe(root.getRelationshipTypes()).values());
+        elements.addAll(safe(root.getDataTypes()).values());
+        elements.addAll(safe(root.getPolicyTypes()).values());
 
         if (root.getLocalImports() != null) {
             for (ArchiveRoot child : root.getLocalImports()) {
-                performIndexing(child, metapropsNames);
+                collectElements(child, metapropsNames, elements);
             }
         }
     }
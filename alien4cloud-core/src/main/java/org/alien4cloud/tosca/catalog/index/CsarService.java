@@ -29,6 +29,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 import alien4cloud.application.ApplicationService;
+import alien4cloud.dao.DataLoader;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.AlreadyExistException;
@@ -37,6 +38,8 @@ import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.application.Application;
 import alien4cloud.model.common.Usage;
 import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.security.AuthorizationUtil;
+import alien4cloud.security.model.ApplicationRole;
 import alien4cloud.utils.AlienConstants;
 import lombok.extern.slf4j.Slf4j;
 
@@ -285,12 +288,20 @@ public class CsarService {
      * @param csar
      */
     public void deleteCsarContent(Csar csar) {
-        // Delete the topology defined in this archive.
-        csarDAO.delete(Topology.class, csar.getId());
+        deleteCsarTopology(csar);
         // latest version indicator will be recomputed to match this new reality
         indexerService.deleteElements(csar.getName(), csar.getVersion());
     }
 
+    /**
+     * Delete the topology defined in the csar (if any) from the repository.
+     *
+     * @param csar The csar for which to delete the topology.
+     */
+    public void deleteCsarTopology(Csar csar) {
+        csarDAO.delete(Topology.class, csar.getId());
+    }
+
     /**
      * Delete an archive an all its registered / saved elements
      * Abort the deletion if the archive is used by some resources
@@ -365,9 +376,10 @@ public class CsarService {
         String resourceName;
         String resourceId;
         List<Usage> resourceList = Lists.newArrayList();
+        DataLoader applicationLoader = prefetchApplications(Lists.newArrayList(csars));
         for (Csar csar : csars) {
             if (ArchiveDelegateType.APPLICATION.toString().equals(csar.getDelegateType())) {
-                Application application = applicationService.checkAndGetApplication(csar.getDelegateId());
+                Application application = checkAndGetApplication(applicationLoader, csar.getDelegateId());
                 resourceName = application.getName();
             } else {
                 resourceName = csar.getName();
@@ -407,10 +419,11 @@ public class CsarService {
         List<Usage> resourceList = Lists.newArrayList();
 
         List<Csar> topologiesCsar = getTopologiesCsar(topologies);
+        DataLoader applicationLoader = prefetchApplications(topologiesCsar);
         for (Csar csar : topologiesCsar) {
             if (Objects.equals(csar.getDelegateType(), ArchiveDelegateType.APPLICATION.toString())) {
                 // get the related application
-                Application application = applicationService.checkAndGetApplication(csar.getDelegateId());
+                Application application = checkAndGetApplication(applicationLoader, csar.getDelegateId());
                 resourceList.add(new Usage(application.getName(), csar.getDelegateType(), csar.getDelegateId(), csar.getWorkspace()));
             } else {
                 resourceList.add(new Usage(csar.getName() + "[" + csar.getVersion() + "]", "topologyTemplate", csar.getId(), csar.getWorkspace()));
@@ -418,4 +431,22 @@ public class CsarService {
         }
         return resourceList;
     }
+
+    /**
+     * Register the applications related to the given csars in a new loader so they are fetched using a single request.
+     */
+    private DataLoader prefetchApplications(List<Csar> csars) {
+        return new DataLoader(csarDAO).prefetch(Application.class,
+                csars.stream().filter(csar -> ArchiveDelegateType.APPLICATION.toString().equals(csar.getDelegateType())).map(Csar::getDelegateId)
+                        .collect(Collectors.toSet()));
+    }
+
+    private Application checkAndGetApplication(DataLoader applicationLoader, String applicationId) {
+        Application application = applicationLoader.load(Application.class, applicationId);
+        if (application == null) {
+            throw new NotFoundException("Application [" + applicationId + "] cannot be found");
+        }
+        AuthorizationUtil.checkAuthorizationForApplication(application, ApplicationRole.values());
+        return application;
+    }
 }
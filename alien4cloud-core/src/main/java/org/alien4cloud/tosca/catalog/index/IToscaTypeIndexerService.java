@@ -7,6 +7,8 @@ import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
 
+import alien4cloud.dao.model.BulkSaveResult;
+
 /**
  * Service responsible for indexing TOSCA elements.
  */
@@ -40,13 +42,25 @@ public interface IToscaTypeIndexerService {
     void deleteElements(String archiveName, String archiveVersion);
 
     /**
-     * Index multiple elements into the repository.
+     * Index multiple elements into the repository using bulk requests, the index is refreshed once all elements have been indexed.
      * 
      * @param archiveElements The elements to index.
      * @param dependencies The archive dependencies (in order to add infos from the parent element to the child...)
+     * @return The result of the bulk indexing with the elements that could not be indexed.
+     */
+    BulkSaveResult indexInheritableElements(Collection<? extends AbstractInheritableToscaType> archiveElements, Collection<CSARDependency> dependencies);
+
+    /**
+     * Update the indexed elements of an archive that is imported again. Only the elements that are new or whose content hash changed are indexed and the
+     * previous elements that are not part of the archive anymore are deleted.
+     *
+     * @param previousElements The elements currently indexed for the archive by id.
+     * @param archiveElements The elements of the archive to index.
+     * @param dependencies The archive dependencies (in order to add infos from the parent element to the child...)
+     * @return The result of the bulk indexing of the new and changed elements.
      */
-    void indexInheritableElements(Map<String, ? extends AbstractInheritableToscaType> archiveElements,
-            Collection<CSARDependency> dependencies);
+    BulkSaveResult updateInheritableElements(Map<String, AbstractToscaType> previousElements,
+            Collection<? extends AbstractInheritableToscaType> archiveElements, Collection<CSARDependency> dependencies);
 
     /**
      * Index a single element into the repository.
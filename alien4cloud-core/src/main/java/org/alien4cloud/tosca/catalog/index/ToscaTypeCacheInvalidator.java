@@ -0,0 +1,55 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import javax.annotation.PostConstruct;
+
+import org.alien4cloud.tosca.catalog.events.AfterArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.AfterArchiveIndexed;
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveDeleted;
+import org.alien4cloud.tosca.catalog.events.BeforeArchiveIndexed;
+import org.alien4cloud.tosca.catalog.events.BeforeArchivePromoted;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.tosca.context.ToscaContext;
+
+/**
+ * Evict types from the shared TOSCA type cache when an archive content changes or when it is removed from the catalog.
+ *
+ * Eviction is performed both before and after the catalog update so a concurrent lookup cannot keep stale types in the cache. Types updated outside of an
+ * archive import (substitution types) are evicted by the indexer.
+ */
+@Component
+public class ToscaTypeCacheInvalidator {
+
+    @PostConstruct
+    public void init() {
+        // cached types are serialized the same way as they are stored in elasticsearch.
+        ToscaContext.getTypeCache().setMapper(ElasticSearchMapper.getInstance());
+    }
+
+    @EventListener
+    public void handleArchiveRemoved(BeforeArchiveDeleted event) {
+        ToscaContext.getTypeCache().invalidate(event.getArchiveId());
+    }
+
+    @EventListener
+    public void handleArchiveRemoved(AfterArchiveDeleted event) {
+        ToscaContext.getTypeCache().invalidate(event.getArchiveId());
+    }
+
+    @EventListener
+    public void handleArchiveUpdated(BeforeArchiveIndexed event) {
+        ToscaContext.getTypeCache().invalidate(event.getArchiveRoot().getArchive().getId());
+    }
+
+    @EventListener
+    public void handleArchiveUpdated(AfterArchiveIndexed event) {
+        ToscaContext.getTypeCache().invalidate(event.getArchiveRoot().getArchive().getId());
+    }
+
+    @EventListener
+    public void handleArchivePromoted(BeforeArchivePromoted event) {
+        ToscaContext.getTypeCache().invalidate(event.getArchiveId());
+    }
+}
@@ -3,35 +3,56 @@ package org.alien4cloud.tosca.catalog.index;
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.utils.AlienUtils.safe;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
 import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
 import org.apache.commons.collections4.CollectionUtils;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.mapping.ElasticSearchClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 
+import alien4cloud.dao.ESGenericSearchDAO;
 import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.ElasticSearchMapper;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.dao.model.FetchContext;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.images.IImageDAO;
 import alien4cloud.model.common.Tag;
 import alien4cloud.model.components.IndexedModelUtils;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.context.ToscaContextual;
 import org.alien4cloud.tosca.normative.types.ToscaTypes;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * This service is responsible for indexing and searching tosca types.
  */
+@Slf4j
 @Service
 public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
     @Resource(name = "alien-es-dao")
@@ -40,6 +61,13 @@ public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
     private ElasticSearchClient elasticSearchClient;
     @Inject
     private IImageDAO imageDAO;
+    @Value("${archive.indexing_bulk_size:500}")
+    private int indexingBulkSize;
+    @Value("${archive.indexing_bulk_bytes:5242880}")
+    private long indexingBulkBytes;
+
+    private final ObjectWriter contentHashWriter = ElasticSearchMapper.getInstance().addMixIn(AbstractToscaType.class, ContentHashMixIn.class)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true).writer();
 
     private void refreshIndexForSearching() {
         elasticSearchClient.getClient().admin().indices().prepareRefresh(ElasticSearchDAO.TOSCA_ELEMENT_INDEX).execute().actionGet();
@@ -52,40 +80,117 @@ public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
 
     @Override
     public <T extends AbstractToscaType> Map<String, T> getArchiveElements(String archiveName, String archiveVersion, Class<T> type) {
-        GetMultipleDataResult<T> elements = alienDAO.buildQuery(type)
-                .setFilters(fromKeyValueCouples("archiveName", archiveName, "archiveVersion", archiveVersion)).prepareSearch().search(0, Integer.MAX_VALUE);
-
         Map<String, T> elementsByIds = Maps.newHashMap();
-        if (elements == null) {
-            return elementsByIds;
-        }
-
-        for (T element : elements.getData()) {
-            elementsByIds.put(element.getId(), element);
+        try (Stream<T> elements = alienDAO.stream(type, null, getArchiveFilter(archiveName, archiveVersion), ESGenericSearchDAO.DEFAULT_SCROLL_SIZE)) {
+            elements.forEach(element -> elementsByIds.put(element.getId(), element));
         }
         return elementsByIds;
     }
 
     @Override
     public void deleteElements(String name, String version) {
-        GetMultipleDataResult<AbstractToscaType> result = alienDAO.buildQuery(AbstractToscaType.class)
-                .setFilters(fromKeyValueCouples("archiveName", name, "archiveVersion", version)).prepareSearch().setFetchContext(FetchContext.SUMMARY)
-                .search(0, Integer.MAX_VALUE);
+        // collect icons used by the archive elements so they can be removed if not used by other elements anymore
+        Map<String, AbstractToscaType> elementsByIcon = Maps.newHashMap();
+        try (Stream<AbstractToscaType> elements = alienDAO.stream(AbstractToscaType.class, null, getArchiveFilter(name, version), null,
+                FetchContext.SUMMARY, ESGenericSearchDAO.DEFAULT_SCROLL_SIZE)) {
+            elements.forEach(element -> {
+                Tag iconTag = ArchiveImageLoader.getIconTag(element.getTags());
+                if (iconTag != null) {
+                    elementsByIcon.putIfAbsent(iconTag.getValue(), element);
+                }
+            });
+        }
 
-        AbstractToscaType[] elements = result.getData();
+        alienDAO.deleteByQuery(AbstractToscaType.class, QueryBuilders.filteredQuery(QueryBuilders.matchAllQuery(), getArchiveFilter(name, version)),
+                ESGenericSearchDAO.DEFAULT_SCROLL_SIZE, WriteVisibility.IMMEDIATE);
 
-        // we need to delete each element
-        for (AbstractToscaType element : elements) {
-            deleteElement(element);
+        for (AbstractToscaType element : elementsByIcon.values()) {
+            deleteIconIfUnused(element);
         }
     }
 
+    private FilterBuilder getArchiveFilter(String archiveName, String archiveVersion) {
+        return FilterBuilders.boolFilter().must(FilterBuilders.termFilter("archiveName", archiveName))
+                .must(FilterBuilders.termFilter("archiveVersion", archiveVersion));
+    }
+
     @Override
-    public void indexInheritableElements(Map<String, ? extends AbstractInheritableToscaType> archiveElements, Collection<CSARDependency> dependencies) {
-        for (AbstractInheritableToscaType element : safe(archiveElements).values()) {
-            alienDAO.save(element);
+    public BulkSaveResult indexInheritableElements(Collection<? extends AbstractInheritableToscaType> archiveElements,
+            Collection<CSARDependency> dependencies) {
+        for (AbstractInheritableToscaType element : safe(archiveElements)) {
+            element.setContentHash(computeContentHash(element));
         }
-        refreshIndexForSearching();
+        return alienDAO.save(safe(archiveElements), indexingBulkSize, indexingBulkBytes, WriteVisibility.IMMEDIATE);
+    }
+
+    @Override
+    public BulkSaveResult updateInheritableElements(Map<String, AbstractToscaType> previousElements,
+            Collection<? extends AbstractInheritableToscaType> archiveElements, Collection<CSARDependency> dependencies) {
+        Map<String, AbstractToscaType> removedElements = Maps.newHashMap(previousElements);
+        List<AbstractInheritableToscaType> changedElements = Lists.newArrayList();
+        // previous versions of the changed elements which icon has been changed or removed.
+        List<AbstractToscaType> replacedIconElements = Lists.newArrayList();
+        for (AbstractInheritableToscaType element : safe(archiveElements)) {
+            element.setContentHash(computeContentHash(element));
+            AbstractToscaType previousElement = removedElements.remove(element.getId());
+            if (previousElement == null || !element.getContentHash().equals(previousElement.getContentHash())) {
+                changedElements.add(element);
+                if (previousElement != null && isIconReplaced(previousElement, element)) {
+                    replacedIconElements.add(previousElement);
+                }
+            } else {
+                // the element is not indexed again, keep the indexed update date.
+                element.setLastUpdateDate(previousElement.getLastUpdateDate());
+            }
+        }
+
+        if (!removedElements.isEmpty()) {
+            alienDAO.deleteByQuery(AbstractToscaType.class, QueryBuilders.idsQuery().ids(removedElements.keySet().toArray(new String[removedElements.size()])),
+                    ESGenericSearchDAO.DEFAULT_SCROLL_SIZE, WriteVisibility.EVENTUAL);
+        }
+        BulkSaveResult result = alienDAO.save(changedElements, indexingBulkSize, indexingBulkBytes, WriteVisibility.EVENTUAL);
+        if (!changedElements.isEmpty() || !removedElements.isEmpty()) {
+            refreshIndexForSearching();
+        }
+        log.debug("Updated archive elements: {} indexed, {} unchanged, {} deleted", changedElements.size(),
+                safe(archiveElements).size() - changedElements.size(), removedElements.size());
+
+        // icons of the deleted elements and previous icons of the updated elements may not be used anymore.
+        Map<String, AbstractToscaType> elementsByIcon = Maps.newHashMap();
+        for (AbstractToscaType element : Iterables.concat(removedElements.values(), replacedIconElements)) {
+            Tag iconTag = ArchiveImageLoader.getIconTag(element.getTags());
+            if (iconTag != null) {
+                elementsByIcon.putIfAbsent(iconTag.getValue(), element);
+            }
+        }
+        for (AbstractToscaType element : elementsByIcon.values()) {
+            deleteIconIfUnused(element);
+        }
+        return result;
+    }
+
+    private boolean isIconReplaced(AbstractToscaType previousElement, AbstractToscaType element) {
+        Tag previousIconTag = ArchiveImageLoader.getIconTag(previousElement.getTags());
+        if (previousIconTag == null) {
+            return false;
+        }
+        Tag iconTag = ArchiveImageLoader.getIconTag(element.getTags());
+        return iconTag == null || !Objects.equals(previousIconTag.getValue(), iconTag.getValue());
+    }
+
+    /**
+     * Compute the hash of the indexed content of an element, dates are not part of the content so an element that has not changed keeps the same hash.
+     */
+    @SneakyThrows(IOException.class)
+    private String computeContentHash(AbstractToscaType element) {
+        return Hashing.sha1().hashBytes(contentHashWriter.writeValueAsBytes(element)).toString();
+    }
+
+    /**
+     * Mix-in that excludes the dates and the content hash itself from the serialized content of the elements.
+     */
+    @JsonIgnoreProperties({ "creationDate", "lastUpdateDate", "contentHash" })
+    private abstract static class ContentHashMixIn {
     }
 
     @Override
@@ -106,15 +211,15 @@ public class ToscaTypeIndexerService implements IToscaTypeIndexerService {
 
         alienDAO.save(element);
         refreshIndexForSearching();
+        // the type is updated without re-indexing its archive (substitution type), the archive types cached for its dependents are stale.
+        ToscaContext.getTypeCache().invalidate(Csar.createId(archiveName, archiveVersion));
     }
 
-    private void deleteElement(AbstractToscaType element) {
+    private void deleteIconIfUnused(AbstractToscaType element) {
         Tag iconTag = ArchiveImageLoader.getIconTag(element.getTags());
-        alienDAO.delete(element.getClass(), element.getId());
         if (iconTag != null) {
-            if (!hasElementWithTag(element.getClass(), iconTag.getName(), iconTag.getValue())) {
-                imageDAO.deleteAll(iconTag.getValue());
-            }
+            // icons are shared by all the elements with the same icon content (whatever their type).
+            imageDAO.deleteAllIfUnused(iconTag.getValue(), () -> hasElementWithTag(AbstractToscaType.class, iconTag.getName(), iconTag.getValue()));
         }
     }
 
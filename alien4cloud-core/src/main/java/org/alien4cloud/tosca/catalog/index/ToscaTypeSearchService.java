@@ -21,12 +21,15 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.Maps;
+
 import static alien4cloud.dao.FilterUtil.fromKeyValueCouples;
 import static alien4cloud.dao.FilterUtil.singleKeyFilter;
 
@@ -158,6 +161,30 @@ public class ToscaTypeSearchService extends AbstractToscaIndexSearchService<Abst
         return getLatestVersionOfElement(elementClass, boolQueryBuilder);
     }
 
+    @Override
+    public <T extends AbstractToscaType> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies) {
+        Map<String, T> elements = Maps.newHashMap();
+        if (dependencies == null || dependencies.isEmpty() || elementIds == null || elementIds.isEmpty()) {
+            return elements;
+        }
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery().must(getDependencyQuery(dependencies))
+                .must(QueryBuilders.termsQuery("rawElementId", elementIds));
+        List<T> foundElements = searchDAO.customFindAll(elementClass, boolQueryBuilder);
+        if (foundElements == null) {
+            return elements;
+        }
+        // keep the latest version of each element as done for single element lookup
+        for (T element : foundElements) {
+            T previous = elements.get(element.getElementId());
+            if (previous == null
+                    || VersionUtil.parseVersion(previous.getArchiveVersion()).compareTo(VersionUtil.parseVersion(element.getArchiveVersion())) < 0) {
+                elements.put(element.getElementId(), element);
+            }
+        }
+        return elements;
+    }
+
     @Override
     public <T extends AbstractToscaType> T getRequiredElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies)
             throws NotFoundException {
@@ -101,7 +101,8 @@ public class CsarFileRepository implements ICsarRepositry {
             Path expandedPath = csarDirectoryPath.resolve("expanded");
             if (Files.isRegularFile(tmpPath)) {
                 Files.copy(tmpPath, csarTargetPath);
-                FileUtil.unzip(csarTargetPath, expandedPath);
+                // expand from the uploaded file as its zip file system may already be opened by the upload.
+                FileUtil.unzip(tmpPath, expandedPath);
             } else {
                 FileUtil.copy(tmpPath, expandedPath, StandardCopyOption.REPLACE_EXISTING);
             }
@@ -123,7 +124,8 @@ public class CsarFileRepository implements ICsarRepositry {
         Path archiveDirectoryPath = EditionContextManager.get().getLocalGitPath().getParent();
         try {
             DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
-            FileUtil.zip(expandedPath, csarTargetPath);
+            // only the files modified since the last save are compressed again.
+            FileUtil.updateZip(expandedPath, csarTargetPath);
             EditionContextManager.get().refreshContentTree();
         } catch (IOException e) {
             throw new CSARStorageFailureException("Error while trying to update the CSAR archive: " + name + ", Version: " + version + "...." + e.getMessage(),
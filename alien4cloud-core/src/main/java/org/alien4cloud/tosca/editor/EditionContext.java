@@ -37,8 +37,8 @@ public class EditionContext {
     private ToscaContext.Context toscaContext;
     /** Path to the topology's local git repository. */
     private Path localGitPath;
-    /** The operation under processing if any or null. */
-    private AbstractEditorOperation currentOperation;
+    /** The operation under processing if any or null (reset without holding the topology lock). */
+    private volatile AbstractEditorOperation currentOperation;
     /** The index of the operation considered as the last operation (may be in the middle based on undo/redo) */
     private int lastOperationIndex = -1;
     /** The index of the last operation that has been saved (in ES and commit). */
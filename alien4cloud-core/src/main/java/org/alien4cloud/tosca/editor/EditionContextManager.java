@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import javax.annotation.PostConstruct;
 import javax.inject.Inject;
@@ -24,10 +25,15 @@ import org.alien4cloud.tosca.editor.operations.UpdateFileOperation;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.templates.Topology;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.cache.*;
+import com.google.common.util.concurrent.Striped;
 
 import alien4cloud.component.repository.IFileRepository;
 import alien4cloud.topology.TopologyServiceCore;
@@ -37,6 +43,10 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * The topology edition context manager is responsible to manage the caching and lifecycle of TopologyEditionContexts.
+ *
+ * Loading and invalidation of the contexts are serialized per topology (using striped locks) so opening a topology does not block the edition of other
+ * topologies. The number of times a topology lock was already held by another thread is registered in the <code>alien4cloud.editor.lock.contended</code>
+ * meter and the time spent waiting for it in the <code>alien4cloud.editor.lock.wait</code> timer (uncontended acquisitions are not timed).
  */
 @Slf4j
 @Component
@@ -52,11 +62,30 @@ public class EditionContextManager {
     @Inject
     private IFileRepository artifactRepository;
 
+    private static final String LOCK_METRICS_PREFIX = "alien4cloud.editor.lock";
+
     // TODO make cache management time a parameter
     private LoadingCache<String, EditionContext> contextCache;
+    private final Striped<Lock> topologyLocks = Striped.lock(64);
+
+    private MetricRegistry metricRegistry = new MetricRegistry();
+    private Timer lockWaitTimer;
+    private Meter lockContentionMeter;
+
+    /**
+     * Register the lock metrics in the application metric registry (if any).
+     *
+     * @param metricRegistry The application metric registry.
+     */
+    @Autowired(required = false)
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
 
     @PostConstruct
     public void setup() {
+        lockWaitTimer = metricRegistry.timer(MetricRegistry.name(LOCK_METRICS_PREFIX, "wait"));
+        lockContentionMeter = metricRegistry.meter(MetricRegistry.name(LOCK_METRICS_PREFIX, "contended"));
         // initialize the cache
         contextCache = CacheBuilder.newBuilder().expireAfterAccess(30, TimeUnit.MINUTES).removalListener(new RemovalListener<String, EditionContext>() {
             @Override
@@ -92,11 +121,31 @@ public class EditionContextManager {
      * @param topologyId The id of the topology.
      */
     @SneakyThrows
-    public synchronized void init(String topologyId) {
-        contextThreadLocal.set(contextCache.get(topologyId));
+    public void init(String topologyId) {
+        try (TopologyLock lock = lock(topologyId)) {
+            contextThreadLocal.set(contextCache.get(topologyId));
+        }
         ToscaContext.set(contextThreadLocal.get().getToscaContext());
     }
 
+    /**
+     * Acquire the lock of a topology. The lock is reentrant and must be released (in a finally block or using try-with-resources).
+     *
+     * @param topologyId The id of the topology.
+     * @return The acquired lock.
+     */
+    public TopologyLock lock(String topologyId) {
+        Lock lock = topologyLocks.get(topologyId);
+        if (!lock.tryLock()) {
+            lockContentionMeter.mark();
+            Timer.Context waitContext = lockWaitTimer.time();
+            lock.lock();
+            long waited = waitContext.stop();
+            log.debug("Waited {} ms for the lock of topology {}", TimeUnit.NANOSECONDS.toMillis(waited), topologyId);
+        }
+        return new TopologyLock(lock);
+    }
+
     /**
      * Reset the state of the topology context to it's initial state.
      * 
@@ -144,34 +193,39 @@ public class EditionContextManager {
     }
 
     @EventListener
-    public synchronized void handleArchiveRemoved(BeforeArchiveDeleted event) {
-        contextCache.invalidate(event.getArchiveId());
+    public void handleArchiveRemoved(BeforeArchiveDeleted event) {
+        invalidate(event.getArchiveId());
     }
 
     @EventListener
-    public synchronized void handleArchiveUpdated(BeforeArchiveIndexed event) {
-        contextCache.invalidate(event.getArchiveRoot().getArchive().getId());
+    public void handleArchiveUpdated(BeforeArchiveIndexed event) {
+        invalidate(event.getArchiveRoot().getArchive().getId());
     }
 
     @EventListener
-    public synchronized void handleArchivePromoted(BeforeArchivePromoted event) {
-        contextCache.invalidate(event.getArchiveId());
+    public void handleArchivePromoted(BeforeArchivePromoted event) {
+        invalidate(event.getArchiveId());
+    }
+
+    private void invalidate(String topologyId) {
+        // wait for a context being loaded so it is not cached once the archive has changed.
+        try (TopologyLock lock = lock(topologyId)) {
+            contextCache.invalidate(topologyId);
+        }
     }
 
-    @SneakyThrows
     @EventListener
-    public synchronized void reportArchiveUsage(ArchiveUsageRequestEvent event) {
-        for (String topologyId : contextCache.asMap().keySet()) {
-            if (isTopologyUsingArchive(event.getArchiveName(), event.getArchiveVersion(), topologyId)) {
-                event.addUsage(new Usage(contextCache.get(topologyId).getCsar().getName(), "Topology editor", topologyId,
-                        contextCache.get(topologyId).getCsar().getWorkspace()));
+    public void reportArchiveUsage(ArchiveUsageRequestEvent event) {
+        for (Map.Entry<String, EditionContext> contextEntry : contextCache.asMap().entrySet()) {
+            EditionContext context = contextEntry.getValue();
+            if (isTopologyUsingArchive(event.getArchiveName(), event.getArchiveVersion(), context)) {
+                event.addUsage(new Usage(context.getCsar().getName(), "Topology editor", contextEntry.getKey(), context.getCsar().getWorkspace()));
             }
         }
     }
 
-    @SneakyThrows
-    private boolean isTopologyUsingArchive(String archiveName, String archiveVersion, String topologyId) {
-        for (CSARDependency dependency : contextCache.get(topologyId).getToscaContext().getDependencies()) {
+    private boolean isTopologyUsingArchive(String archiveName, String archiveVersion, EditionContext context) {
+        for (CSARDependency dependency : context.getToscaContext().getDependencies()) {
             if (archiveName.equals(dependency.getName()) && archiveVersion.equals(dependency.getVersion())) {
                 return true;
             }
@@ -182,7 +236,23 @@ public class EditionContextManager {
     /**
      * Invalidate all cached objects
      */
-    public synchronized void clearCache() {
+    public void clearCache() {
         contextCache.invalidateAll();
     }
+
+    /**
+     * Lock of a topology acquired using {@link #lock(String)}.
+     */
+    public static class TopologyLock implements AutoCloseable {
+        private final Lock lock;
+
+        private TopologyLock(Lock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public void close() {
+            lock.unlock();
+        }
+    }
 }
\ No newline at end of file
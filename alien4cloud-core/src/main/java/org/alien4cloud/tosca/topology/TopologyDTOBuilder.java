@@ -11,22 +11,28 @@ import java.util.stream.Collectors;
 
 import org.alien4cloud.tosca.editor.EditionContext;
 import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.definitions.AttributeDefinition;
 import org.alien4cloud.tosca.model.definitions.CapabilityDefinition;
+import org.alien4cloud.tosca.model.definitions.IValue;
+import org.alien4cloud.tosca.model.definitions.PropertyDefinition;
 import org.alien4cloud.tosca.model.definitions.RequirementDefinition;
 import org.alien4cloud.tosca.model.templates.AbstractTemplate;
 import org.alien4cloud.tosca.model.templates.NodeTemplate;
 import org.alien4cloud.tosca.model.templates.Topology;
 import org.alien4cloud.tosca.model.types.AbstractInheritableToscaType;
+import org.alien4cloud.tosca.model.types.AbstractInstantiableToscaType;
 import org.alien4cloud.tosca.model.types.CapabilityType;
 import org.alien4cloud.tosca.model.types.DataType;
 import org.alien4cloud.tosca.model.types.NodeType;
 import org.alien4cloud.tosca.model.types.PolicyType;
 import org.alien4cloud.tosca.model.types.RelationshipType;
+import org.alien4cloud.tosca.normative.types.ToscaTypes;
 import org.alien4cloud.tosca.utils.DataTypesFetcher;
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import alien4cloud.topology.AbstractTopologyDTO;
 import alien4cloud.topology.DependencyConflictDTO;
@@ -127,6 +133,9 @@ public class TopologyDTOBuilder {
     private <T extends Topology> Map<String, RelationshipType> getRelationshipTypes(T topology) {
         Map<String, RelationshipType> types = Maps.newHashMap();
         if (topology.getNodeTemplates() != null) {
+            // prefetch all relationship types in a single request
+            ToscaContext.getElements(RelationshipType.class, topology.getNodeTemplates().values().stream()
+                    .flatMap(nodeTemplate -> safe(nodeTemplate.getRelationships()).values().stream()).map(AbstractTemplate::getType).collect(Collectors.toSet()));
             for (NodeTemplate nodeTemplate : topology.getNodeTemplates().values()) {
                 fillTypeMap(RelationshipType.class, types, nodeTemplate.getRelationships(), false, false);
             }
@@ -135,28 +144,40 @@ public class TopologyDTOBuilder {
     }
 
     private <T extends Topology> Map<String, CapabilityType> getCapabilityTypes(AbstractTopologyDTO<T> topologyDTO) {
+        // prefetch all capability types referenced by capabilities and requirements in a single request
+        Set<String> capabilityTypeIds = Sets.newHashSet();
+        for (NodeType nodeType : topologyDTO.getNodeTypes().values()) {
+            if (nodeType != null) {
+                safe(nodeType.getCapabilities()).forEach(capabilityDefinition -> capabilityTypeIds.add(capabilityDefinition.getType()));
+                safe(nodeType.getRequirements()).forEach(requirementDefinition -> capabilityTypeIds.add(requirementDefinition.getType()));
+            }
+        }
+        Map<String, CapabilityType> capabilityTypes = ToscaContext.getElements(CapabilityType.class, capabilityTypeIds);
+
         Map<String, CapabilityType> types = Maps.newHashMap();
-        Map<String, NodeType> delayedNodeTypeAddMap = Maps.newHashMap();
+        Set<String> requirementNodeTypeIds = Sets.newHashSet();
         for (NodeType nodeType : topologyDTO.getNodeTypes().values()) {
             if (nodeType != null) {
                 for (CapabilityDefinition capabilityDefinition : safe(nodeType.getCapabilities())) {
-                    types.put(capabilityDefinition.getType(), ToscaContext.get(CapabilityType.class, capabilityDefinition.getType()));
+                    types.put(capabilityDefinition.getType(), capabilityTypes.get(capabilityDefinition.getType()));
                 }
                 for (RequirementDefinition requirementDefinition : safe(nodeType.getRequirements())) {
-                    CapabilityType capabilityType = ToscaContext.get(CapabilityType.class, requirementDefinition.getType());
+                    CapabilityType capabilityType = capabilityTypes.get(requirementDefinition.getType());
                     if (capabilityType != null) {
                         types.put(requirementDefinition.getType(), capabilityType);
                     } else {
                         // requirements are authorized to be a node type rather than a capability type TODO is it still possible in TOSCA ?
-                        NodeType indexedNodeType = ToscaContext.get(NodeType.class, requirementDefinition.getType());
-                        // add it to the actual node types map
-                        delayedNodeTypeAddMap.put(requirementDefinition.getType(), indexedNodeType);
+                        requirementNodeTypeIds.add(requirementDefinition.getType());
                     }
                 }
             }
         }
-        for (Map.Entry<String, NodeType> delayedNodeType : delayedNodeTypeAddMap.entrySet()) {
-            topologyDTO.getNodeTypes().put(delayedNodeType.getKey(), delayedNodeType.getValue());
+        if (!requirementNodeTypeIds.isEmpty()) {
+            Map<String, NodeType> requirementNodeTypes = ToscaContext.getElements(NodeType.class, requirementNodeTypeIds);
+            for (String requirementNodeTypeId : requirementNodeTypeIds) {
+                // add it to the actual node types map
+                topologyDTO.getNodeTypes().put(requirementNodeTypeId, requirementNodeTypes.get(requirementNodeTypeId));
+            }
         }
         return types;
     }
@@ -166,6 +187,8 @@ public class TopologyDTOBuilder {
         if (templateMap == null) {
             return;
         }
+        // prefetch all types in a single request
+        ToscaContext.getElements(elementClass, templateMap.values().stream().map(AbstractTemplate::getType).collect(Collectors.toSet()));
         for (Map.Entry<String, V> template : templateMap.entrySet()) {
             if (!types.containsKey(template.getValue().getType())) {
                 T type = ToscaContext.get(elementClass, template.getValue().getType());
@@ -178,8 +201,15 @@ public class TopologyDTOBuilder {
     }
 
     private Map<String, DataType> getDataTypes(AbstractTopologyDTO topologyDTO) {
+        // prefetch all data types referenced by properties and attributes in a single request
+        Set<String> dataTypeIds = Sets.newHashSet();
+        collectDataTypeIds(dataTypeIds, topologyDTO.getNodeTypes());
+        collectDataTypeIds(dataTypeIds, topologyDTO.getRelationshipTypes());
+        collectDataTypeIds(dataTypeIds, topologyDTO.getCapabilityTypes());
+        Map<String, DataType> dataTypes = ToscaContext.getElements(DataType.class, dataTypeIds);
+
         Map<String, DataType> indexedDataTypes = Maps.newHashMap();
-        DataTypesFetcher.DataTypeFinder dataTypeFinder = (type, id) -> ToscaContext.get(type, id);
+        DataTypesFetcher.DataTypeFinder dataTypeFinder = (type, id) -> DataType.class.equals(type) ? dataTypes.get(id) : ToscaContext.get(type, id);
         if (MapUtils.isNotEmpty(topologyDTO.getNodeTypes())) {
             indexedDataTypes.putAll(DataTypesFetcher.getDataTypesDependencies(topologyDTO.getNodeTypes().values(), dataTypeFinder));
         }
@@ -191,4 +221,28 @@ public class TopologyDTOBuilder {
         }
         return indexedDataTypes;
     }
-}
\ No newline at end of file
+
+    private void collectDataTypeIds(Set<String> dataTypeIds, Map<String, ? extends AbstractInheritableToscaType> types) {
+        for (AbstractInheritableToscaType type : safe(types).values()) {
+            if (type == null) {
+                continue;
+            }
+            for (PropertyDefinition propertyDefinition : safe(type.getProperties()).values()) {
+                addDataTypeId(dataTypeIds, propertyDefinition.getType());
+            }
+            if (type instanceof AbstractInstantiableToscaType) {
+                for (IValue attributeDefinition : safe(((AbstractInstantiableToscaType) type).getAttributes()).values()) {
+                    if (attributeDefinition instanceof AttributeDefinition) {
+                        addDataTypeId(dataTypeIds, ((AttributeDefinition) attributeDefinition).getType());
+                    }
+                }
+            }
+        }
+    }
+
+    private void addDataTypeId(Set<String> dataTypeIds, String type) {
+        if (type != null && !ToscaTypes.isPrimitive(type)) {
+            dataTypeIds.add(type);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package alien4cloud.component.dao;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.exception.IndexingServiceException;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDaoAsyncTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+
+    @Test
+    public void savedDocumentShouldBeFoundAsynchronously() throws Exception {
+        Application found = dao.saveAsync(application("1")).thenCompose(saved -> dao.findByIdAsync(Application.class, "1")).get(10, TimeUnit.SECONDS);
+
+        Assert.assertNotNull(found);
+        Assert.assertEquals("app1", found.getName());
+        Assert.assertNull(dao.findByIdAsync(Application.class, "missing").get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void bulkSavedDocumentsShouldBeSearchedAsynchronously() throws Exception {
+        dao.bulkAsync(new Application[] { application("1"), application("2"), application("3") }).get(10, TimeUnit.SECONDS);
+
+        GetMultipleDataResult<Application> result = dao.searchAsync(Application.class, null, null, 0, 10).get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(3, result.getTotalResults());
+        Assert.assertEquals(3, result.getData().length);
+    }
+
+    @Test
+    public void failedRequestShouldCompleteTheFutureExceptionally() throws Exception {
+        dao.save(application("1"));
+        try {
+            // the query is parsed by the shards so the failure is notified to the listener and not thrown by the calling thread.
+            dao.searchAsync(Application.class, QueryBuilders.queryStringQuery("name:["), null, 0, 10).get(10, TimeUnit.SECONDS);
+            Assert.fail("The search request must fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IndexingServiceException);
+            Assert.assertNotNull(e.getCause().getCause());
+        }
+    }
+
+    @Test
+    public void failureShouldBePropagatedToDependentStages() throws Exception {
+        dao.save(application("1"));
+        Throwable failure = dao.searchAsync(Application.class, QueryBuilders.queryStringQuery("name:["), null, 0, 10).thenApply(result -> result.getData()[0])
+                .handle((application, e) -> e).get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(failure instanceof CompletionException);
+        Assert.assertTrue(failure.getCause() instanceof IndexingServiceException);
+    }
+
+    private Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        application.setName("app" + id);
+        return application;
+    }
+}
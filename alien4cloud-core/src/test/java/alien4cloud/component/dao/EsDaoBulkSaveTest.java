@@ -0,0 +1,97 @@
+package alien4cloud.component.dao;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.Resource;
+
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.google.common.base.Strings;
+
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.dao.model.BulkSaveResult;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDaoBulkSaveTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+
+    @Test
+    public void bulkSaveShouldSplitRequestsByActionCount() {
+        BulkSaveResult result = dao.save(nodeTypes(5), 2, Long.MAX_VALUE, WriteVisibility.IMMEDIATE);
+
+        Assert.assertEquals(3, result.getRequests());
+        Assert.assertEquals(5, result.getSaved());
+        Assert.assertFalse(result.hasFailures());
+        Assert.assertEquals(5, dao.count(NodeType.class, null));
+    }
+
+    @Test
+    public void bulkSaveShouldSplitRequestsByByteSize() {
+        // every document is bigger than the maximum size of a request so each one is sent in its own request.
+        BulkSaveResult result = dao.save(nodeTypes(3), 100, 1, WriteVisibility.IMMEDIATE);
+
+        Assert.assertEquals(3, result.getRequests());
+        Assert.assertEquals(3, result.getSaved());
+        Assert.assertEquals(3, dao.count(NodeType.class, null));
+    }
+
+    @Test
+    public void bulkSaveShouldReportFailedDocuments() {
+        List<NodeType> nodeTypes = nodeTypes(3);
+        // terms longer than 32766 bytes cannot be indexed.
+        nodeTypes.get(1).setWorkspace(Strings.repeat("a", 40000));
+
+        BulkSaveResult result = dao.save(nodeTypes, 100, Long.MAX_VALUE, WriteVisibility.IMMEDIATE);
+
+        Assert.assertEquals(2, result.getSaved());
+        Assert.assertEquals(1, result.getFailures().size());
+        Assert.assertTrue(result.getFailures().containsKey(nodeTypes.get(1).getId()));
+        Assert.assertNotNull(dao.findById(NodeType.class, nodeTypes.get(0).getId()));
+        Assert.assertNull(dao.findById(NodeType.class, nodeTypes.get(1).getId()));
+    }
+
+    @Test
+    public void bulkSaveShouldRefreshOnceWithImmediateVisibility() {
+        String index = ElasticSearchDAO.TOSCA_ELEMENT_INDEX;
+        // disable periodic refresh so only the explicit refreshes are counted.
+        nodeClient.admin().indices().prepareUpdateSettings(index).setSettings(ImmutableSettings.builder().put("index.refresh_interval", "-1")).get();
+        try {
+            long refreshCount = getRefreshCount(index);
+            BulkSaveResult result = dao.save(nodeTypes(5), 1, Long.MAX_VALUE, WriteVisibility.IMMEDIATE);
+
+            Assert.assertEquals(5, result.getRequests());
+            Assert.assertEquals(refreshCount + 1, getRefreshCount(index));
+            Assert.assertEquals(5, dao.count(NodeType.class, null));
+        } finally {
+            nodeClient.admin().indices().prepareUpdateSettings(index).setSettings(ImmutableSettings.builder().put("index.refresh_interval", "1s")).get();
+        }
+    }
+
+    private long getRefreshCount(String index) {
+        return nodeClient.admin().indices().prepareStats(index).setRefresh(true).get().getPrimaries().getRefresh().getTotal();
+    }
+
+    private List<NodeType> nodeTypes(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            NodeType nodeType = new NodeType();
+            nodeType.setElementId("element-" + i);
+            nodeType.setArchiveName("archive");
+            nodeType.setArchiveVersion("1.0.0");
+            return nodeType;
+        }).collect(Collectors.toList());
+    }
+}
@@ -8,6 +8,7 @@ import java.beans.IntrospectionException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -34,6 +35,7 @@ import alien4cloud.dao.ElasticSearchDAO;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FetchContext;
 import alien4cloud.exception.IndexingServiceException;
+import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.application.Application;
 import alien4cloud.model.common.Tag;
 import org.alien4cloud.tosca.model.definitions.CapabilityDefinition;
@@ -152,6 +154,32 @@ public class EsDaoCrudTest extends AbstractDAOTest {
 
     }
 
+    @Test
+    public void documentsShouldBeReadFromSourceBytes() {
+        // multi-byte characters check that sources are decoded as utf-8 whatever the offset of the document in the response buffer.
+        String description = "déploiement ✓ 日本";
+        Application[] apps = new Application[3];
+        for (int i = 0; i < apps.length; i++) {
+            apps[i] = new Application();
+            apps[i].setId(String.valueOf(i + 1));
+            apps[i].setName("app" + (i + 1));
+            apps[i].setDescription(description + " " + i);
+        }
+        dao.save(apps);
+        refresh();
+
+        assertEquals(description + " 1", dao.findById(Application.class, "2").getDescription());
+        List<Application> found = dao.findByIds(Application.class, "1", "2", "3");
+        assertEquals(3, found.size());
+        for (Application application : found) {
+            assertEquals(description + " " + (Integer.parseInt(application.getId()) - 1), application.getDescription());
+        }
+        assertEquals(description + " 2", dao.findByIdsAsMap(Application.class, Arrays.asList("1", "3")).get("3").getDescription());
+        for (Application application : dao.find(Application.class, null, 10).getData()) {
+            assertEquals(description + " " + (Integer.parseInt(application.getId()) - 1), application.getDescription());
+        }
+    }
+
     private void saveApplications() {
         Application app = new Application();
         app.setId("1");
@@ -213,6 +241,21 @@ public class EsDaoCrudTest extends AbstractDAOTest {
         assertTrue("LastUpdateDate date should be greater than creationDate date", indexedNodeType.getLastUpdateDate().after(indexedNodeType.getCreationDate()));
     }
 
+    @Test
+    public void partialUpdateShouldOnlyChangeGivenFields() {
+        dao.save(indexedNodeTypeTest);
+        dao.update(NodeType.class, indexedNodeTypeTest.getId(), Collections.singletonMap("description", "updated description"));
+
+        NodeType indexedNodeType = dao.findById(NodeType.class, indexedNodeTypeTest.getId());
+        assertEquals("updated description", indexedNodeType.getDescription());
+        assertEquals(indexedNodeTypeTest.getElementId(), indexedNodeType.getElementId());
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void partialUpdateOfMissingDocumentShouldFail() {
+        dao.update(NodeType.class, "missing", Collections.singletonMap("description", "updated description"));
+    }
+
     private void updateAndSaveIndexedToscaElement(final List<Tag> tags) {
         Date creationDate = indexedNodeTypeTest.getCreationDate();
         indexedNodeTypeTest.getTags().addAll(tags);
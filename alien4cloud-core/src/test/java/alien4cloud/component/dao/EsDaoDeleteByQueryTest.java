@@ -0,0 +1,84 @@
+package alien4cloud.component.dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDaoDeleteByQueryTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+
+    @Test
+    public void deleteByQueryShouldCountDocumentsDeletedByEveryBatch() {
+        saveApplications(25);
+
+        long deleted = dao.deleteByQuery(Application.class, QueryBuilders.matchAllQuery(), 10, WriteVisibility.IMMEDIATE);
+
+        Assert.assertEquals(25, deleted);
+        Assert.assertEquals(0, dao.count(Application.class, null));
+    }
+
+    @Test
+    public void deleteByQueryShouldOnlyDeleteMatchingDocuments() {
+        saveApplications(25);
+
+        long deleted = dao.deleteByQuery(Application.class, QueryBuilders.idsQuery().ids("0", "5", "10", "15", "20", "missing"), 2,
+                WriteVisibility.IMMEDIATE);
+
+        Assert.assertEquals(5, deleted);
+        Assert.assertEquals(20, dao.count(Application.class, null));
+        Assert.assertNull(dao.findById(Application.class, "5"));
+        Assert.assertNotNull(dao.findById(Application.class, "6"));
+    }
+
+    @Test
+    public void deleteByQueryAsyncShouldReportProgressAfterEveryBatch() throws Exception {
+        saveApplications(25);
+        List<Long> progress = new CopyOnWriteArrayList<>();
+
+        long deleted = dao.deleteByQueryAsync(Application.class, QueryBuilders.matchAllQuery(), 10, WriteVisibility.IMMEDIATE, progress::add).get(30,
+                TimeUnit.SECONDS);
+
+        Assert.assertEquals(25, deleted);
+        Assert.assertEquals(Lists.newArrayList(10L, 20L, 25L), progress);
+        Assert.assertEquals(0, dao.count(Application.class, null));
+    }
+
+    @Test
+    public void deleteByQueryWithoutMatchShouldDeleteNothing() {
+        saveApplications(3);
+
+        Assert.assertEquals(0, dao.deleteByQuery(Application.class, QueryBuilders.idsQuery().ids("missing"), 10, WriteVisibility.IMMEDIATE));
+        Assert.assertEquals(3, dao.count(Application.class, null));
+    }
+
+    private void saveApplications(int count) {
+        Application[] applications = IntStream.range(0, count).mapToObj(i -> {
+            Application application = new Application();
+            application.setId(String.valueOf(i));
+            application.setName("app" + i);
+            return application;
+        }).toArray(Application[]::new);
+        dao.save(applications, WriteVisibility.IMMEDIATE);
+    }
+}
@@ -0,0 +1,97 @@
+package alien4cloud.component.dao;
+
+import java.util.stream.Stream;
+
+import javax.annotation.Resource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.codahale.metrics.MetricRegistry;
+
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDaoMetricsTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private ElasticSearchDAO dao;
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Before
+    @Override
+    public void before() throws Exception {
+        super.before();
+        dao.setMetricRegistry(metricRegistry);
+    }
+
+    @Test
+    public void writesShouldBeTimedWithTheirSize() {
+        dao.save(application("1"));
+        dao.save(new Application[] { application("2"), application("3") }, WriteVisibility.IMMEDIATE);
+        dao.delete(Application.class, "1");
+
+        Assert.assertEquals(1, metricRegistry.timer("alien4cloud.dao.application.save").getCount());
+        Assert.assertTrue(metricRegistry.counter("alien4cloud.dao.application.save.bytes").getCount() > 0);
+        Assert.assertEquals(1, metricRegistry.timer("alien4cloud.dao.application.bulk").getCount());
+        Assert.assertEquals(2, metricRegistry.counter("alien4cloud.dao.application.bulk.hits").getCount());
+        Assert.assertTrue(metricRegistry.counter("alien4cloud.dao.application.bulk.bytes").getCount() > 0);
+        Assert.assertEquals(1, metricRegistry.timer("alien4cloud.dao.application.delete").getCount());
+    }
+
+    @Test
+    public void readsShouldBeTimedWithTheirHits() {
+        dao.save(new Application[] { application("1"), application("2"), application("3") }, WriteVisibility.IMMEDIATE);
+
+        dao.findById(Application.class, "1");
+        dao.findById(Application.class, "missing");
+        Assert.assertEquals(2, metricRegistry.timer("alien4cloud.dao.application.get").getCount());
+        Assert.assertEquals(1, metricRegistry.counter("alien4cloud.dao.application.get.hits").getCount());
+        Assert.assertTrue(metricRegistry.counter("alien4cloud.dao.application.get.bytes").getCount() > 0);
+
+        Assert.assertEquals(3, dao.find(Application.class, null, 10).getData().length);
+        Assert.assertEquals(1, metricRegistry.timer("alien4cloud.dao.application.search").getCount());
+        Assert.assertEquals(3, metricRegistry.counter("alien4cloud.dao.application.search.hits").getCount());
+
+        Assert.assertEquals(3, dao.count(Application.class, null));
+        Assert.assertEquals(1, metricRegistry.timer("alien4cloud.dao.application.count").getCount());
+    }
+
+    @Test
+    public void scrollRequestsShouldBeTimed() {
+        dao.save(new Application[] { application("1"), application("2"), application("3") }, WriteVisibility.IMMEDIATE);
+
+        try (Stream<Application> applications = dao.stream(Application.class, null, null, 2)) {
+            Assert.assertEquals(3, applications.count());
+        }
+
+        // the scan search returns no hits, then two pages of hits and an empty page that ends the scroll.
+        Assert.assertEquals(3, metricRegistry.timer("alien4cloud.dao.application.scroll").getCount());
+        Assert.assertEquals(3, metricRegistry.counter("alien4cloud.dao.application.scroll.hits").getCount());
+    }
+
+    @Test
+    public void slowQueriesShouldNotBeCountedWhenTheSlowQueryLogIsDisabled() {
+        dao.setSlowQueryThreshold(0);
+        dao.save(application("1"));
+        dao.find(Application.class, null, 10);
+
+        Assert.assertEquals(0, metricRegistry.meter("alien4cloud.dao.slowQueries").getCount());
+    }
+
+    private Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        application.setName("app" + id);
+        return application;
+    }
+}
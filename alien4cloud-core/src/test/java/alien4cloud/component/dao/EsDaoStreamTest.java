@@ -0,0 +1,92 @@
+package alien4cloud.component.dao;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDaoStreamTest extends AbstractDAOTest {
+    private static final String APPLICATION_INDEX = Application.class.getSimpleName().toLowerCase();
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+
+    @Test
+    public void streamShouldReturnAllDocumentsAcrossBatches() {
+        saveApplications(25);
+
+        Set<String> ids;
+        try (Stream<Application> applications = dao.stream(Application.class, null, null, 10)) {
+            ids = applications.map(Application::getId).collect(Collectors.toSet());
+        }
+
+        Assert.assertEquals(IntStream.range(0, 25).mapToObj(this::id).collect(Collectors.toSet()), ids);
+        Assert.assertEquals(0, getOpenScrollContexts());
+    }
+
+    @Test
+    public void sortedStreamShouldReturnDocumentsInOrder() {
+        saveApplications(25);
+
+        List<String> ids;
+        try (Stream<Application> applications = dao.stream(Application.class, null, null, SortBuilders.fieldSort("name").order(SortOrder.DESC), 10)) {
+            ids = applications.map(Application::getId).collect(Collectors.toList());
+        }
+
+        Assert.assertEquals(IntStream.range(0, 25).map(i -> 24 - i).mapToObj(this::id).collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void closingStreamBeforeTheEndShouldClearTheScrollContext() {
+        saveApplications(25);
+
+        try (Stream<Application> applications = dao.stream(Application.class, null, null, 10)) {
+            Iterator<Application> iterator = applications.iterator();
+            for (int i = 0; i < 3; i++) {
+                Assert.assertNotNull(iterator.next());
+            }
+            Assert.assertTrue(getOpenScrollContexts() > 0);
+        }
+
+        Assert.assertEquals(0, getOpenScrollContexts());
+    }
+
+    private long getOpenScrollContexts() {
+        return nodeClient.admin().indices().prepareStats(APPLICATION_INDEX).setSearch(true).get().getTotal().getSearch().getOpenContexts();
+    }
+
+    private void saveApplications(int count) {
+        Application[] applications = IntStream.range(0, count).mapToObj(i -> {
+            Application application = new Application();
+            application.setId(id(i));
+            application.setName("app" + id(i));
+            return application;
+        }).toArray(Application[]::new);
+        dao.save(applications, WriteVisibility.IMMEDIATE);
+    }
+
+    private String id(int index) {
+        // zero padded so that the lexical order of the ids and names matches the numerical order.
+        return String.format("%03d", index);
+    }
+}
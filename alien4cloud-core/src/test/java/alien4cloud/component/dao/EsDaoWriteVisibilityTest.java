@@ -0,0 +1,85 @@
+package alien4cloud.component.dao;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDaoWriteVisibilityTest extends AbstractDAOTest {
+    private static final String APPLICATION_INDEX = Application.class.getSimpleName().toLowerCase();
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+
+    @Test
+    public void immediateWriteShouldBeVisibleToSearch() {
+        withoutPeriodicRefresh(() -> {
+            dao.save(application("1"), WriteVisibility.IMMEDIATE);
+            Assert.assertEquals(1, dao.count(Application.class, null));
+
+            dao.delete(Application.class, "1", WriteVisibility.IMMEDIATE);
+            Assert.assertEquals(0, dao.count(Application.class, null));
+        });
+    }
+
+    @Test
+    public void eventualWriteShouldBeVisibleToGetBeforeSearch() {
+        withoutPeriodicRefresh(() -> {
+            dao.save(application("1"), WriteVisibility.EVENTUAL);
+            // get requests are realtime while search requests only see the documents of the last refresh.
+            Assert.assertNotNull(dao.findById(Application.class, "1"));
+            Assert.assertEquals(0, dao.count(Application.class, null));
+
+            refresh();
+            Assert.assertEquals(1, dao.count(Application.class, null));
+        });
+    }
+
+    @Test
+    public void barrierWritesShouldBeVisibleAfterTheBarrier() {
+        withoutPeriodicRefresh(() -> {
+            dao.save(application("1"), WriteVisibility.BARRIER);
+            dao.save(new Application[] { application("2"), application("3") }, WriteVisibility.BARRIER);
+            Assert.assertEquals(0, dao.count(Application.class, null));
+
+            dao.refreshBarrier();
+            Assert.assertEquals(3, dao.count(Application.class, null));
+        });
+    }
+
+    /**
+     * Disable the periodic refresh of the application index so documents only become visible to search requests on explicit refreshes.
+     */
+    private void withoutPeriodicRefresh(Runnable test) {
+        setRefreshInterval("-1");
+        try {
+            test.run();
+        } finally {
+            setRefreshInterval("1s");
+        }
+    }
+
+    private void setRefreshInterval(String interval) {
+        nodeClient.admin().indices().prepareUpdateSettings(APPLICATION_INDEX).setSettings(ImmutableSettings.builder().put("index.refresh_interval", interval))
+                .get();
+    }
+
+    private Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        application.setName("app" + id);
+        return application;
+    }
+}
@@ -0,0 +1,91 @@
+package alien4cloud.component.dao;
+
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import alien4cloud.dao.DataLoader;
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.model.application.Application;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class EsDataLoaderTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private ElasticSearchDAO dao;
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+
+    @Before
+    @Override
+    public void before() throws Exception {
+        super.before();
+        dao.save(new Application[] { application("1"), application("2"), application("3") }, WriteVisibility.IMMEDIATE);
+        // count the get requests sent by the loader.
+        dao.setMetricRegistry(metricRegistry);
+    }
+
+    @Test
+    public void prefetchedIdsShouldBeLoadedWithASingleRequest() {
+        DataLoader loader = new DataLoader(dao).prefetch(Application.class, Lists.newArrayList("1", "2", "missing"));
+
+        Assert.assertEquals("app1", loader.load(Application.class, "1").getName());
+        Assert.assertEquals("app2", loader.load(Application.class, "2").getName());
+        Assert.assertNull(loader.load(Application.class, "missing"));
+
+        Assert.assertEquals(1, getRequests());
+    }
+
+    @Test
+    public void loadedObjectsShouldBeMemoized() {
+        DataLoader loader = new DataLoader(dao);
+
+        Application first = loader.load(Application.class, "1");
+        Assert.assertSame(first, loader.load(Application.class, "1"));
+        Assert.assertNull(loader.load(Application.class, "missing"));
+        Assert.assertNull(loader.load(Application.class, "missing"));
+        Assert.assertEquals(2, getRequests());
+
+        // only the ids not loaded yet are fetched.
+        Map<String, Application> applications = loader.loadAll(Application.class, Lists.newArrayList("1", "2", "3", "missing"));
+        Assert.assertEquals(Sets.newHashSet("1", "2", "3"), applications.keySet());
+        Assert.assertSame(first, applications.get("1"));
+        Assert.assertEquals(3, getRequests());
+        Assert.assertEquals(3, metricRegistry.counter("alien4cloud.dao.application.get.hits").getCount());
+    }
+
+    @Test
+    public void primedObjectsShouldNotBeFetched() {
+        Application primed = application("1");
+        DataLoader loader = new DataLoader(dao).prefetch(Application.class, Lists.newArrayList("1"));
+        loader.prime(Application.class, "1", primed);
+
+        Assert.assertSame(primed, loader.load(Application.class, "1"));
+        Assert.assertEquals(0, getRequests());
+    }
+
+    private long getRequests() {
+        return metricRegistry.timer("alien4cloud.dao.application.get").getCount();
+    }
+
+    private Application application(String id) {
+        Application application = new Application();
+        application.setId(id);
+        application.setName("app" + id);
+        return application;
+    }
+}
@@ -0,0 +1,89 @@
+package alien4cloud.component.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+
+import alien4cloud.utils.FileUtil;
+
+public class ArtifactLocalRepositoryTest {
+    private Path repositoryPath;
+    private ArtifactLocalRepository repository;
+
+    @Before
+    public void init() throws IOException {
+        repositoryPath = Files.createTempDirectory("artifact-repository-test");
+        repository = new ArtifactLocalRepository();
+        repository.setRepositoryPath(repositoryPath.toString());
+        repository.init();
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtil.delete(repositoryPath);
+    }
+
+    @Test
+    public void identicalFilesShouldShareTheSameBlob() throws IOException {
+        String firstId = store("content");
+        String secondId = store("content");
+        Assert.assertNotEquals(firstId, secondId);
+        Assert.assertEquals(1, countBlobs());
+
+        repository.deleteFile(firstId);
+        Assert.assertFalse(repository.isFileExist(firstId));
+        Assert.assertEquals("content", read(secondId));
+
+        repository.deleteFile(secondId);
+        Assert.assertEquals(0, countBlobs());
+    }
+
+    @Test
+    public void referencesShouldBeRestoredOnStartup() throws IOException {
+        String id = store("content");
+        repository.init();
+        Assert.assertEquals(0, repository.collectGarbage());
+        Assert.assertEquals("content", read(id));
+
+        Files.delete(repository.resolveFile(id));
+        repository.init();
+        Assert.assertEquals(0, countBlobs());
+    }
+
+    @Test
+    public void storedFilesShouldBeReadOnly() throws IOException {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        String id = store("content");
+        Assert.assertFalse(Files.getPosixFilePermissions(repository.resolveFile(id)).contains(PosixFilePermission.OWNER_WRITE));
+
+        // files can still be replaced through the repository.
+        repository.storeFile(id, new ByteArrayInputStream("new content".getBytes(Charsets.UTF_8)));
+        Assert.assertEquals("new content", read(id));
+    }
+
+    private String store(String content) {
+        return repository.storeFile(new ByteArrayInputStream(content.getBytes(Charsets.UTF_8)));
+    }
+
+    private String read(String id) throws IOException {
+        return new String(Files.readAllBytes(repository.resolveFile(id)), Charsets.UTF_8);
+    }
+
+    private long countBlobs() throws IOException {
+        try (Stream<Path> blobs = Files.list(repositoryPath.resolve(".blobs"))) {
+            return blobs.count();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package alien4cloud.purge;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.dao.AbstractDAOTest;
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.WriteVisibility;
+import alien4cloud.model.runtime.Execution;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+@DirtiesContext
+public class PurgeServiceTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private ElasticSearchDAO dao;
+
+    @Override
+    public void clean() throws Exception {
+        super.clean();
+        dao.delete(Execution.class, QueryBuilders.matchAllQuery());
+    }
+
+    @Test
+    public void deploymentIdsQueryShouldSupportMoreIdsThanTheMaxClauseCount() {
+        List<String> deploymentIds = IntStream.range(0, 1500).mapToObj(i -> "deployment-" + i).collect(Collectors.toList());
+        Execution[] executions = deploymentIds.stream().map(this::execution).toArray(Execution[]::new);
+        dao.save(executions, WriteVisibility.IMMEDIATE);
+        dao.save(execution("other-deployment"), WriteVisibility.IMMEDIATE);
+
+        long deleted = dao.deleteByQuery(Execution.class, PurgeService.deploymentIdsQuery(deploymentIds), 1000, WriteVisibility.IMMEDIATE);
+
+        Assert.assertEquals(1500, deleted);
+        Assert.assertEquals(1, dao.count(Execution.class, null));
+        Assert.assertNotNull(dao.findById(Execution.class, "execution-other-deployment"));
+    }
+
+    private Execution execution(String deploymentId) {
+        Execution execution = new Execution();
+        execution.setId("execution-" + deploymentId);
+        execution.setDeploymentId(deploymentId);
+        return execution;
+    }
+}
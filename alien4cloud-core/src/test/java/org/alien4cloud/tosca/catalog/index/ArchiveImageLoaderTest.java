@@ -31,6 +31,7 @@ import alien4cloud.tosca.parser.ParsingException;
 import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.utils.AlienConstants;
 import alien4cloud.utils.FileUtil;
+import alien4cloud.utils.ImageQuality;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -83,6 +84,20 @@ public class ArchiveImageLoaderTest {
         checkImages(result.getResult().getNodeTypes());
     }
 
+    @Test
+    public void identicalImagesShouldBeStoredOnce() throws IOException {
+        Path imagesPath = Paths.get("target/alien/images");
+        if (!Files.exists(imagesPath)) {
+            Files.createDirectories(imagesPath);
+        }
+        byte[] imageBytes = Files.readAllBytes(PATH_TOSCA_BASE_TYPES.resolve("images/test.jpg"));
+        String imageId = imageDAO.writeSharedImage(imageBytes);
+        assertEquals(imageId, imageDAO.writeSharedImage(imageBytes));
+        Assert.assertTrue(imageDAO.isSharedImage(imageId));
+        // resized qualities are generated when requested if not generated in background yet.
+        Assert.assertNotNull(imageDAO.readImage(imageId, ImageQuality.QUALITY_32).getData());
+    }
+
     private void checkImages(Map<String, ? extends AbstractInheritableToscaType> elements) {
         boolean elementHasTags = false;
         String currentUUID = null;
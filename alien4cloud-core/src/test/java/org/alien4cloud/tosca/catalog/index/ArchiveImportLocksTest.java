@@ -0,0 +1,119 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class ArchiveImportLocksTest {
+    private ArchiveImportLocks importLocks;
+
+    @Before
+    public void init() {
+        importLocks = new ArchiveImportLocks();
+        ReflectionTestUtils.setField(importLocks, "lockStripes", 1024);
+        ReflectionTestUtils.setField(importLocks, "maxConcurrentImports", 4);
+        importLocks.init();
+    }
+
+    @Test
+    public void unrelatedArchivesShouldBeImportedConcurrently() throws Exception {
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-a", "1.0.0", null)) {
+            acquireAsync("archive-b", "1.0.0", null).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void sameArchiveImportsShouldBeSerialized() throws Exception {
+        CompletableFuture<Void> future;
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-a", "1.0.0", null)) {
+            future = acquireAsync("archive-a", "1.0.0", null);
+            assertBlocked(future);
+        }
+        future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void archiveImportShouldWaitForDependencyImport() throws Exception {
+        CompletableFuture<Void> future;
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-a", "1.0.0", null)) {
+            future = acquireAsync("archive-b", "1.0.0", Sets.newHashSet(new CSARDependency("archive-a", "1.0.0")));
+            assertBlocked(future);
+        }
+        future.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void nestedImportShouldNotWaitForASlot() {
+        ReflectionTestUtils.setField(importLocks, "maxConcurrentImports", 1);
+        importLocks.init();
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-a", "1.0.0", null)) {
+            try (ArchiveImportLocks.ImportLock nestedLock = importLocks.acquire("archive-b", "1.0.0", null)) {
+                Assert.assertNotNull(nestedLock);
+            }
+        }
+    }
+
+    @Test
+    public void nestedImportShouldNotWaitForArchiveLocksWhileHoldingTypesLocks() throws Exception {
+        CountDownLatch otherImportLocked = new CountDownLatch(1);
+        CountDownLatch typesLocked = new CountDownLatch(1);
+        // the other import holds the lock of archive-b and then waits for the lock of the type defined by the current import.
+        CompletableFuture<Void> otherImport = CompletableFuture.runAsync(() -> {
+            try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-b", "1.0.0", null)) {
+                otherImportLocked.countDown();
+                Uninterruptibles.awaitUninterruptibly(typesLocked);
+                importLocks.lockTypes(Sets.newHashSet("type")).close();
+            }
+        });
+        Assert.assertTrue(otherImportLocked.await(5, TimeUnit.SECONDS));
+
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-a", "1.0.0", null);
+                ArchiveImportLocks.TypesLock typesLock = importLocks.lockTypes(Sets.newHashSet("type"))) {
+            typesLocked.countDown();
+            assertBlocked(otherImport);
+            try {
+                // waiting for the lock of archive-b here would deadlock.
+                importLocks.acquire("archive-b", "1.0.0", null).close();
+                Assert.fail("Nested import should be rejected as it requires archive locks not held by the current import.");
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        otherImport.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void nestedImportShouldReuseLocksHeldWhileHoldingTypesLocks() {
+        try (ArchiveImportLocks.ImportLock lock = importLocks.acquire("archive-a", "1.0.0", null);
+                ArchiveImportLocks.TypesLock typesLock = importLocks.lockTypes(Sets.newHashSet("type"))) {
+            try (ArchiveImportLocks.ImportLock nestedLock = importLocks.acquire("archive-a", "1.0.0", null);
+                    ArchiveImportLocks.TypesLock nestedTypesLock = importLocks.lockTypes(Sets.newHashSet("type"))) {
+                Assert.assertNotNull(nestedTypesLock);
+            }
+        }
+    }
+
+    private CompletableFuture<Void> acquireAsync(String name, String version, Set<CSARDependency> dependencies) {
+        return CompletableFuture.runAsync(() -> importLocks.acquire(name, version, dependencies).close());
+    }
+
+    private void assertBlocked(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get(200, TimeUnit.MILLISECONDS);
+            Assert.fail("Import should wait for the locks held by the other import.");
+        } catch (TimeoutException e) {
+            // expected
+        }
+    }
+}
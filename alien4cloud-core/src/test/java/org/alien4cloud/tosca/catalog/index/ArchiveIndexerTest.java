@@ -0,0 +1,78 @@
+package org.alien4cloud.tosca.catalog.index;
+
+import java.util.List;
+
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.alien4cloud.tosca.utils.MetaPropertyFeeder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Matchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+import alien4cloud.dao.model.BulkSaveResult;
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingError;
+import alien4cloud.tosca.parser.ParsingErrorLevel;
+import alien4cloud.tosca.parser.impl.ErrorCode;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ArchiveIndexerTest {
+    @Mock
+    private IToscaTypeIndexerService indexerService;
+    @Mock
+    private MetaPropertyFeeder metaFeeder;
+    @Mock
+    private CsarService csarService;
+    @InjectMocks
+    private ArchiveIndexer archiveIndexer;
+
+    @Test
+    public void typesThatFailedToBeIndexedShouldBeReportedAsParsingErrors() {
+        ArchiveRoot root = new ArchiveRoot();
+        root.setArchive(new Csar("archive", "1.0.0"));
+        root.getArchive().setHash("hash");
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId("failing");
+        nodeType.setArchiveVersion("1.0.0");
+        root.getNodeTypes().put(nodeType.getElementId(), nodeType);
+        Mockito.when(indexerService.indexInheritableElements(Matchers.anyCollection(), Matchers.anyCollection()))
+                .thenReturn(new BulkSaveResult(0, ImmutableMap.of("failing:1.0.0", "immense term"), 1, 100, 1));
+
+        List<ParsingError> parsingErrors = Lists.newArrayList();
+        ReflectionTestUtils.invokeMethod(archiveIndexer, "performIndexing", root, null, null, parsingErrors);
+
+        Assert.assertEquals(1, parsingErrors.size());
+        Assert.assertEquals(ParsingErrorLevel.ERROR, parsingErrors.get(0).getErrorLevel());
+        Assert.assertEquals(ErrorCode.TOSCA_TYPE_INDEXING_FAILED, parsingErrors.get(0).getErrorCode());
+        Assert.assertEquals("immense term", parsingErrors.get(0).getProblem());
+        Assert.assertEquals("failing:1.0.0", parsingErrors.get(0).getNote());
+        // the hash is cleared so the same content can be uploaded again to index the missing types.
+        Assert.assertNull(root.getArchive().getHash());
+        Mockito.verify(csarService).save(root.getArchive());
+    }
+
+    @Test
+    public void successfulIndexingShouldKeepTheArchiveHash() {
+        ArchiveRoot root = new ArchiveRoot();
+        root.setArchive(new Csar("archive", "1.0.0"));
+        root.getArchive().setHash("hash");
+        Mockito.when(indexerService.indexInheritableElements(Matchers.anyCollection(), Matchers.anyCollection()))
+                .thenReturn(new BulkSaveResult(0, ImmutableMap.of(), 0, 0, 0));
+
+        List<ParsingError> parsingErrors = Lists.newArrayList();
+        ReflectionTestUtils.invokeMethod(archiveIndexer, "performIndexing", root, null, null, parsingErrors);
+
+        Assert.assertTrue(parsingErrors.isEmpty());
+        Assert.assertEquals("hash", root.getArchive().getHash());
+        Mockito.verify(csarService, Mockito.never()).save(Matchers.any(Csar.class));
+    }
+}
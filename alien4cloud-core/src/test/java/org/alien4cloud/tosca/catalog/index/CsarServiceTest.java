@@ -6,6 +6,8 @@ import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.alien4cloud.tosca.model.types.NodeType;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Assert;
 import org.junit.Test;
@@ -57,4 +59,23 @@ public class CsarServiceTest {
         csars = csarService.getDependantCsars("toto", "2.0.0");
         Assert.assertEquals(2, csars.length);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void deleteCsarTopologyShouldKeepArchiveTypes() {
+        Csar csar = new Csar("archive", "1.0.0-SNAPSHOT");
+        Topology topology = new Topology();
+        topology.setArchiveName(csar.getName());
+        topology.setArchiveVersion(csar.getVersion());
+        alienDao.save(topology);
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId("element");
+        nodeType.setArchiveName(csar.getName());
+        nodeType.setArchiveVersion(csar.getVersion());
+        alienDao.save(nodeType);
+
+        csarService.deleteCsarTopology(csar);
+
+        Assert.assertNull(alienDao.findById(Topology.class, csar.getId()));
+        Assert.assertNotNull(alienDao.findById(NodeType.class, nodeType.getId()));
+    }
+}
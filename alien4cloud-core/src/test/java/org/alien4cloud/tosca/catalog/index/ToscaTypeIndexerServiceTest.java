@@ -1,17 +1,27 @@
 package org.alien4cloud.tosca.catalog.index;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.Map;
 
 import javax.annotation.Resource;
+import javax.imageio.ImageIO;
 import javax.inject.Inject;
 
 import alien4cloud.dao.IESMetaPropertiesSearchContextBuilder;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.model.BulkSaveResult;
+import alien4cloud.images.ImageData;
 import alien4cloud.metaproperty.MPSearchContextBuilderMock;
 import alien4cloud.model.common.Tag;
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
 import org.alien4cloud.tosca.model.types.NodeType;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.junit.Assert;
@@ -81,6 +91,8 @@ public class ToscaTypeIndexerServiceTest {
 
     @Inject
     private ToscaTypeIndexerService toscaTypeIndexerService;
+    @Inject
+    private ImageDAO imageDao;
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDao;
 
@@ -112,4 +124,80 @@ public class ToscaTypeIndexerServiceTest {
         hasElementWithTag = (boolean) method.invoke(toscaTypeIndexerService, NodeType.class, "icon", "my_icon");
         Assert.assertTrue(hasElementWithTag);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void updateShouldOnlyIndexChangedElementsAndDeleteRemovedOnes() {
+        alienDao.delete(NodeType.class, QueryBuilders.matchAllQuery());
+        toscaTypeIndexerService.indexInheritableElements(Lists.newArrayList(nodeType("unchanged", "description", null),
+                nodeType("changed", "description", null), nodeType("removed", "description", null)), null);
+        Map<String, AbstractToscaType> previousElements = toscaTypeIndexerService.getArchiveElements("archive", "1.0.0");
+        Date unchangedUpdateDate = previousElements.get("unchanged:1.0.0").getLastUpdateDate();
+
+        NodeType unchanged = nodeType("unchanged", "description", null);
+        BulkSaveResult result = toscaTypeIndexerService.updateInheritableElements(previousElements,
+                Lists.newArrayList(unchanged, nodeType("changed", "new description", null), nodeType("added", "description", null)), null);
+
+        // only the changed and added elements are indexed.
+        Assert.assertEquals(2, result.getSaved());
+        Assert.assertFalse(result.hasFailures());
+        Assert.assertEquals(unchangedUpdateDate, unchanged.getLastUpdateDate());
+        Map<String, AbstractToscaType> elements = toscaTypeIndexerService.getArchiveElements("archive", "1.0.0");
+        Assert.assertEquals(Sets.newHashSet("unchanged:1.0.0", "changed:1.0.0", "added:1.0.0"), elements.keySet());
+        Assert.assertEquals(unchangedUpdateDate, elements.get("unchanged:1.0.0").getLastUpdateDate());
+        Assert.assertEquals("new description", elements.get("changed:1.0.0").getDescription());
+    }
+
+    @Test
+    public void indexShouldReportElementsThatFailedToBeIndexed() {
+        alienDao.delete(NodeType.class, QueryBuilders.matchAllQuery());
+        NodeType failing = nodeType("failing", "description", null);
+        // terms longer than 32766 bytes cannot be indexed.
+        failing.setWorkspace(Strings.repeat("a", 40000));
+
+        BulkSaveResult result = toscaTypeIndexerService.indexInheritableElements(Lists.newArrayList(nodeType("indexed", "description", null), failing),
+                null);
+
+        Assert.assertEquals(1, result.getSaved());
+        Assert.assertEquals(Sets.newHashSet("failing:1.0.0"), result.getFailures().keySet());
+        Assert.assertEquals(Sets.newHashSet("indexed:1.0.0"), toscaTypeIndexerService.getArchiveElements("archive", "1.0.0").keySet());
+    }
+
+    @Test
+    public void updateShouldDeleteIconsNotUsedAnymore() throws IOException {
+        alienDao.delete(NodeType.class, QueryBuilders.matchAllQuery());
+        String removedIcon = imageDao.writeImage(png());
+        String replacedIcon = imageDao.writeImage(png());
+        String sharedIcon = imageDao.writeImage(png());
+        toscaTypeIndexerService.indexInheritableElements(Lists.newArrayList(nodeType("removed", "description", removedIcon),
+                nodeType("changed", "description", replacedIcon), nodeType("kept", "description", sharedIcon),
+                nodeType("removed-shared", "description", sharedIcon)), null);
+        Map<String, AbstractToscaType> previousElements = toscaTypeIndexerService.getArchiveElements("archive", "1.0.0");
+
+        String newIcon = imageDao.writeImage(png());
+        toscaTypeIndexerService.updateInheritableElements(previousElements,
+                Lists.newArrayList(nodeType("changed", "description", newIcon), nodeType("kept", "description", sharedIcon)), null);
+
+        Assert.assertFalse(imageDao.exist(ImageData.class, removedIcon));
+        Assert.assertFalse(imageDao.exist(ImageData.class, replacedIcon));
+        Assert.assertTrue(imageDao.exist(ImageData.class, sharedIcon));
+        Assert.assertTrue(imageDao.exist(ImageData.class, newIcon));
+    }
+
+    private NodeType nodeType(String elementId, String description, String icon) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(elementId);
+        nodeType.setArchiveName("archive");
+        nodeType.setArchiveVersion("1.0.0");
+        nodeType.setDescription(description);
+        if (icon != null) {
+            nodeType.setTags(Lists.newArrayList(new Tag("icon", icon)));
+        }
+        return nodeType;
+    }
+
+    private byte[] png() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", bos);
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,79 @@
+package org.alien4cloud.tosca.editor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.templates.Topology;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+public class EditionContextManagerTest {
+    private static final String FIRST_TOPOLOGY_ID = "first-topology:1.0.0-SNAPSHOT";
+    private static final String SECOND_TOPOLOGY_ID = "second-topology:1.0.0-SNAPSHOT";
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private EditionContextManager editionContextManager;
+
+    @Before
+    public void init() {
+        editionContextManager = new EditionContextManager();
+        editionContextManager.setMetricRegistry(metricRegistry);
+        editionContextManager.setup();
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void differentTopologiesCanBeEditedConcurrently() throws Exception {
+        try (EditionContextManager.TopologyLock lock = editionContextManager.lock(FIRST_TOPOLOGY_ID)) {
+            Future<?> secondEdition = executor.submit(() -> editionContextManager.lock(SECOND_TOPOLOGY_ID).close());
+            secondEdition.get(5, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(0, metricRegistry.meter("alien4cloud.editor.lock.contended").getCount());
+        Assert.assertEquals(0, metricRegistry.timer("alien4cloud.editor.lock.wait").getCount());
+    }
+
+    @Test
+    public void editionsOfTheSameTopologyAreSerialized() throws Exception {
+        assertSerialized(FIRST_TOPOLOGY_ID, FIRST_TOPOLOGY_ID);
+        Assert.assertEquals(1, metricRegistry.meter("alien4cloud.editor.lock.contended").getCount());
+        Assert.assertEquals(1, metricRegistry.timer("alien4cloud.editor.lock.wait").getCount());
+    }
+
+    @Test
+    public void synchronizationCheckUsesTheLockOfTheEditedTopology() throws Exception {
+        // the edition context is loaded under the lock of the topology id while the synchronization check locks the id of the archive.
+        Topology topology = new Topology();
+        topology.setArchiveName("first-topology");
+        topology.setArchiveVersion("1.0.0-SNAPSHOT");
+        Csar csar = new Csar("first-topology", "1.0.0-SNAPSHOT");
+        assertSerialized(topology.getId(), csar.getId());
+    }
+
+    private void assertSerialized(String lockedId, String waitingId) throws Exception {
+        CountDownLatch acquired = new CountDownLatch(1);
+        Future<?> waiting;
+        try (EditionContextManager.TopologyLock lock = editionContextManager.lock(lockedId)) {
+            waiting = executor.submit(() -> {
+                try (EditionContextManager.TopologyLock waitingLock = editionContextManager.lock(waitingId)) {
+                    acquired.countDown();
+                }
+            });
+            Assert.assertFalse("The lock must not be acquired while held by another edition", acquired.await(500, TimeUnit.MILLISECONDS));
+        }
+        waiting.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(0, acquired.getCount());
+    }
+}
@@ -0,0 +1,120 @@
+package alien4cloud.dao;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Metrics of the elasticsearch requests performed by a DAO.
+ *
+ * For every elasticsearch type and operation (save, bulk, get, search, count, delete, update) the following metrics are registered:
+ * <ul>
+ * <li><code>alien4cloud.dao.[type].[operation]</code>: timer of the requests,</li>
+ * <li><code>alien4cloud.dao.[type].[operation].hits</code>: counter of the documents returned by the requests,</li>
+ * <li><code>alien4cloud.dao.[type].[operation].bytes</code>: counter of the source bytes read or written by the requests.</li>
+ * </ul>
+ * Requests that take longer than the slow query threshold are counted in <code>alien4cloud.dao.slowQueries</code> and logged (with their query when
+ * available) in the <code>alien4cloud.dao.SlowQueryLog</code> logger.
+ */
+public class DaoMetrics {
+    private static final String PREFIX = "alien4cloud.dao";
+    private static final Logger SLOW_QUERY_LOG = LoggerFactory.getLogger("alien4cloud.dao.SlowQueryLog");
+
+    /** Registry used until the application registry is injected, so DAOs can be used in contexts that does not configure metrics. */
+    private volatile MetricRegistry metricRegistry = new MetricRegistry();
+    private volatile long slowQueryThresholdNanos;
+
+    /**
+     * Set the registry in which to register metrics.
+     *
+     * @param metricRegistry The application metric registry.
+     */
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    /**
+     * Configure the slow query log.
+     *
+     * @param thresholdMs Requests that take longer than this threshold (in milliseconds) are logged, 0 disables the slow query log.
+     */
+    public void setSlowQueryThreshold(long thresholdMs) {
+        this.slowQueryThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(thresholdMs, 0));
+    }
+
+    /**
+     * Start timing a request.
+     *
+     * @param type The elasticsearch type (or index when the request targets multiple types) of the request.
+     * @param operation The operation performed by the request.
+     * @return A context to stop once the request is completed.
+     */
+    public RequestContext start(String type, String operation) {
+        return new RequestContext(type, operation, metricRegistry.timer(name(PREFIX, type, operation)).time());
+    }
+
+    /**
+     * Timing context of a single request.
+     */
+    public class RequestContext {
+        private final String type;
+        private final String operation;
+        private final Timer.Context timerContext;
+
+        private RequestContext(String type, String operation, Timer.Context timerContext) {
+            this.type = type;
+            this.operation = operation;
+            this.timerContext = timerContext;
+        }
+
+        /**
+         * Record the number of documents returned by the request.
+         *
+         * @param count The number of documents.
+         * @return this context.
+         */
+        public RequestContext hits(long count) {
+            metricRegistry.counter(name(PREFIX, type, operation, "hits")).inc(count);
+            return this;
+        }
+
+        /**
+         * Record the number of source bytes read or written by the request.
+         *
+         * @param count The number of bytes.
+         * @return this context.
+         */
+        public RequestContext bytes(long count) {
+            metricRegistry.counter(name(PREFIX, type, operation, "bytes")).inc(count);
+            return this;
+        }
+
+        /**
+         * Stop timing the request.
+         */
+        public void stop() {
+            stop(null);
+        }
+
+        /**
+         * Stop timing the request and log it if it is slower than the slow query threshold.
+         *
+         * @param query Supplier of the query (as json) to log, only called if the request is slow.
+         */
+        public void stop(Supplier<String> query) {
+            long elapsed = timerContext.stop();
+            if (slowQueryThresholdNanos > 0 && elapsed > slowQueryThresholdNanos) {
+                metricRegistry.meter(name(PREFIX, "slowQueries")).mark();
+                SLOW_QUERY_LOG.warn("Slow {} on type [ {} ] took {} ms{}", operation, type, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        query == null ? "" : ": " + query.get());
+            }
+        }
+    }
+}
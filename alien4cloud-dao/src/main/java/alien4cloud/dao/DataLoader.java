@@ -0,0 +1,123 @@
+package alien4cloud.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Request scoped loader that coalesces find by id requests.
+ *
+ * Ids registered through {@link #prefetch(Class, Collection)} are kept pending and resolved together, with a single multi-get per type, the first time an
+ * object of the type is loaded. Every loaded object (as well as ids that does not match any object) is memoized for the lifetime of the loader so a loader
+ * should be created for a single request (or operation) and must not be shared between threads.
+ */
+public class DataLoader {
+    private final IGenericIdDAO dao;
+    /** Ids registered but not yet loaded, by type. */
+    private final Map<Class<?>, Set<String>> pendingIds = Maps.newHashMap();
+    /** Loaded objects by id (null values for ids that does not match any object), by type. */
+    private final Map<Class<?>, Map<String, Object>> loaded = Maps.newHashMap();
+
+    /**
+     * Create a new loader.
+     *
+     * @param dao The dao to use to fetch objects.
+     */
+    public DataLoader(IGenericIdDAO dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Register ids to load with the next request for the given type. No request is actually sent until an object of the type is loaded.
+     *
+     * @param clazz The class of the objects to load.
+     * @param ids The ids of the objects to load.
+     * @return this loader.
+     */
+    public DataLoader prefetch(Class<?> clazz, Collection<String> ids) {
+        Map<String, Object> loadedObjects = getLoaded(clazz);
+        Set<String> pending = pendingIds.computeIfAbsent(clazz, key -> Sets.newHashSet());
+        for (String id : ids) {
+            if (id != null && !loadedObjects.containsKey(id)) {
+                pending.add(id);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get an object from its id. If the object is not loaded yet it is fetched together with all the pending ids of the same type.
+     *
+     * @param clazz The class of the object to load.
+     * @param id The id of the object to load.
+     * @return The object matching the id or null if no object matches the id.
+     */
+    public <T> T load(Class<T> clazz, String id) {
+        if (id == null) {
+            return null;
+        }
+        Map<String, Object> loadedObjects = getLoaded(clazz);
+        if (!loadedObjects.containsKey(id)) {
+            prefetch(clazz, Collections.singleton(id));
+            dispatch(clazz);
+        }
+        return clazz.cast(loadedObjects.get(id));
+    }
+
+    /**
+     * Get multiple objects from their ids, objects that are not loaded yet are fetched together with all the pending ids of the same type.
+     *
+     * @param clazz The class of the objects to load.
+     * @param ids The ids of the objects to load.
+     * @return A map of id to object for all the ids that match an object.
+     */
+    public <T> Map<String, T> loadAll(Class<T> clazz, Collection<String> ids) {
+        prefetch(clazz, ids);
+        dispatch(clazz);
+        Map<String, Object> loadedObjects = getLoaded(clazz);
+        Map<String, T> result = Maps.newHashMap();
+        for (String id : ids) {
+            Object data = loadedObjects.get(id);
+            if (data != null) {
+                result.put(id, clazz.cast(data));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Register an object already available to the caller so it is not fetched again.
+     *
+     * @param clazz The class of the object.
+     * @param id The id of the object.
+     * @param data The object.
+     */
+    public <T> void prime(Class<T> clazz, String id, T data) {
+        getLoaded(clazz).put(id, data);
+        Set<String> pending = pendingIds.get(clazz);
+        if (pending != null) {
+            pending.remove(id);
+        }
+    }
+
+    private Map<String, Object> getLoaded(Class<?> clazz) {
+        return loaded.computeIfAbsent(clazz, key -> Maps.newHashMap());
+    }
+
+    private void dispatch(Class<?> clazz) {
+        Set<String> pending = pendingIds.remove(clazz);
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        Map<String, ?> found = dao.findByIdsAsMap(clazz, pending);
+        Map<String, Object> loadedObjects = getLoaded(clazz);
+        for (String id : pending) {
+            // memoize missing ids as well so they are not fetched again.
+            loadedObjects.put(id, found.get(id));
+        }
+    }
+}
@@ -4,17 +4,36 @@ import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.action.update.UpdateRequestBuilder;
 import org.elasticsearch.common.collect.Lists;
+import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.mapping.MappingBuilder;
 
+import com.google.common.collect.Sets;
+
+import alien4cloud.dao.model.BulkSaveResult;
 import alien4cloud.exception.IndexingServiceException;
+import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.common.IDatableResource;
 import lombok.SneakyThrows;
 
@@ -24,11 +43,18 @@ import lombok.SneakyThrows;
  * @author luc boutier
  */
 public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericIdDAO {
+    /** Indices written with a BARRIER visibility and not refreshed yet. */
+    private final Set<String> dirtyIndices = Sets.newConcurrentHashSet();
 
     @Override
     public <T> boolean exist(Class<T> clazz, String id) {
-        return getClient().prepareGet(getIndexForType(clazz), MappingBuilder.indexTypeFromClass(clazz), id).setFields(new String[0]).execute().actionGet()
-                .isExists();
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(clazz), "exist");
+        try {
+            return getClient().prepareGet(getIndexForType(clazz), MappingBuilder.indexTypeFromClass(clazz), id).setFields(new String[0]).execute()
+                    .actionGet().isExists();
+        } finally {
+            metricsContext.stop();
+        }
     }
 
     /**
@@ -48,56 +74,399 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
     }
 
     @Override
-    @SneakyThrows({ IOException.class })
     public <T> void save(T data) {
+        save(data, getWriteVisibility(data.getClass()));
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void save(T data, WriteVisibility visibility) {
         String indexName = getIndexForType(data.getClass());
         String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
         updateDate(data);
-        String json = getJsonMapper().writeValueAsString(data);
-        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(true).execute().actionGet();
+        byte[] json = writeValueAsBytes(data);
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "save").bytes(json.length);
+        try {
+            getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(isRefreshRequired(visibility, indexName))
+                    .execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
     }
 
     @Override
-    @SneakyThrows({ IOException.class })
     public <T> void save(T[] entities) {
         if (entities == null || entities.length == 0) {
             return;
         }
-        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
+        // use the strongest visibility of the saved entities
+        WriteVisibility visibility = null;
+        for (T data : entities) {
+            WriteVisibility dataVisibility = getWriteVisibility(data.getClass());
+            if (visibility == null || dataVisibility.ordinal() < visibility.ordinal()) {
+                visibility = dataVisibility;
+            }
+        }
+        save(entities, visibility);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void save(T[] entities, WriteVisibility visibility) {
+        if (entities == null || entities.length == 0) {
+            return;
+        }
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        boolean refresh = false;
+        long bytes = 0;
         for (T data : entities) {
             String indexName = getIndexForType(data.getClass());
             String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+            refresh = isRefreshRequired(visibility, indexName) || refresh;
 
             updateDate(data);
-            String json = getJsonMapper().writeValueAsString(data);
+            byte[] json = writeValueAsBytes(data);
+            bytes += json.length;
             bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
         }
-        bulkRequestBuilder.execute().actionGet();
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(entities[0].getClass()), "bulk").hits(entities.length).bytes(bytes);
+        try {
+            bulkRequestBuilder.setRefresh(refresh).execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> BulkSaveResult save(Collection<T> entities, int maxActions, long maxBytes, WriteVisibility visibility) {
+        long start = System.currentTimeMillis();
+        Map<String, String> failures = new HashMap<>();
+        Set<String> indices = Sets.newHashSet();
+        long saved = 0;
+        long totalBytes = 0;
+        int requests = 0;
+
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        long bytes = 0;
+        Map<String, BulkMetrics> bulkMetrics = new HashMap<>();
+        for (T data : entities) {
+            String indexName = getIndexForType(data.getClass());
+            String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+            indices.add(indexName);
+
+            updateDate(data);
+            byte[] json = writeValueAsBytes(data);
+            if (bulkRequestBuilder.numberOfActions() > 0 && (bulkRequestBuilder.numberOfActions() >= maxActions || bytes + json.length > maxBytes)) {
+                saved += executeBulk(bulkRequestBuilder, bulkMetrics, failures);
+                requests++;
+                bulkRequestBuilder = getClient().prepareBulk();
+                bytes = 0;
+            }
+            bulkMetrics.computeIfAbsent(getMetricsType(data.getClass()), type -> new BulkMetrics()).add(json.length);
+            bytes += json.length;
+            totalBytes += json.length;
+            bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
+        }
+        if (bulkRequestBuilder.numberOfActions() > 0) {
+            saved += executeBulk(bulkRequestBuilder, bulkMetrics, failures);
+            requests++;
+        }
+
+        // refresh the indices only once all the bulk requests are done.
+        boolean refresh = false;
+        for (String indexName : indices) {
+            refresh = isRefreshRequired(visibility, indexName) || refresh;
+        }
+        if (refresh) {
+            getClient().admin().indices().prepareRefresh(indices.toArray(new String[indices.size()])).execute().actionGet();
+        }
+        return new BulkSaveResult(saved, failures, requests, totalBytes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Execute a bulk request and collect the failure of every failed item.
+     *
+     * @param bulkMetrics The number of documents and bytes of the request by metrics type, the request is timed under every type it contains. The map is
+     *            cleared once the metrics are recorded.
+     * @return The number of items successfully executed.
+     */
+    private long executeBulk(BulkRequestBuilder bulkRequestBuilder, Map<String, BulkMetrics> bulkMetrics, Map<String, String> failures) {
+        List<DaoMetrics.RequestContext> metricsContexts = new ArrayList<>(bulkMetrics.size());
+        for (Map.Entry<String, BulkMetrics> typeMetrics : bulkMetrics.entrySet()) {
+            metricsContexts.add(getMetrics().start(typeMetrics.getKey(), "bulk").hits(typeMetrics.getValue().hits).bytes(typeMetrics.getValue().bytes));
+        }
+        bulkMetrics.clear();
+        BulkResponse bulkResponse;
+        try {
+            bulkResponse = bulkRequestBuilder.execute().actionGet();
+        } finally {
+            metricsContexts.forEach(DaoMetrics.RequestContext::stop);
+        }
+        long succeeded = 0;
+        for (BulkItemResponse item : bulkResponse.getItems()) {
+            if (item.isFailed()) {
+                ESIndexMapper.getLog().debug("Failed to save document in index [ {} ], type [ {} ], for Id [ {} ]: {}", item.getIndex(), item.getType(),
+                        item.getId(), item.getFailureMessage());
+                failures.put(item.getId(), item.getFailureMessage());
+            } else {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> CompletableFuture<Void> saveAsync(T data) {
+        String indexName = getIndexForType(data.getClass());
+        String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+
+        updateDate(data);
+        byte[] json = writeValueAsBytes(data);
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "save").bytes(json.length);
+        return executeAsync(getClient().prepareIndex(indexName, typeName).setSource(json)
+                .setRefresh(isRefreshRequired(getWriteVisibility(data.getClass()), indexName)).setListenerThreaded(true).execute(), metricsContext,
+                response -> null);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> CompletableFuture<Void> bulkAsync(T[] entities) {
+        if (entities == null || entities.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        boolean refresh = false;
+        long bytes = 0;
+        for (T data : entities) {
+            String indexName = getIndexForType(data.getClass());
+            String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+            refresh = isRefreshRequired(getWriteVisibility(data.getClass()), indexName) || refresh;
+
+            updateDate(data);
+            byte[] json = writeValueAsBytes(data);
+            bytes += json.length;
+            bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
+        }
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(entities[0].getClass()), "bulk").hits(entities.length).bytes(bytes);
+        return executeAsync(bulkRequestBuilder.setRefresh(refresh).setListenerThreaded(true).execute(), metricsContext, response -> {
+            if (response.hasFailures()) {
+                throw new IndexingServiceException("Failed to index some entities: " + response.buildFailureMessage());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Register a response mapper on an elasticsearch request future and expose the result as a {@link CompletableFuture}. The calling thread is never
+     * blocked, the mapper (and dependent stages) are executed by the thread that notifies the listener.
+     *
+     * @param actionFuture The future of an elasticsearch request already sent to the cluster.
+     * @param metricsContext The metrics context of the request, stopped once the response (or failure) is received.
+     * @param mapper The function that converts the elasticsearch response into the expected result.
+     * @return A future completed with the converted response or exceptionally (with an {@link IndexingServiceException}) if the request or the conversion
+     *         failed.
+     */
+    protected <R, T> CompletableFuture<T> executeAsync(ListenableActionFuture<R> actionFuture, DaoMetrics.RequestContext metricsContext,
+            ResponseMapper<R, T> mapper) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        actionFuture.addListener(new ActionListener<R>() {
+            @Override
+            public void onResponse(R response) {
+                metricsContext.stop();
+                try {
+                    future.complete(mapper.map(response));
+                } catch (IndexingServiceException e) {
+                    future.completeExceptionally(e);
+                } catch (IOException | RuntimeException e) {
+                    future.completeExceptionally(new IndexingServiceException("Failed to process elasticsearch response.", e));
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                metricsContext.stop();
+                ESIndexMapper.getLog().error("Asynchronous elasticsearch request failed.", e);
+                future.completeExceptionally(new IndexingServiceException("Asynchronous elasticsearch request failed.", e));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Converts an elasticsearch response into a DAO result.
+     */
+    protected interface ResponseMapper<R, T> {
+        T map(R response) throws IOException;
+    }
+
+    /**
+     * Check if a write request must refresh the index and register the index for the next barrier if required.
+     *
+     * @param visibility The visibility of the write request.
+     * @param indexName The index in which the request writes.
+     * @return True if the write request must refresh the index.
+     */
+    protected boolean isRefreshRequired(WriteVisibility visibility, String indexName) {
+        if (visibility == WriteVisibility.BARRIER) {
+            dirtyIndices.add(indexName);
+        }
+        return visibility == null || visibility == WriteVisibility.IMMEDIATE;
+    }
+
+    @Override
+    public void refreshBarrier() {
+        if (dirtyIndices.isEmpty()) {
+            return;
+        }
+        Set<String> indices = Sets.newHashSet(dirtyIndices);
+        dirtyIndices.removeAll(indices);
+        getClient().admin().indices().prepareRefresh(indices.toArray(new String[indices.size()])).execute().actionGet();
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public void update(Class<?> clazz, String id, Map<String, Object> partialDocument) {
+        assertIdNotNullFor(id, "update");
+        String indexName = getIndexForType(clazz);
+        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        byte[] partialJson = toPartialDocument(clazz, partialDocument);
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "update").bytes(partialJson.length);
+        try {
+            executeUpdate(getClient().prepareUpdate(indexName, typeName, id).setDoc(partialJson)
+                    .setRefresh(isRefreshRequired(getWriteVisibility(clazz), indexName)));
+        } finally {
+            metricsContext.stop();
+        }
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> void upsert(Class<T> clazz, String id, Map<String, Object> partialDocument, T upsertEntity) {
+        assertIdNotNullFor(id, "upsert");
+        String indexName = getIndexForType(clazz);
+        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        updateDate(upsertEntity);
+        byte[] partialJson = toPartialDocument(clazz, partialDocument);
+        byte[] upsertJson = writeValueAsBytes(upsertEntity);
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "update").bytes(partialJson.length + upsertJson.length);
+        try {
+            executeUpdate(getClient().prepareUpdate(indexName, typeName, id).setDoc(partialJson).setUpsert(upsertJson)
+                    .setRefresh(isRefreshRequired(getWriteVisibility(clazz), indexName)));
+        } finally {
+            metricsContext.stop();
+        }
+    }
+
+    /**
+     * Execute an update request. When going through the transport client the missing document exception is wrapped in a remote transport exception so the
+     * cause has to be unwrapped to detect it.
+     */
+    private void executeUpdate(UpdateRequestBuilder updateRequestBuilder) {
+        UpdateRequest request = updateRequestBuilder.request();
+        try {
+            updateRequestBuilder.execute().actionGet();
+        } catch (ElasticsearchException e) {
+            if (ExceptionsHelper.unwrapCause(e) instanceof DocumentMissingException) {
+                throw new NotFoundException("No document to update in index [ " + request.index() + " ], type [ " + request.type() + " ], for Id [ "
+                        + request.id() + " ].", e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public long update(Class<?> clazz, Map<String, Map<String, Object>> partialDocumentsById) {
+        if (partialDocumentsById == null || partialDocumentsById.isEmpty()) {
+            return 0;
+        }
+        String indexName = getIndexForType(clazz);
+        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(isRefreshRequired(getWriteVisibility(clazz), indexName));
+        for (Map.Entry<String, Map<String, Object>> partialDocumentEntry : partialDocumentsById.entrySet()) {
+            assertIdNotNullFor(partialDocumentEntry.getKey(), "update");
+            bulkRequestBuilder.add(getClient().prepareUpdate(indexName, typeName, partialDocumentEntry.getKey())
+                    .setDoc(toPartialDocument(clazz, partialDocumentEntry.getValue())));
+        }
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "bulk").hits(partialDocumentsById.size());
+        BulkResponse bulkResponse;
+        try {
+            bulkResponse = bulkRequestBuilder.execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
+        long updated = 0;
+        for (BulkItemResponse item : bulkResponse.getItems()) {
+            if (item.isFailed()) {
+                ESIndexMapper.getLog().debug("Failed to update document in index [ {} ], type [ {} ], for Id [ {} ]: {}", indexName, typeName, item.getId(),
+                        item.getFailureMessage());
+            } else {
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Serialize a partial document using the DAO json mapper so values are stored with the same format as when saving a whole entity.
+     */
+    private byte[] toPartialDocument(Class<?> clazz, Map<String, Object> partialDocument) throws IOException {
+        if (IDatableResource.class.isAssignableFrom(clazz) && !partialDocument.containsKey("lastUpdateDate")) {
+            partialDocument = new HashMap<>(partialDocument);
+            partialDocument.put("lastUpdateDate", new Date());
+        }
+        return writeValueAsBytes(partialDocument);
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     @SneakyThrows({ IOException.class })
     public <T> T findById(Class<T> clazz, String id) {
-        boolean abstractType = Modifier.isAbstract(clazz.getModifiers());
         assertIdNotNullFor(id, "findById");
-        String indexName = getIndexForType(clazz);
-        String typeName = abstractType ? null : MappingBuilder.indexTypeFromClass(clazz);
-        GetResponse response = getClient().prepareGet(indexName, typeName, id).execute().actionGet();
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(clazz), "get");
+        GetResponse response;
+        try {
+            response = prepareGet(clazz, id).execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
+        return toObject(clazz, response, metricsContext);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> findByIdAsync(Class<T> clazz, String id) {
+        assertIdNotNullFor(id, "findById");
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(clazz), "get");
+        return executeAsync(prepareGet(clazz, id).setListenerThreaded(true).execute(), metricsContext,
+                response -> toObject(clazz, response, metricsContext));
+    }
+
+    private GetRequestBuilder prepareGet(Class<?> clazz, String id) {
+        String typeName = Modifier.isAbstract(clazz.getModifiers()) ? null : MappingBuilder.indexTypeFromClass(clazz);
+        return getClient().prepareGet(getIndexForType(clazz), typeName, id);
+    }
 
-        if (response == null || !response.isExists()) {
-            ESIndexMapper.getLog().debug("Nothing found in index [ {} ], type [ {} ], for Id [ {} ].", indexName, typeName, id);
+    @SuppressWarnings("unchecked")
+    private <T> T toObject(Class<T> clazz, GetResponse response, DaoMetrics.RequestContext metricsContext) throws IOException {
+        if (response == null) {
+            return null;
+        }
+        if (!response.isExists()) {
+            ESIndexMapper.getLog().debug("Nothing found in index [ {} ], type [ {} ], for Id [ {} ].", response.getIndex(), response.getType(),
+                    response.getId());
             return null;
         }
 
-        ESIndexMapper.getLog().debug("Found one in index [ {} ], type [ {} ], for Id [ {} ].", indexName, typeName, id);
+        ESIndexMapper.getLog().debug("Found one in index [ {} ], type [ {} ], for Id [ {} ].", response.getIndex(), response.getType(), response.getId());
+        metricsContext.hits(1).bytes(response.getSourceAsBytesRef().length());
 
-        if (abstractType) {
-            return (T) getJsonMapper().readValue(response.getSourceAsString(), getTypesToClasses().get(response.getType()));
+        if (Modifier.isAbstract(clazz.getModifiers())) {
+            return (T) readValue(getTypesToClasses().get(response.getType()), response.getSourceAsBytesRef());
         }
 
-        return getJsonMapper().readValue(response.getSourceAsString(), clazz);
+        return readValue(clazz, response.getSourceAsBytesRef());
     }
 
     @Override
@@ -105,7 +474,13 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
     public <T> List<T> findByIds(Class<T> clazz, String... ids) {
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
-        MultiGetResponse response = getClient().prepareMultiGet().add(indexName, typeName, ids).execute().actionGet();
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "get");
+        MultiGetResponse response;
+        try {
+            response = getClient().prepareMultiGet().add(indexName, typeName, ids).execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
 
         if (response == null || response.getResponses() == null || response.getResponses().length == 0) {
             ESIndexMapper.getLog().debug("Nothing found in index [ {} ], type [ {} ], for Ids [ {} ].", indexName, typeName, Arrays.toString(ids));
@@ -115,19 +490,61 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         List<T> result = new ArrayList<>();
         for (MultiGetItemResponse getItemResponse : response.getResponses()) {
             if (getItemResponse.getResponse().isExists()) {
-                result.add(getJsonMapper().readValue(getItemResponse.getResponse().getSourceAsString(), clazz));
+                metricsContext.hits(1).bytes(getItemResponse.getResponse().getSourceAsBytesRef().length());
+                result.add(readValue(clazz, getItemResponse.getResponse().getSourceAsBytesRef()));
             }
         }
 
         return result;
     }
 
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> Map<String, T> findByIdsAsMap(Class<T> clazz, Collection<String> ids) {
+        Map<String, T> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        String indexName = getIndexForType(clazz);
+        String typeName = Modifier.isAbstract(clazz.getModifiers()) ? null : MappingBuilder.indexTypeFromClass(clazz);
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(clazz), "get");
+        MultiGetResponse response;
+        try {
+            response = getClient().prepareMultiGet().add(indexName, typeName, ids).execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
+
+        for (MultiGetItemResponse getItemResponse : response.getResponses()) {
+            if (getItemResponse.isFailed()) {
+                ESIndexMapper.getLog().warn("Failed to get [ {} ] from index [ {} ]: {}", getItemResponse.getId(), indexName,
+                        getItemResponse.getFailure().getMessage());
+                continue;
+            }
+            T data = toObject(clazz, getItemResponse.getResponse(), metricsContext);
+            if (data != null) {
+                result.put(getItemResponse.getId(), data);
+            }
+        }
+        return result;
+    }
+
     @Override
     public void delete(Class<?> clazz, String id) {
+        delete(clazz, id, getWriteVisibility(clazz));
+    }
+
+    @Override
+    public void delete(Class<?> clazz, String id, WriteVisibility visibility) {
         assertIdNotNullFor(id, "delete");
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
-        getClient().prepareDelete(indexName, typeName, id).setRefresh(true).execute().actionGet();
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "delete");
+        try {
+            getClient().prepareDelete(indexName, typeName, id).setRefresh(isRefreshRequired(visibility, indexName)).execute().actionGet();
+        } finally {
+            metricsContext.stop();
+        }
     }
 
     private void assertIdNotNullFor(String id, String operation) {
@@ -137,6 +554,16 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         }
     }
 
+    /**
+     * Get the name under which requests on the given class are reported in metrics.
+     *
+     * @param clazz The class targeted by a request.
+     * @return The elasticsearch type of the class or the name of its index if the class is abstract (and may match multiple types).
+     */
+    protected String getMetricsType(Class<?> clazz) {
+        return Modifier.isAbstract(clazz.getModifiers()) ? getIndexForType(clazz) : MappingBuilder.indexTypeFromClass(clazz);
+    }
+
     protected Class<?>[] getRequestedTypes(Class<?> clazz) {
         // FIXME clazz might be null
         if (Modifier.isAbstract(clazz.getModifiers())) {
@@ -166,4 +593,15 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         }
         return types.toArray(new String[types.size()]);
     }
-}
\ No newline at end of file
+
+    /** Number of documents and bytes of a given type in a bulk request. */
+    private static class BulkMetrics {
+        private long hits;
+        private long bytes;
+
+        private void add(long documentBytes) {
+            hits++;
+            bytes += documentBytes;
+        }
+    }
+}
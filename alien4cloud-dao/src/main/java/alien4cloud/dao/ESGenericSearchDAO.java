@@ -2,23 +2,38 @@ package alien4cloud.dao;
 
 import java.io.IOException;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import com.google.common.collect.ObjectArrays;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.count.CountRequestBuilder;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.common.lucene.search.function.CombineFunction;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -53,6 +68,14 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearchDAO {
+    /** Default number of hits fetched per scroll request when streaming over all results of a query. */
+    public static final int DEFAULT_SCROLL_SIZE = 1000;
+    /** Time the scroll context is kept alive between two batch fetches. */
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    /** Executor for asynchronous delete by query requests, lazily created. */
+    private ExecutorService deleteByQueryExecutor;
+
     @Resource
     private ElasticSearchClient esClient;
     @Resource
@@ -69,7 +92,12 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         if (query != null) {
             countRequestBuilder.setQuery(query);
         }
-        return countRequestBuilder.execute().actionGet().getCount();
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(typeName, "count");
+        try {
+            return countRequestBuilder.execute().actionGet().getCount();
+        } finally {
+            metricsContext.stop(query == null ? null : query::toString);
+        }
     }
 
     @Override
@@ -79,35 +107,113 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public void delete(Class<?> clazz, QueryBuilder query) {
-        String indexName = getIndexForType(clazz);
-        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        deleteByQuery(clazz, query, DEFAULT_SCROLL_SIZE, WriteVisibility.IMMEDIATE, null);
+    }
 
-        // get all elements and then use a bulk delete to remove data.
-        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(query).setNoFields()
-                .setFetchSource(false);
-        searchRequestBuilder.setFrom(0).setSize(1000);
-        SearchResponse response = searchRequestBuilder.execute().actionGet();
+    @Override
+    public long deleteByQuery(Class<?> clazz, QueryBuilder query, int batchSize, WriteVisibility visibility) {
+        return deleteByQuery(clazz, query, batchSize, visibility, null);
+    }
+
+    @Override
+    public CompletableFuture<Long> deleteByQueryAsync(Class<?> clazz, QueryBuilder query, int batchSize, WriteVisibility visibility,
+            LongConsumer progressListener) {
+        return CompletableFuture.supplyAsync(() -> deleteByQuery(clazz, query, batchSize, visibility, progressListener), getDeleteByQueryExecutor());
+    }
 
-        while (somethingFound(response)) {
-            BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
+    private synchronized ExecutorService getDeleteByQueryExecutor() {
+        if (deleteByQueryExecutor == null) {
+            deleteByQueryExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("a4c-delete-by-query"));
+        }
+        return deleteByQueryExecutor;
+    }
 
-            for (int i = 0; i < response.getHits().hits().length; i++) {
-                String id = response.getHits().hits()[i].getId();
-                bulkRequestBuilder.add(getClient().prepareDelete(indexName, typeName, id));
+    @PreDestroy
+    public synchronized void shutdownDeleteByQueryExecutor() {
+        if (deleteByQueryExecutor != null) {
+            deleteByQueryExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Scroll over the ids of the documents matching the query and delete them using bulk requests. The next page of ids is fetched while the previous bulk
+     * request is executed and the index is refreshed (if required by the visibility) only once all documents have been deleted.
+     */
+    private long deleteByQuery(Class<?> clazz, QueryBuilder query, int batchSize, WriteVisibility visibility, LongConsumer progressListener) {
+        String indexName = getIndexForType(clazz);
+        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(query)
+                .setSearchType(SearchType.SCAN).setScroll(SCROLL_KEEP_ALIVE).setSize(batchSize).setNoFields().setFetchSource(false);
+        SearchResponse response = searchRequestBuilder.execute().actionGet();
+        String scrollId = response.getScrollId();
+
+        long deleted = 0;
+        ListenableActionFuture<BulkResponse> pendingBulk = null;
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(clazz), "delete");
+        try {
+            while (true) {
+                response = getClient().prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+                scrollId = response.getScrollId();
+                if (!somethingFound(response)) {
+                    break;
+                }
+                BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+                for (SearchHit hit : response.getHits().getHits()) {
+                    bulkRequestBuilder.add(getClient().prepareDelete(indexName, hit.getType(), hit.getId()));
+                }
+                if (pendingBulk != null) {
+                    deleted += countDeleted(pendingBulk.actionGet());
+                    notifyProgress(progressListener, deleted);
+                }
+                pendingBulk = bulkRequestBuilder.execute();
             }
+            if (pendingBulk != null) {
+                deleted += countDeleted(pendingBulk.actionGet());
+                notifyProgress(progressListener, deleted);
+            }
+        } finally {
+            if (scrollId != null) {
+                getClient().prepareClearScroll().addScrollId(scrollId).execute();
+            }
+            metricsContext.hits(deleted).stop(() -> String.valueOf(query));
+        }
 
-            bulkRequestBuilder.execute().actionGet();
+        if (deleted > 0 && isRefreshRequired(visibility, indexName)) {
+            getClient().admin().indices().prepareRefresh(indexName).execute().actionGet();
+        }
+        log.debug("Deleted {} documents of type {} from index {}", deleted, clazz.getSimpleName(), indexName);
+        return deleted;
+    }
 
-            if (response.getHits().totalHits() == response.getHits().hits().length) {
-                response = null;
-            } else {
-                response = searchRequestBuilder.execute().actionGet();
+    private long countDeleted(BulkResponse bulkResponse) {
+        if (!bulkResponse.hasFailures()) {
+            return bulkResponse.getItems().length;
+        }
+        log.warn("Some documents could not be deleted: {}", bulkResponse.buildFailureMessage());
+        long deleted = 0;
+        for (BulkItemResponse item : bulkResponse.getItems()) {
+            if (!item.isFailed()) {
+                deleted++;
             }
         }
+        return deleted;
+    }
+
+    private void notifyProgress(LongConsumer progressListener, long deleted) {
+        if (progressListener != null) {
+            progressListener.accept(deleted);
+        }
     }
 
-    @SneakyThrows({ IOException.class })
     private <T> List<T> doCustomFind(Class<T> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder, int size) {
+        SearchResponse response = executeSearch(getMetricsType(clazz), prepareCustomSearch(clazz, query, filter, sortBuilder, size));
+        if (!somethingFound(response)) {
+            return null;
+        } else {
+            return toObjects(response);
+        }
+    }
+
+    private SearchRequestBuilder prepareCustomSearch(Class<?> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder, int size) {
         String indexName = getIndexForType(clazz);
         SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setSize(size);
         if (query != null) {
@@ -119,16 +225,16 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         if (sortBuilder != null) {
             searchRequestBuilder.addSort(sortBuilder);
         }
-        SearchResponse response = searchRequestBuilder.execute().actionGet();
-        if (!somethingFound(response)) {
-            return null;
-        } else {
-            List<T> hits = Lists.newArrayList();
-            for (int i = 0; i < response.getHits().getHits().length; i++) {
-                hits.add(hitToObject(response.getHits().getAt(i)));
-            }
-            return hits;
+        return searchRequestBuilder;
+    }
+
+    @SneakyThrows({ IOException.class })
+    private <T> List<T> toObjects(SearchResponse response) {
+        List<T> hits = Lists.newArrayList();
+        for (int i = 0; i < response.getHits().getHits().length; i++) {
+            hits.add(hitToObject(response.getHits().getAt(i)));
         }
+        return hits;
     }
 
     @Override
@@ -148,7 +254,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public <T> List<T> customFilterAll(Class<T> clazz, FilterBuilder filter) {
-        return doCustomFind(clazz, null, filter, null, Integer.MAX_VALUE);
+        return doCustomFindAll(clazz, null, filter, null);
     }
 
     @Override
@@ -158,7 +264,73 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder) {
-        return doCustomFind(clazz, query, null, sortBuilder, Integer.MAX_VALUE);
+        return doCustomFindAll(clazz, query, null, sortBuilder);
+    }
+
+    /**
+     * Find all the documents matching a query. Most lookups match a few documents: they are fetched using a single search request and a scroll is used only
+     * when more than {@link #DEFAULT_SCROLL_SIZE} documents match.
+     */
+    private <T> List<T> doCustomFindAll(Class<T> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder) {
+        SearchResponse response = executeSearch(getMetricsType(clazz), prepareCustomSearch(clazz, query, filter, sortBuilder, DEFAULT_SCROLL_SIZE));
+        if (!somethingFound(response)) {
+            return null;
+        }
+        if (response.getHits().getTotalHits() <= response.getHits().getHits().length) {
+            return toObjects(response);
+        }
+        try (Stream<T> stream = stream(clazz, query, filter, sortBuilder, DEFAULT_SCROLL_SIZE)) {
+            List<T> hits = stream.collect(Collectors.toList());
+            return hits.isEmpty() ? null : hits;
+        }
+    }
+
+    @Override
+    public <T> Stream<T> stream(Class<T> clazz, QueryBuilder query, FilterBuilder filter, int batchSize) {
+        return stream(clazz, query, filter, null, batchSize);
+    }
+
+    @Override
+    public <T> Stream<T> stream(Class<T> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder, int batchSize) {
+        return stream(clazz, query, filter, sortBuilder, null, batchSize);
+    }
+
+    @Override
+    public <T> Stream<T> stream(Class<T> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder, String fetchContext, int batchSize) {
+        String indexName = getIndexForType(clazz);
+        QueryBuilder scrollQuery = query == null ? QueryBuilders.matchAllQuery() : query;
+        if (filter != null) {
+            scrollQuery = QueryBuilders.filteredQuery(scrollQuery, filter);
+        }
+        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setQuery(scrollQuery)
+                .setScroll(SCROLL_KEEP_ALIVE).setSize(batchSize);
+        if (sortBuilder == null) {
+            // scan is the most efficient way to scroll over results when no sort is required.
+            searchRequestBuilder.setSearchType(SearchType.SCAN);
+        } else {
+            searchRequestBuilder.addSort(sortBuilder);
+        }
+        if (fetchContext != null) {
+            setFetchSource(searchRequestBuilder, clazz, fetchContext);
+        }
+        String metricsType = getMetricsType(clazz);
+        ESScrollIterator<T> iterator = new ESScrollIterator<>(this, executeSearch(metricsType, searchRequestBuilder), SCROLL_KEEP_ALIVE, metricsType);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(iterator::close);
+    }
+
+    @Override
+    public <T> CompletableFuture<GetMultipleDataResult<T>> searchAsync(Class<T> clazz, QueryBuilder query, FilterBuilder filter, int from, int maxElements) {
+        QueryBuilder searchQuery = query == null ? QueryBuilders.matchAllQuery() : query;
+        if (filter != null) {
+            searchQuery = QueryBuilders.filteredQuery(searchQuery, filter);
+        }
+        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz)).setTypes(getTypesFromClass(clazz))
+                .setQuery(searchQuery).setFrom(from).setSize(maxElements).setListenerThreaded(true);
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(getMetricsType(clazz), "search");
+        return executeAsync(searchRequestBuilder.execute(), metricsContext, response -> {
+            recordHits(metricsContext, response);
+            return toGetMultipleDataResult(clazz, response, from);
+        });
     }
 
     @Override
@@ -173,7 +345,9 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public GetMultipleDataResult<Object> search(QueryHelper.ISearchQueryBuilderHelper queryHelperBuilder, int from, int maxElements) {
-        return toGetMultipleDataResult(Object.class, queryHelperBuilder.execute(from, maxElements), from);
+        SearchResponse searchResponse = executeSearch(getMetricsType((String[]) null), () -> queryHelperBuilder.execute(from, maxElements),
+                getQuery(queryHelperBuilder));
+        return toGetMultipleDataResult(Object.class, searchResponse, from);
     }
 
     @Override
@@ -215,8 +389,10 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     @Override
     public GetMultipleDataResult<Object> search(String[] searchIndices, Class<?>[] classes, String searchText, Map<String, String[]> filters,
             FilterBuilder customFilter, String fetchContext, int from, int maxElements) {
-        SearchResponse searchResponse = queryHelper.buildQuery(searchText).types(classes).filters(filters, customFilter).prepareSearch(searchIndices)
-                .fetchContext(fetchContext).execute(from, maxElements);
+        QueryHelper.ISearchQueryBuilderHelper searchQueryBuilderHelper = queryHelper.buildQuery(searchText).types(classes).filters(filters, customFilter)
+                .prepareSearch(searchIndices).fetchContext(fetchContext);
+        SearchResponse searchResponse = executeSearch(getMetricsType(searchIndices), () -> searchQueryBuilderHelper.execute(from, maxElements),
+                getQuery(searchQueryBuilderHelper));
 
         return toGetMultipleDataResult(Object.class, searchResponse, from);
     }
@@ -249,8 +425,10 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     @Override
     public GetMultipleDataResult<Object> suggestSearch(String[] searchIndices, Class<?>[] requestedTypes, String suggestFieldPath, String searchPrefix,
             String fetchContext, int from, int maxElements) {
-        SearchResponse searchResponse = queryHelper.buildQuery(suggestFieldPath, searchPrefix).types(requestedTypes).prepareSearch(searchIndices)
-                .fetchContext(fetchContext).execute(from, maxElements);
+        QueryHelper.ISearchQueryBuilderHelper searchQueryBuilderHelper = queryHelper.buildQuery(suggestFieldPath, searchPrefix).types(requestedTypes)
+                .prepareSearch(searchIndices).fetchContext(fetchContext);
+        SearchResponse searchResponse = executeSearch(getMetricsType(searchIndices), () -> searchQueryBuilderHelper.execute(from, maxElements),
+                getQuery(searchQueryBuilderHelper));
 
         return toGetMultipleDataResult(Object.class, searchResponse, from);
     }
@@ -261,6 +439,65 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         return buildSearchQuery(clazz, searchText).setFilters(filters, filterStrategies).prepareSearch().search(0, maxElements);
     }
 
+    /**
+     * Get a supplier of the query json of a search helper, to be logged if the request is slow.
+     *
+     * @param searchQueryBuilderHelper The helper of the search request, the search must have been prepared.
+     * @return Supplier of the query json of the search request.
+     */
+    private Supplier<String> getQuery(QueryHelper.ISearchQueryBuilderHelper searchQueryBuilderHelper) {
+        AtomicReference<SearchRequestBuilder> searchRequestBuilder = new AtomicReference<>();
+        searchQueryBuilderHelper.alterSearchRequest(searchRequestBuilder::set);
+        return () -> String.valueOf(searchRequestBuilder.get());
+    }
+
+    /**
+     * Execute a search request and record its metrics.
+     *
+     * @param metricsType The name under which the request is reported in metrics.
+     * @param searchRequestBuilder The search request to execute.
+     * @return The search response.
+     */
+    private SearchResponse executeSearch(String metricsType, SearchRequestBuilder searchRequestBuilder) {
+        return executeSearch(metricsType, () -> searchRequestBuilder.execute().actionGet(), searchRequestBuilder::toString);
+    }
+
+    /**
+     * Execute a search request and record its metrics.
+     *
+     * @param metricsType The name under which the request is reported in metrics.
+     * @param request The function that actually executes the request.
+     * @param query Supplier of the query json logged if the request is slow (may be null).
+     * @return The search response.
+     */
+    private SearchResponse executeSearch(String metricsType, Supplier<SearchResponse> request, Supplier<String> query) {
+        DaoMetrics.RequestContext metricsContext = getMetrics().start(metricsType, "search");
+        try {
+            SearchResponse searchResponse = request.get();
+            recordHits(metricsContext, searchResponse);
+            return searchResponse;
+        } finally {
+            metricsContext.stop(query);
+        }
+    }
+
+    private String getMetricsType(String[] indices) {
+        return indices == null || indices.length == 0 ? "_all" : String.join(",", indices);
+    }
+
+    private void recordHits(DaoMetrics.RequestContext metricsContext, SearchResponse searchResponse) {
+        if (searchResponse == null || searchResponse.getHits() == null) {
+            return;
+        }
+        long bytes = 0;
+        for (SearchHit hit : searchResponse.getHits().getHits()) {
+            if (hit.getSourceRef() != null) {
+                bytes += hit.getSourceRef().length();
+            }
+        }
+        metricsContext.hits(searchResponse.getHits().getHits().length).bytes(bytes);
+    }
+
     /**
      * Convert a SearchResponse into a {@link GetMultipleDataResult} including json deserialization.
      *
@@ -333,15 +570,8 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
     }
 
     public <T> T hitToObject(Class<T> clazz, SearchHit hit) throws IOException {
-        T obj = (T) getJsonMapper().readValue(hit.getSourceAsString(), clazz);
-        Field generatedId = getClassTogeneratedIdFields().get(clazz);
-        if (generatedId != null) {
-            try {
-                generatedId.set(obj, hit.getId());
-            } catch (IllegalAccessException e) {
-                log.error("Failed to set id from elastic to declared generated id field.", e);
-            }
-        }
+        T obj = readValue(clazz, hit.getSourceRef());
+        setGeneratedId(obj, hit.getId());
         return obj;
     }
 
@@ -370,8 +600,17 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
     @Override
     public <T> List<T> findByIdsWithContext(Class<T> clazz, String fetchContext, String... ids) {
+        // TODO: correctly manage "from" and "size"
+        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz))
+                .setQuery(QueryBuilders.idsQuery(MappingBuilder.indexTypeFromClass(clazz)).ids(ids)).setSize(20);
+        setFetchSource(searchRequestBuilder, clazz, fetchContext);
+
+        SearchResponse searchResponse = executeSearch(getMetricsType(clazz), searchRequestBuilder);
+        return toGetListOfData(searchResponse, clazz);
+    }
 
-        // get the fetch mpContext for the given type and apply it to the search
+    /** Get the fetch context for the given type and apply it to the search. */
+    private void setFetchSource(SearchRequestBuilder searchRequestBuilder, Class<?> clazz, String fetchContext) {
         List<String> includes = new ArrayList<String>();
         List<String> excludes = new ArrayList<String>();
         SourceFetchContext sourceFetchContext = getMappingBuilder().getFetchSource(clazz.getName(), fetchContext);
@@ -384,13 +623,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
         String[] inc = includes.isEmpty() ? null : includes.toArray(new String[includes.size()]);
         String[] exc = excludes.isEmpty() ? null : excludes.toArray(new String[excludes.size()]);
-
-        // TODO: correctly manage "from" and "size"
-        SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz))
-                .setQuery(QueryBuilders.idsQuery(MappingBuilder.indexTypeFromClass(clazz)).ids(ids)).setFetchSource(inc, exc).setSize(20);
-
-        SearchResponse searchResponse = searchRequestBuilder.execute().actionGet();
-        return toGetListOfData(searchResponse, clazz);
+        searchRequestBuilder.setFetchSource(inc, exc);
     }
 
     @Override
@@ -416,7 +649,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         if (sortOrder != null) {
             searchRequestBuilder.addSort(SortBuilders.fieldSort(path).order(sortOrder));
         }
-        SearchResponse searchResponse = searchRequestBuilder.execute().actionGet();
+        SearchResponse searchResponse = executeSearch(getMetricsType(new String[] { index }), searchRequestBuilder);
         if (ElasticSearchUtil.isResponseEmpty(searchResponse)) {
             return new String[0];
         } else {
@@ -530,6 +763,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         private String[] indices;
         private Class<?>[] requestedTypes;
         private String[] esTypes;
+        private String metricsType;
 
         private IESMetaPropertiesSearchContext mpContext;
 
@@ -540,6 +774,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
             this.requestedTypes = getRequestedTypes(clazz);
             super.types(requestedTypes);
             this.esTypes = getTypes();
+            this.metricsType = clazz == null ? getMetricsType(indices) : getMetricsType(clazz);
 
             this.mpContext = metaPropertiesSearchHelper.getContext(clazz);
         }
@@ -550,7 +785,12 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
          * @return The count response.
          */
         public long count() {
-            return super.count(indices, esTypes).getCount();
+            DaoMetrics.RequestContext metricsContext = getMetrics().start(metricsType, "count");
+            try {
+                return super.count(indices, esTypes).getCount();
+            } finally {
+                metricsContext.stop(() -> String.valueOf(queryBuilder));
+            }
         }
 
         @Override
@@ -576,7 +816,12 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
         }
 
         public GetMultipleDataResult<T> search(int from, int size) {
-            return toGetMultipleDataResult(clazz, super.execute(from, size), from);
+            return toGetMultipleDataResult(clazz, execute(from, size), from);
+        }
+
+        @Override
+        public SearchResponse execute(int from, int size) {
+            return executeSearch(metricsType, () -> super.execute(from, size), () -> searchRequestBuilder.toString());
         }
 
         @Override
@@ -585,7 +830,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
             super.facets(facetBuilderHelpers);
 
-            FacetedSearchResult  facetedSearchResult = toFacetedSearchResult(clazz, from, super.execute(from, size));
+            FacetedSearchResult  facetedSearchResult = toFacetedSearchResult(clazz, from, execute(from, size));
 
             // Convert metaProperties name
             mpContext.postProcess(facetedSearchResult);
@@ -602,7 +847,7 @@ public abstract class ESGenericSearchDAO extends ESGenericIdDAO implements IGene
 
             super.facets(facetBuilderHelpers);
 
-            SearchResponse searchResponse = super.execute(0, 0);
+            SearchResponse searchResponse = execute(0, 0);
 
             FacetedSearchResult facetedSearchResult = new FacetedSearchResult();
             parseAggregations(searchResponse, facetedSearchResult, aggregationQueryManager);
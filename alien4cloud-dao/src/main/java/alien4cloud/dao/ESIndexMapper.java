@@ -2,6 +2,8 @@ package alien4cloud.dao;
 
 import java.beans.IntrospectionException;
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
@@ -20,11 +22,17 @@ import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.mapping.ElasticSearchClient;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.elasticsearch.util.MapUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -32,7 +40,6 @@ import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.utils.ReflectionUtil;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,12 +68,108 @@ public abstract class ESIndexMapper {
     @Getter
     private final Map<Class<?>, Field> classTogeneratedIdFields = Maps.newHashMap();
 
+    /** Default write visibility of classes that should not use {@link WriteVisibility#IMMEDIATE}. */
+    private final Map<Class<?>, WriteVisibility> writeVisibilities = Maps.newConcurrentMap();
+
+    /** Setters (as method handles) of the generated id fields. */
+    private final Map<Class<?>, MethodHandle> classTogeneratedIdSetters = Maps.newHashMap();
+
     @Getter
     private String[] allIndexes;
     @Getter
-    @Setter
     private ObjectMapper jsonMapper = new ObjectMapper();
 
+    /** Readers and writers are immutable and thread-safe, caching them per class avoids the root type lookup of the mapper on each operation. */
+    private final Map<Class<?>, ObjectReader> readers = Maps.newConcurrentMap();
+    private final Map<Class<?>, ObjectWriter> writers = Maps.newConcurrentMap();
+
+    /** Metrics of the requests performed by the DAO. */
+    @Getter
+    private final DaoMetrics metrics = new DaoMetrics();
+
+    /**
+     * Register the DAO metrics in the application metric registry (if any).
+     *
+     * @param metricRegistry The application metric registry.
+     */
+    @Autowired(required = false)
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        metrics.setMetricRegistry(metricRegistry);
+    }
+
+    /**
+     * Configure the slow query log of the DAO.
+     *
+     * @param slowQueryThresholdMs Requests that take longer than this threshold (in milliseconds) are logged, 0 disables the slow query log.
+     */
+    @Value("${elasticSearch.slow_query_threshold_ms:0}")
+    public void setSlowQueryThreshold(long slowQueryThresholdMs) {
+        metrics.setSlowQueryThreshold(slowQueryThresholdMs);
+    }
+
+    /**
+     * Set the json mapper used to serialize and deserialize documents.
+     *
+     * @param jsonMapper The json mapper.
+     */
+    public void setJsonMapper(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        readers.clear();
+        writers.clear();
+    }
+
+    /**
+     * Deserialize a document source directly from the bytes returned by elasticsearch (without intermediate String copy).
+     *
+     * @param clazz The class of the object to read.
+     * @param source The source of the document.
+     * @return The deserialized object.
+     */
+    protected <T> T readValue(Class<T> clazz, BytesReference source) throws IOException {
+        ObjectReader reader = readers.computeIfAbsent(clazz, jsonMapper::readerFor);
+        if (source.hasArray()) {
+            return reader.readValue(source.array(), source.arrayOffset(), source.length());
+        }
+        return reader.readValue(source.toBytes());
+    }
+
+    /**
+     * Serialize an object as a json document.
+     *
+     * @param data The object to serialize.
+     * @return The json bytes of the document.
+     */
+    protected byte[] writeValueAsBytes(Object data) throws IOException {
+        return writers.computeIfAbsent(data.getClass(), jsonMapper::writerFor).writeValueAsBytes(data);
+    }
+
+    /**
+     * Set the elasticsearch generated id on an object if its class declares a field annotated with {@link EsGeneratedId}.
+     *
+     * @param obj The object on which to set the id.
+     * @param id The id of the elasticsearch document.
+     */
+    protected void setGeneratedId(Object obj, String id) {
+        MethodHandle generatedIdSetter = classTogeneratedIdSetters.get(obj.getClass());
+        if (generatedIdSetter != null) {
+            try {
+                generatedIdSetter.invoke(obj, id);
+            } catch (Throwable e) {
+                log.error("Failed to set id from elastic to declared generated id field.", e);
+            }
+        }
+    }
+
+    private void registerGeneratedIdField(Class<?> clazz, Field generatedIdField) {
+        generatedIdField.setAccessible(true);
+        classTogeneratedIdFields.put(clazz, generatedIdField);
+        try {
+            classTogeneratedIdSetters.put(clazz, MethodHandles.lookup().unreflectSetter(generatedIdField));
+        } catch (IllegalAccessException e) {
+            throw new IndexingServiceException("Unable to access generated id field of class <" + clazz.getName() + ">", e);
+        }
+    }
+
     /**
      * Initialize the array of all indices managed by this dao.
      */
@@ -104,8 +207,7 @@ public abstract class ESIndexMapper {
 
                 Field generatedIdField = ReflectionUtil.getDeclaredField(clazz, EsGeneratedId.class);
                 if (generatedIdField != null) {
-                    generatedIdField.setAccessible(true);
-                    classTogeneratedIdFields.put(clazz, generatedIdField);
+                    registerGeneratedIdField(clazz, generatedIdField);
                 }
 
                 String mapping = jsonMapper.writeValueAsString(typesMap);
@@ -177,8 +279,7 @@ public abstract class ESIndexMapper {
             addToMappedClasses(indexName, clazz);
             Field generatedIdField = ReflectionUtil.getDeclaredField(clazz, EsGeneratedId.class);
             if (generatedIdField != null) {
-                generatedIdField.setAccessible(true);
-                classTogeneratedIdFields.put(clazz, generatedIdField);
+                registerGeneratedIdField(clazz, generatedIdField);
             }
         }
     }
@@ -191,6 +292,29 @@ public abstract class ESIndexMapper {
         return typeName;
     }
 
+    /**
+     * Configure the default write visibility of the given classes.
+     *
+     * @param visibility The visibility to use for write operations on the given classes.
+     * @param classes The classes to configure.
+     */
+    public void setWriteVisibility(WriteVisibility visibility, Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            writeVisibilities.put(clazz, visibility);
+        }
+    }
+
+    /**
+     * Get the default write visibility of the given class.
+     *
+     * @param clazz The class for which to get the write visibility.
+     * @return The configured write visibility or {@link WriteVisibility#IMMEDIATE} if none is configured.
+     */
+    public WriteVisibility getWriteVisibility(Class<?> clazz) {
+        WriteVisibility visibility = writeVisibilities.get(clazz);
+        return visibility == null ? WriteVisibility.IMMEDIATE : visibility;
+    }
+
     /**
      * Get the index in which the given type lies.
      *
@@ -0,0 +1,91 @@
+package alien4cloud.dao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Iterator that lazily fetches and deserializes the hits of an elasticsearch scroll request batch by batch.
+ *
+ * The scroll context is released once all hits have been consumed or when the iterator is closed.
+ */
+@Slf4j
+class ESScrollIterator<T> implements Iterator<T>, Closeable {
+    private final ESGenericSearchDAO dao;
+    private final TimeValue keepAlive;
+    private final String metricsType;
+    private String scrollId;
+    private Iterator<SearchHit> currentHits;
+    private boolean finished = false;
+
+    ESScrollIterator(ESGenericSearchDAO dao, SearchResponse initialResponse, TimeValue keepAlive, String metricsType) {
+        this.dao = dao;
+        this.keepAlive = keepAlive;
+        this.metricsType = metricsType;
+        this.scrollId = initialResponse.getScrollId();
+        // scan requests do not return any hits in the initial response.
+        this.currentHits = hitsIterator(initialResponse);
+    }
+
+    private Iterator<SearchHit> hitsIterator(SearchResponse response) {
+        if (response.getHits() == null || response.getHits().getHits() == null) {
+            return Collections.emptyIterator();
+        }
+        return Arrays.asList(response.getHits().getHits()).iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentHits.hasNext() && !finished) {
+            DaoMetrics.RequestContext metricsContext = dao.getMetrics().start(metricsType, "scroll");
+            SearchResponse response;
+            try {
+                response = dao.getClient().prepareSearchScroll(scrollId).setScroll(keepAlive).execute().actionGet();
+            } finally {
+                metricsContext.stop();
+            }
+            scrollId = response.getScrollId();
+            currentHits = hitsIterator(response);
+            metricsContext.hits(response.getHits() == null ? 0 : response.getHits().getHits().length);
+            if (!currentHits.hasNext()) {
+                close();
+            }
+        }
+        return currentHits.hasNext();
+    }
+
+    @Override
+    @SneakyThrows(IOException.class)
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return dao.hitToObject(currentHits.next());
+    }
+
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        currentHits = Collections.emptyIterator();
+        if (scrollId != null) {
+            try {
+                dao.getClient().prepareClearScroll().addScrollId(scrollId).execute().actionGet();
+            } catch (RuntimeException e) {
+                log.warn("Failed to clear elasticsearch scroll context, it will be released once the keep alive expires.", e);
+            }
+        }
+    }
+}
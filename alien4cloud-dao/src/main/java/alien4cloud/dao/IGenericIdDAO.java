@@ -1,6 +1,11 @@
 package alien4cloud.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import alien4cloud.dao.model.BulkSaveResult;
 
 /**
  * A DAO that allows accessing data by Id or / and multiple Ids.
@@ -15,6 +20,14 @@ public interface IGenericIdDAO {
      */
     <T> void save(T entity);
 
+    /**
+     * Saves an entity into the repository using a specific write visibility.
+     *
+     * @param entity the entity to save
+     * @param visibility Defines when the entity will be visible to search requests.
+     */
+    <T> void save(T entity, WriteVisibility visibility);
+
     /**
      * Bulk save multiple entities into the repository
      * 
@@ -22,6 +35,72 @@ public interface IGenericIdDAO {
      */
     <T> void save(T[] entities);
 
+    /**
+     * Bulk save multiple entities into the repository using a specific write visibility.
+     *
+     * @param entities The entities to save.
+     * @param visibility Defines when the entities will be visible to search requests.
+     */
+    <T> void save(T[] entities, WriteVisibility visibility);
+
+    /**
+     * Save multiple entities using as many bulk requests as required so a single request never exceeds the given number of entities or bytes. Unlike
+     * {@link #save(Object[], WriteVisibility)}, failures of individual entities do not interrupt the save and are reported in the result.
+     *
+     * @param entities The entities to save.
+     * @param maxActions The maximum number of entities in a single bulk request.
+     * @param maxBytes The maximum size in bytes of the serialized entities of a single bulk request.
+     * @param visibility Defines when the entities will be visible to search requests, IMMEDIATE visibility refreshes the indices once all requests are done.
+     * @return The result of the bulk save.
+     */
+    <T> BulkSaveResult save(Collection<T> entities, int maxActions, long maxBytes, WriteVisibility visibility);
+
+    /**
+     * Saves an entity into the repository without blocking the calling thread. The entity is serialized on the calling thread and the request is sent
+     * asynchronously, dependent stages of the returned future are executed on an elasticsearch listener thread.
+     *
+     * @param entity the entity to save
+     * @return A future completed once the entity has been indexed.
+     */
+    <T> CompletableFuture<Void> saveAsync(T entity);
+
+    /**
+     * Bulk save multiple entities into the repository without blocking the calling thread.
+     *
+     * @param entities The entities to save.
+     * @return A future completed once all the entities have been indexed or completed exceptionally if any of them failed to be indexed.
+     */
+    <T> CompletableFuture<Void> bulkAsync(T[] entities);
+
+    /**
+     * Update some fields of an existing document without reading and re-writing the whole document.
+     *
+     * @param clazz The class of the object to update.
+     * @param id The id of the object to update.
+     * @param partialDocument The fields to update (field name to value), values are serialized using the DAO json mapper and merged in the document.
+     * @throws alien4cloud.exception.NotFoundException if no document exists with the given id.
+     */
+    void update(Class<?> clazz, String id, Map<String, Object> partialDocument);
+
+    /**
+     * Update some fields of a document or create it if it does not exists yet.
+     *
+     * @param clazz The class of the object to update.
+     * @param id The id of the object to update.
+     * @param partialDocument The fields to update if the document exists.
+     * @param upsertEntity The entity to save if the document does not exists.
+     */
+    <T> void upsert(Class<T> clazz, String id, Map<String, Object> partialDocument, T upsertEntity);
+
+    /**
+     * Bulk update some fields of multiple existing documents of the same type.
+     *
+     * @param clazz The class of the objects to update.
+     * @param partialDocumentsById The fields to update (field name to value) by document id.
+     * @return The number of documents actually updated (documents that does not exists are ignored).
+     */
+    long update(Class<?> clazz, Map<String, Map<String, Object>> partialDocumentsById);
+
     /**
      * Find an instance from the given class.
      * 
@@ -31,6 +110,15 @@ public interface IGenericIdDAO {
      */
     <T> T findById(Class<T> clazz, String id);
 
+    /**
+     * Asynchronous version of {@link IGenericIdDAO#findById(Class, String)}.
+     *
+     * @param clazz The class of the object to find.
+     * @param id The id of the object.
+     * @return A future completed with the object that has the given id or null if no object matching the request is found.
+     */
+    <T> CompletableFuture<T> findByIdAsync(Class<T> clazz, String id);
+
     /**
      * Check whether an object with the given id exists
      * 
@@ -50,6 +138,15 @@ public interface IGenericIdDAO {
      */
     <T> List<T> findByIds(Class<T> clazz, String... ids);
 
+    /**
+     * Find instances by id using a single multi-get request.
+     *
+     * @param clazz The class for which to find instances.
+     * @param ids The ids of the data to find.
+     * @return A map of id to object for all the ids that match an object, ids that does not match any object are not in the map.
+     */
+    <T> Map<String, T> findByIdsAsMap(Class<T> clazz, Collection<String> ids);
+
     /**
      * Delete an instance from the given class.
      * 
@@ -57,4 +154,27 @@ public interface IGenericIdDAO {
      * @param id The id of the object to delete.
      */
     void delete(Class<?> clazz, String id);
-}
\ No newline at end of file
+
+    /**
+     * Delete an instance from the given class using a specific write visibility.
+     *
+     * @param clazz The class of the object to delete.
+     * @param id The id of the object to delete.
+     * @param visibility Defines when the deletion will be visible to search requests.
+     */
+    void delete(Class<?> clazz, String id, WriteVisibility visibility);
+
+    /**
+     * Get the default write visibility for the given class.
+     *
+     * @param clazz The class of the objects.
+     * @return The visibility used by write operations that does not specify one explicitly.
+     */
+    WriteVisibility getWriteVisibility(Class<?> clazz);
+
+    /**
+     * Refresh all indices that have been written with {@link WriteVisibility#BARRIER} visibility since the last barrier so all pending writes become visible to
+     * search requests.
+     */
+    void refreshBarrier();
+}
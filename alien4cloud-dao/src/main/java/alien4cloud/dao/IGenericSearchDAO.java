@@ -2,6 +2,9 @@ package alien4cloud.dao;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 import org.elasticsearch.client.Client;
 import org.elasticsearch.index.query.FilterBuilder;
@@ -62,13 +65,36 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
     <T> long count(Class<T> clazz, String searchText, Map<String, String[]> filters);
 
     /**
-     * Delete a data by query
+     * Delete a data by query. Deletion is immediately visible to search requests.
      *
      * @param clazz
      * @param query
      */
     void delete(Class<?> clazz, QueryBuilder query);
 
+    /**
+     * Delete all the documents matching a query. Ids of the documents to delete are fetched using a scroll and deleted using bulk requests of the given size.
+     *
+     * @param clazz The type of data to delete.
+     * @param query The query that matches documents to delete.
+     * @param batchSize The number of documents to delete per bulk request (per shard).
+     * @param visibility Defines when the deletion will be visible to search requests, the index is refreshed at most once at the end of the deletion.
+     * @return The number of deleted documents.
+     */
+    long deleteByQuery(Class<?> clazz, QueryBuilder query, int batchSize, WriteVisibility visibility);
+
+    /**
+     * Asynchronous version of {@link IGenericSearchDAO#deleteByQuery(Class, QueryBuilder, int, WriteVisibility)}.
+     *
+     * @param clazz The type of data to delete.
+     * @param query The query that matches documents to delete.
+     * @param batchSize The number of documents to delete per bulk request (per shard).
+     * @param visibility Defines when the deletion will be visible to search requests.
+     * @param progressListener Optional listener notified with the number of documents deleted so far after each bulk request.
+     * @return A future completed with the number of deleted documents.
+     */
+    CompletableFuture<Long> deleteByQueryAsync(Class<?> clazz, QueryBuilder query, int batchSize, WriteVisibility visibility, LongConsumer progressListener);
+
     /**
      * Run a custom query on elastic search for the given class.
      *
@@ -109,6 +135,56 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
      */
     <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder);
 
+    /**
+     * Stream over all the results of a query. Results are fetched lazily using an elasticsearch scroll, batch by batch, so memory usage does not depend on
+     * the number of results. The stream must be closed if it is not fully consumed in order to release the scroll context.
+     *
+     * @param clazz The type of data to query.
+     * @param query The query to execute (null to match all).
+     * @param filter The filter to apply (null for no filter).
+     * @param batchSize The number of hits to fetch per scroll request (per shard when no sort is specified).
+     * @return A stream of all results.
+     */
+    <T> Stream<T> stream(Class<T> clazz, QueryBuilder query, FilterBuilder filter, int batchSize);
+
+    /**
+     * Same as {@link IGenericSearchDAO#stream(Class, QueryBuilder, FilterBuilder, int)} with results sorted using the given sort configuration.
+     *
+     * @param clazz The type of data to query.
+     * @param query The query to execute (null to match all).
+     * @param filter The filter to apply (null for no filter).
+     * @param sortBuilder the sort configuration (null for no sort).
+     * @param batchSize The number of hits to fetch per scroll request.
+     * @return A stream of all results.
+     */
+    <T> Stream<T> stream(Class<T> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder, int batchSize);
+
+    /**
+     * Same as {@link IGenericSearchDAO#stream(Class, QueryBuilder, FilterBuilder, SortBuilder, int)} fetching only the fields of the given fetch context.
+     *
+     * @param clazz The type of data to query.
+     * @param query The query to execute (null to match all).
+     * @param filter The filter to apply (null for no filter).
+     * @param sortBuilder the sort configuration (null for no sort).
+     * @param fetchContext The fetch context to apply to the returned documents (null to fetch the whole documents).
+     * @param batchSize The number of hits to fetch per scroll request.
+     * @return A stream of all results.
+     */
+    <T> Stream<T> stream(Class<T> clazz, QueryBuilder query, FilterBuilder filter, SortBuilder sortBuilder, String fetchContext, int batchSize);
+
+    /**
+     * Search for data of the given class without blocking the calling thread. Dependent stages of the returned future are executed on an elasticsearch
+     * listener thread.
+     *
+     * @param clazz The type of data to query.
+     * @param query The query to execute (null to match all).
+     * @param filter The filter to apply (null for no filter).
+     * @param from The start index of the search (for pagination).
+     * @param maxElements The maximum number of elements to return.
+     * @return A future completed with the search result.
+     */
+    <T> CompletableFuture<GetMultipleDataResult<T>> searchAsync(Class<T> clazz, QueryBuilder query, FilterBuilder filter, int from, int maxElements);
+
     /**
      * Run a query build from a {@link QueryHelper.ISearchQueryBuilderHelper}.
      *
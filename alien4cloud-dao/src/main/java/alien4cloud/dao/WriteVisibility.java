@@ -0,0 +1,19 @@
+package alien4cloud.dao;
+
+/**
+ * Defines when a document written through the DAO becomes visible to search requests.
+ *
+ * Note that get requests (findById, findByIds, exist) are realtime in elasticsearch and always see the latest written version of a document whatever the
+ * visibility used to write it.
+ */
+public enum WriteVisibility {
+    /** The index is refreshed as part of the write request, the document is immediately visible to search requests. */
+    IMMEDIATE,
+    /** The index is not refreshed, the document becomes visible to search requests on the next periodic refresh of elasticsearch (1s by default). */
+    EVENTUAL,
+    /**
+     * The index is not refreshed but is registered as dirty, it is refreshed on the next call to {@link IGenericIdDAO#refreshBarrier()} so multiple writes
+     * can share a single refresh.
+     */
+    BARRIER
+}
@@ -0,0 +1,35 @@
+package alien4cloud.dao.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of a bulk save of multiple entities.
+ */
+@Getter
+@AllArgsConstructor
+public class BulkSaveResult {
+    /** Number of entities successfully saved. */
+    private long saved;
+    /** Failure messages of the entities that could not be saved by entity id. */
+    private Map<String, String> failures;
+    /** Number of bulk requests sent to elasticsearch. */
+    private int requests;
+    /** Total size of the serialized entities in bytes. */
+    private long bytes;
+    /** Duration of the bulk save in milliseconds (including serialization). */
+    private long duration;
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * @return The number of entities saved per second.
+     */
+    public double getThroughput() {
+        return saved * 1000d / Math.max(duration, 1);
+    }
+}
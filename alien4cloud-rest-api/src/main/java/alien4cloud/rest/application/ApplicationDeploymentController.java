@@ -3,6 +3,9 @@ package alien4cloud.rest.application;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -46,6 +49,7 @@ import alien4cloud.deployment.DeploymentRuntimeStateService;
 import alien4cloud.deployment.DeploymentService;
 import alien4cloud.deployment.DeploymentTopologyDTO;
 import alien4cloud.deployment.DeploymentTopologyDTOBuilder;
+import alien4cloud.deployment.RuntimeRequestExecutor;
 import alien4cloud.deployment.UndeployService;
 import alien4cloud.deployment.WorkflowExecutionService;
 import alien4cloud.deployment.model.SecretProviderConfigurationAndCredentials;
@@ -105,6 +109,8 @@ public class ApplicationDeploymentController {
     @Inject
     private DeploymentRuntimeService deploymentRuntimeService;
     @Inject
+    private RuntimeRequestExecutor runtimeRequestExecutor;
+    @Inject
     private WorkflowExecutionService workflowExecutionService;
     @Inject
     private TopologyDTOBuilder topologyDTOBuilder;
@@ -445,13 +451,14 @@ public class ApplicationDeploymentController {
             Application application = applicationService.checkAndGetApplication(applicationId);
             // get all environments status for the current application
             ApplicationEnvironment[] environments = applicationEnvironmentService.getByApplicationId(application.getId());
-            List<ApplicationEnvironmentDTO> userEnvironmentList = new ArrayList<>(environments.length);
+            List<ApplicationEnvironment> userEnvironmentList = new ArrayList<>(environments.length);
             for (ApplicationEnvironment env : environments) {
                 if (AuthorizationUtil.hasAuthorizationForEnvironment(application, env, ApplicationEnvironmentRole.values())) {
-                    userEnvironmentList.add(dtoBuilder.getApplicationEnvironmentDTO(env));
+                    userEnvironmentList.add(env);
                 }
             }
-            envsByApplicationId.put(applicationId, userEnvironmentList.toArray(new ApplicationEnvironmentDTO[userEnvironmentList.size()]));
+            envsByApplicationId.put(applicationId,
+                    dtoBuilder.getApplicationEnvironmentDTO(userEnvironmentList.toArray(new ApplicationEnvironment[userEnvironmentList.size()])));
         }
         return RestResponseBuilder.<Map<String, ApplicationEnvironmentDTO[]>> builder().data(envsByApplicationId).build();
     }
@@ -471,31 +478,47 @@ public class ApplicationDeploymentController {
         ApplicationEnvironment environment = applicationEnvironmentService.getEnvironmentByIdOrDefault(application.getId(), applicationEnvironmentId);
         AuthorizationUtil.checkAuthorizationForEnvironment(application, environment, ApplicationEnvironmentRole.values());
 
-        Deployment deployment = applicationEnvironmentService.getActiveDeployment(environment.getId());
         final DeferredResult<RestResponse<Map<String, Map<String, InstanceInformation>>>> instancesDeferredResult = new DeferredResult<>(5L * 60L * 1000L);
-        if (deployment == null) { // if there is no topology associated with the version it could not have been deployed.
-            instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build());
-        } else {
-            try {
-                deploymentRuntimeStateService.getInstancesInformation(deployment, new IPaaSCallback<Map<String, Map<String, InstanceInformation>>>() {
-                    @Override
-                    public void onSuccess(Map<String, Map<String, InstanceInformation>> data) {
-                        instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().data(data).build());
-                    }
-
-                    @Override
-                    public void onFailure(Throwable throwable) {
-                        instancesDeferredResult.setErrorResult(throwable);
-                    }
-                });
-            } catch (OrchestratorDisabledException e) {
-                log.error("Cannot get instance informations as topology plugin cannot be found.", e);
+        // fetch the deployment and the runtime topology asynchronously so the request thread is not pinned during elasticsearch I/O.
+        // continuations run on the runtime request executor (not on the elasticsearch listener threads) with the security context of the request.
+        Executor requestExecutor = runtimeRequestExecutor.withCurrentSecurityContext();
+        deploymentService.getActiveDeploymentAsync(environment.getId()).thenComposeAsync(deployment -> {
+            if (deployment == null) { // if there is no topology associated with the version it could not have been deployed.
                 instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build());
+                return CompletableFuture.<Void> completedFuture(null);
             }
-        }
+            return deploymentRuntimeStateService.getRuntimeTopologyAsync(deployment.getId())
+                    .thenAcceptAsync(runtimeTopology -> getInstanceInformation(deployment, runtimeTopology, instancesDeferredResult), requestExecutor);
+        }, requestExecutor).whenComplete((aVoid, throwable) -> {
+            if (throwable != null) {
+                instancesDeferredResult
+                        .setErrorResult(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+        });
         return instancesDeferredResult;
     }
 
+    private void getInstanceInformation(Deployment deployment, DeploymentTopology runtimeTopology,
+            DeferredResult<RestResponse<Map<String, Map<String, InstanceInformation>>>> instancesDeferredResult) {
+        try {
+            deploymentRuntimeStateService.getInstancesInformation(deployment, runtimeTopology,
+                    new IPaaSCallback<Map<String, Map<String, InstanceInformation>>>() {
+                        @Override
+                        public void onSuccess(Map<String, Map<String, InstanceInformation>> data) {
+                            instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().data(data).build());
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            instancesDeferredResult.setErrorResult(throwable);
+                        }
+                    });
+        } catch (OrchestratorDisabledException e) {
+            log.error("Cannot get instance informations as topology plugin cannot be found.", e);
+            instancesDeferredResult.setResult(RestResponseBuilder.<Map<String, Map<String, InstanceInformation>>> builder().build());
+        }
+    }
+
     @RequestMapping(value = "/{applicationId:.+}/environments/{applicationEnvironmentId}/deployment/maintenance", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("isAuthenticated()")
     @Audit
@@ -1,8 +1,12 @@
 package alien4cloud.rest.application;
 
 import alien4cloud.application.ApplicationEnvironmentService;
+import alien4cloud.dao.DataLoader;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.deployment.DeploymentService;
 import alien4cloud.model.application.ApplicationEnvironment;
 import alien4cloud.model.deployment.Deployment;
+import alien4cloud.model.deployment.DeploymentTopology;
 import alien4cloud.paas.model.DeploymentStatus;
 import alien4cloud.rest.application.model.ApplicationEnvironmentDTO;
 import com.google.common.collect.Lists;
@@ -10,7 +14,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Creates an ApplicationEnvironmentDTO from an ApplicationEnvironment adding the deployment status informations.
@@ -20,6 +28,10 @@ import java.util.List;
 public class ApplicationEnvironmentDTOBuilder {
     @Resource
     private ApplicationEnvironmentService applicationEnvironmentService;
+    @Resource
+    private DeploymentService deploymentService;
+    @Resource(name = "alien-monitor-es-dao")
+    private IGenericSearchDAO alienMonitorDao;
 
     /**
      * Get a list a application environment DTO
@@ -28,9 +40,15 @@ public class ApplicationEnvironmentDTOBuilder {
      * @return
      */
     public ApplicationEnvironmentDTO[] getApplicationEnvironmentDTO(ApplicationEnvironment[] applicationEnvironments) {
+        // fetch active deployments and runtime topologies of all environments at once rather than once per environment.
+        Map<String, Deployment> activeDeployments = deploymentService
+                .getActiveDeployments(Arrays.stream(applicationEnvironments).map(ApplicationEnvironment::getId).collect(Collectors.toSet()));
+        DataLoader runtimeTopologyLoader = new DataLoader(alienMonitorDao).prefetch(DeploymentTopology.class,
+                activeDeployments.values().stream().map(Deployment::getId).collect(Collectors.toSet()));
+
         List<ApplicationEnvironmentDTO> listApplicationEnvironmentsDTO = Lists.newArrayList();
         for (ApplicationEnvironment env : applicationEnvironments) {
-            listApplicationEnvironmentsDTO.add(getApplicationEnvironmentDTO(env));
+            listApplicationEnvironmentsDTO.add(getApplicationEnvironmentDTO(env, () -> activeDeployments.get(env.getId()), runtimeTopologyLoader));
         }
         return listApplicationEnvironmentsDTO.toArray(new ApplicationEnvironmentDTO[listApplicationEnvironmentsDTO.size()]);
     }
@@ -42,6 +60,11 @@ public class ApplicationEnvironmentDTOBuilder {
      * @return The application environement DTO matching the given application environement.
      */
     public ApplicationEnvironmentDTO getApplicationEnvironmentDTO(ApplicationEnvironment env) {
+        return getApplicationEnvironmentDTO(env, () -> applicationEnvironmentService.getActiveDeployment(env.getId()), new DataLoader(alienMonitorDao));
+    }
+
+    private ApplicationEnvironmentDTO getApplicationEnvironmentDTO(ApplicationEnvironment env, Supplier<Deployment> activeDeploymentSupplier,
+            DataLoader runtimeTopologyLoader) {
         ApplicationEnvironmentDTO tempEnvDTO = new ApplicationEnvironmentDTO();
         tempEnvDTO.setApplicationId(env.getApplicationId());
         tempEnvDTO.setDescription(env.getDescription());
@@ -52,8 +75,9 @@ public class ApplicationEnvironmentDTOBuilder {
         tempEnvDTO.setGroupRoles(env.getGroupRoles());
         tempEnvDTO.setCurrentVersionName(env.getTopologyVersion());
         try {
-            Deployment deployment = applicationEnvironmentService.getActiveDeployment(env.getId());
-            tempEnvDTO.setStatus(applicationEnvironmentService.getStatus(deployment));
+            Deployment deployment = activeDeploymentSupplier.get();
+            DeploymentTopology runtimeTopology = deployment == null ? null : runtimeTopologyLoader.load(DeploymentTopology.class, deployment.getId());
+            tempEnvDTO.setStatus(applicationEnvironmentService.getStatus(deployment, runtimeTopology));
             if (!DeploymentStatus.UNDEPLOYED.equals(tempEnvDTO.getStatus())) {
                 tempEnvDTO.setDeployedVersion(deployment.getVersionId());
             }
@@ -1,5 +1,7 @@
 package alien4cloud.rest.deployment;
 
+import static java.util.Collections.singletonMap;
+
 import java.security.Principal;
 import java.util.Date;
 import java.util.Map;
@@ -192,9 +194,7 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
 
         GetMultipleDataResult<WorkflowStepInstance> result = alienDAO.find(WorkflowStepInstance.class, filter, 1);
         if (result.getTotalResults() > 0) {
-            WorkflowStepInstance i = result.getData()[0];
-            i.setStatus(WorkflowStepInstanceStatus.COMPLETED);
-            alienDAO.save(i);
+            updateIfExists(WorkflowStepInstance.class, result.getData()[0].getId(), singletonMap("status", WorkflowStepInstanceStatus.COMPLETED));
         }
     }
 
@@ -202,47 +202,51 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
     private void updateTask(String id, TaskStatus status, AbstractTaskEvent taskEvent, String details) {
         Task t = alienDAO.findById(Task.class, id);
         if (t != null) {
-            t.setStatus(status);
+            Map<String, Object> taskUpdate = Maps.newHashMap();
+            taskUpdate.put("status", status);
 
             if (t.getWorkflowStepInstanceId() == null) {
                 String stepInstanceId = getWorkflowStepInstanceIdForTask(taskEvent);
                 t.setWorkflowStepInstanceId(stepInstanceId);
+                if (stepInstanceId != null) {
+                    taskUpdate.put("workflowStepInstanceId", stepInstanceId);
+                }
             }
 
             if (org.springframework.util.StringUtils.hasText(details)) {
-                t.setDetails(details);
+                taskUpdate.put("details", details);
             }
-            alienDAO.save(t);
+            updateIfExists(Task.class, id, taskUpdate);
 
             if (TaskStatus.FAILED == status) {
-                // we must update the related execution
+                // we must update the related execution and step instance, no need to read them as the flag is only set to true.
                 if (t.getExecutionId() != null) {
-                    Execution e = alienDAO.findById(Execution.class, t.getExecutionId());
-                    if (e != null && !e.isHasFailedTasks()) {
-                        e.setHasFailedTasks(true);
-                        alienDAO.save(e);
-                    }
+                    updateIfExists(Execution.class, t.getExecutionId(), singletonMap("hasFailedTasks", true));
                 }
-                // we must update the related step instance
                 if (t.getWorkflowStepInstanceId() != null) {
-                    WorkflowStepInstance i = alienDAO.findById(WorkflowStepInstance.class, t.getWorkflowStepInstanceId());
-                    if (i != null && !i.isHasFailedTasks()) {
-                        i.setHasFailedTasks(true);
-                        alienDAO.save(i);
-                    }
+                    updateIfExists(WorkflowStepInstance.class, t.getWorkflowStepInstanceId(), singletonMap("hasFailedTasks", true));
                 }
             }
         }
     }
 
+    /**
+     * Partially update a document. Events may reference documents that are not (or not anymore) stored, such events are ignored.
+     */
+    private void updateIfExists(Class<?> clazz, String id, Map<String, Object> partialDocument) {
+        try {
+            alienDAO.update(clazz, id, partialDocument);
+        } catch (NotFoundException e) {
+            log.debug("Unable to update {} with id {} as it does not exist", clazz.getSimpleName(), id);
+        }
+    }
+
     // TODO: move elsewhere since this has nothing to do in REST module
     private void updateExecution(PaaSWorkflowFinishedEvent e, ExecutionStatus s) {
-        Execution execution = alienDAO.findById(Execution.class, e.getExecutionId());
-        if (execution != null) {
-            execution.setStatus(s);
-            execution.setEndDate(new Date(e.getDate()));
-            alienDAO.save(execution);
-        }
+        Map<String, Object> executionUpdate = Maps.newHashMap();
+        executionUpdate.put("status", s);
+        executionUpdate.put("endDate", new Date(e.getDate()));
+        updateIfExists(Execution.class, e.getExecutionId(), executionUpdate);
     }
 
     // TODO: move elsewhere since this has nothing to do in REST module
@@ -261,11 +265,7 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
     // TODO: move elsewhere since this has nothing to do in REST module
     private void enrichExecution(Deployment deployment, PaaSWorkflowMonitorEvent e) {
         if (!StringUtils.isEmpty(e.getSubworkflow())) {
-            Execution execution = alienDAO.findById(Execution.class, e.getExecutionId());
-            if (execution != null) {
-                execution.setDisplayWorkflowName(e.getSubworkflow());
-                alienDAO.save(execution);
-            }
+            updateIfExists(Execution.class, e.getExecutionId(), singletonMap("displayWorkflowName", e.getSubworkflow()));
         }
     }
 
@@ -278,7 +278,7 @@ public class WorkflowEventHandler implements IPaasEventListener<AbstractMonitorE
         String knownExecutionId = deployment.getWorkflowExecutions().get(workflowId);
         if (knownExecutionId == null || !executionId.equals(knownExecutionId)) {
             deployment.getWorkflowExecutions().put(workflowId, executionId);
-            alienDAO.save(deployment);
+            updateIfExists(Deployment.class, deployment.getId(), singletonMap("workflowExecutions", deployment.getWorkflowExecutions()));
         }
     }
 
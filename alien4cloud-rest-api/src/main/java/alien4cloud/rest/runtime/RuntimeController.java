@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -43,6 +45,7 @@ import alien4cloud.audit.annotation.Audit;
 import alien4cloud.deployment.DeploymentRuntimeService;
 import alien4cloud.deployment.DeploymentRuntimeStateService;
 import alien4cloud.deployment.DeploymentService;
+import alien4cloud.deployment.RuntimeRequestExecutor;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.application.Application;
 import alien4cloud.model.application.ApplicationEnvironment;
@@ -91,6 +94,8 @@ public class RuntimeController {
     private DeploymentRuntimeStateService deploymentRuntimeStateService;
     @Inject
     private DeploymentRuntimeService deploymentRuntimeService;
+    @Inject
+    private RuntimeRequestExecutor runtimeRequestExecutor;
 
     @ApiOperation(value = "Trigger a custom command on a specific node template of a topology .", authorizations = {
             @Authorization("APPLICATION_MANAGER") }, notes = "Returns a response with no errors and the command response as data in success case. Application role required [ APPLICATION_MANAGER ]")
@@ -106,41 +111,65 @@ public class RuntimeController {
                 operationRequest.getApplicationEnvironmentId());
         AuthorizationUtil.checkAuthorizationForEnvironment(application, environment);
 
-        Topology topology = deploymentRuntimeStateService.getRuntimeTopologyFromEnvironment(operationRequest.getApplicationEnvironmentId());
+        // fetch the deployment and the runtime topology asynchronously so the request thread is not pinned during elasticsearch I/O.
+        // continuations run on the runtime request executor (not on the elasticsearch listener threads) with the security context of the request.
+        Executor requestExecutor = runtimeRequestExecutor.withCurrentSecurityContext();
+        deploymentService.getActiveDeploymentAsync(operationRequest.getApplicationEnvironmentId()).thenComposeAsync(deployment -> {
+            if (deployment == null) {
+                throw new NotFoundException("Deployment for environment <" + operationRequest.getApplicationEnvironmentId() + "> doesn't exist.");
+            }
+            return deploymentRuntimeStateService.getRuntimeTopologyAsync(deployment.getId()).thenAcceptAsync(deploymentTopology -> {
+                if (deploymentTopology == null) {
+                    throw new NotFoundException("Runtime topology for deployment <" + deployment.getId() + "> doesn't exist.");
+                }
+                executeOperation(operationRequest, deployment, deploymentTopology, result);
+            }, requestExecutor);
+        }, requestExecutor).whenComplete((aVoid, throwable) -> {
+            if (throwable != null) {
+                result.setErrorResult(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            }
+        });
+        return result;
+    }
+
+    private void executeOperation(OperationExecRequest operationRequest, Deployment deployment, DeploymentTopology topology,
+            DeferredResult<RestResponse<Object>> result) {
         // validate the operation request
         try {
             validateCommand(operationRequest, topology);
         } catch (ConstraintViolationException e) {
             result.setErrorResult(RestResponseBuilder.<Object> builder().data(e.getConstraintInformation())
                     .error(new RestError(RestErrorCode.PROPERTY_CONSTRAINT_VIOLATION_ERROR.getCode(), e.getMessage())).build());
-            return result;
+            return;
         } catch (ConstraintValueDoNotMatchPropertyTypeException e) {
             result.setErrorResult(RestResponseBuilder.<Object> builder().data(e.getConstraintInformation())
                     .error(new RestError(RestErrorCode.PROPERTY_TYPE_VIOLATION_ERROR.getCode(), e.getMessage())).build());
-            return result;
+            return;
         } catch (ConstraintRequiredParameterException e) {
             result.setErrorResult(RestResponseBuilder.<Object> builder().data(e.getConstraintInformation())
                     .error(new RestError(RestErrorCode.PROPERTY_REQUIRED_VIOLATION_ERROR.getCode(), e.getMessage())).build());
-            return result;
+            return;
         } catch (ConstraintFunctionalException e) {
             result.setErrorResult(RestResponseBuilder.<Object> builder().data(e.getConstraintInformation())
                     .error(new RestError(RestErrorCode.PROPERTY_UNKNOWN_VIOLATION_ERROR.getCode(), e.getMessage())).build());
-            return result;
+            return;
         }
         // try to trigger the execution of the operation
         try {
-            deploymentRuntimeService.triggerOperationExecution(operationRequest, new IPaaSCallback<Map<String, String>>() {
-                @Override
-                public void onSuccess(Map<String, String> data) {
-                    result.setResult(RestResponseBuilder.<Object> builder().data(data).build());
-                }
+            deploymentRuntimeService.triggerOperationExecution(
+                    deploymentRuntimeService.buildPaaSTopologyDeploymentContext(operationRequest, deployment, topology), operationRequest,
+                    new IPaaSCallback<Map<String, String>>() {
+                        @Override
+                        public void onSuccess(Map<String, String> data) {
+                            result.setResult(RestResponseBuilder.<Object> builder().data(data).build());
+                        }
 
-                @Override
-                public void onFailure(Throwable throwable) {
-                    result.setErrorResult(RestResponseBuilder.<Object> builder()
-                            .error(new RestError(RestErrorCode.NODE_OPERATION_EXECUTION_ERROR.getCode(), throwable.getMessage())).build());
-                }
-            });
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            result.setErrorResult(RestResponseBuilder.<Object> builder()
+                                    .error(new RestError(RestErrorCode.NODE_OPERATION_EXECUTION_ERROR.getCode(), throwable.getMessage())).build());
+                        }
+                    });
         } catch (OperationExecutionException e) {
             result.setErrorResult(RestResponseBuilder.<Object> builder()
                     .error(new RestError(RestErrorCode.NODE_OPERATION_EXECUTION_ERROR.getCode(), e.getMessage())).build());
@@ -148,7 +177,6 @@ public class RuntimeController {
             result.setErrorResult(
                     RestResponseBuilder.<Object> builder().error(new RestError(RestErrorCode.CLOUD_DISABLED_ERROR.getCode(), e.getMessage())).build());
         }
-        return result;
     }
 
     /**
@@ -20,6 +20,9 @@ import alien4cloud.utils.ImageQuality;
 
 /**
  * A servlet that query an image by id and return's it.
+ *
+ * Images are never updated (a new image gets a new id) so the image id and quality are used as entity tag, requests that already have the image are answered
+ * with a not modified status without reading it.
  * 
  * @author luc boutier
  */
@@ -47,6 +50,13 @@ public class ImageServlet extends HttpServlet {
             imageQuality = ImageQuality.valueOf(quality);
         }
 
+        final String etag = "\"" + imageId + "-" + imageQuality.name() + "\"";
+        resp.setHeader("ETag", etag);
+        if (etag.equals(req.getHeader("If-None-Match"))) {
+            resp.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
         final ImageData imageData = this.imageDAO.readImage(imageId, imageQuality);
         if (imageData != null) {
             // Set content type
@@ -1,11 +1,15 @@
 package alien4cloud.component;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 import org.alien4cloud.tosca.model.CSARDependency;
 import org.alien4cloud.tosca.model.Csar;
 import org.alien4cloud.tosca.model.types.AbstractToscaType;
 
+import com.google.common.collect.Maps;
+
 import alien4cloud.exception.NotFoundException;
 
 /**
@@ -63,4 +67,27 @@ public interface ICSARRepositorySearchService {
      */
     <T extends AbstractToscaType> T getRequiredElementInDependencies(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies)
             throws NotFoundException;
-}
\ No newline at end of file
+
+    /**
+     * Get multiple elements of the same type from defined dependencies.
+     *
+     * The default implementation resolves elements one by one, implementations backed by a remote repository should override it to fetch all elements in a
+     * single request.
+     *
+     * @param elementClass The element class.
+     * @param elementIds The TOSCA element ids of the elements (without archive version).
+     * @param dependencies A list of CSAR in which the elements may be defined.
+     * @return A map of element id to element, elements that cannot be found are not part of the map.
+     */
+    default <T extends AbstractToscaType> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Set<CSARDependency> dependencies) {
+        Map<String, T> elements = Maps.newHashMap();
+        for (String elementId : elementIds) {
+            T element = getElementInDependencies(elementClass, elementId, dependencies);
+            if (element != null) {
+                elements.put(elementId, element);
+            }
+        }
+        return elements;
+    }
+}
@@ -2,6 +2,7 @@ package alien4cloud.tosca.context;
 
 import static alien4cloud.utils.AlienUtils.safe;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,7 @@ import org.alien4cloud.tosca.model.types.RelationshipType;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import alien4cloud.component.ICSARRepositorySearchService;
 import alien4cloud.tosca.model.ArchiveRoot;
@@ -38,6 +40,9 @@ public class ToscaContext {
     @Getter
     private static ICSARRepositorySearchService csarRepositorySearchService;
     private final static ThreadLocal<Context> contextThreadLocal = new ThreadLocal<>();
+    /** Process-wide cache of types retrieved from the repository, shared by all contexts. */
+    @Getter
+    private final static ToscaTypeCache typeCache = new ToscaTypeCache();
 
     /**
      * Create a new instance of Context.
@@ -91,6 +96,18 @@ public class ToscaContext {
         return contextThreadLocal.get().getElement(elementClass, elementId, true);
     }
 
+    /**
+     * Get multiple elements from the local-cache or from ES, elements that are not yet cached are fetched in a single request.
+     *
+     * @param elementClass The class of the elements to look for.
+     * @param elementIds The ids of the elements to look for.
+     * @param <T> The type of element.
+     * @return A map of element id to element, elements that cannot be found are not part of the map.
+     */
+    public static <T extends AbstractToscaType> Map<String, T> getElements(Class<T> elementClass, Collection<String> elementIds) {
+        return contextThreadLocal.get().getElements(elementClass, elementIds);
+    }
+
     /**
      * Destroy the tosca context.
      */
@@ -99,7 +116,8 @@ public class ToscaContext {
     }
 
     /**
-     * Tosca context allows to cache TOSCA elements
+     * Tosca context allows to cache TOSCA elements. Types registered in the context (see {@link Context#register(ArchiveRoot)}) act as an overlay on top of the
+     * process-wide {@link ToscaTypeCache}.
      */
     public static class Context {
 
@@ -269,7 +287,7 @@ public class ToscaContext {
         }
 
         /**
-         * Get an element from the local-cache or from ES.
+         * Get an element from the local-cache, the shared type cache or from ES.
          *
          * @param elementClass The class of the element to look for.
          * @param elementId The id of the element to look for.
@@ -290,8 +308,15 @@ public class ToscaContext {
                 }
             }
 
-            T element = required ? csarRepositorySearchService.getRequiredElementInDependencies(elementClass, elementId, dependencies)
-                    : csarRepositorySearchService.getElementInDependencies(elementClass, elementId, dependencies);
+            // find in the shared cache
+            T element = typeCache.get(elementClass, elementId, dependencies);
+            if (element == null) {
+                element = required ? csarRepositorySearchService.getRequiredElementInDependencies(elementClass, elementId, dependencies)
+                        : csarRepositorySearchService.getElementInDependencies(elementClass, elementId, dependencies);
+                if (element != null) {
+                    typeCache.put(elementClass, elementId, dependencies, element);
+                }
+            }
             if (element != null) {
                 typeElements.put(elementId, element);
             }
@@ -299,6 +324,55 @@ public class ToscaContext {
             return element;
         }
 
+        /**
+         * Get multiple elements from the local-cache, the shared type cache or from ES. Elements that are not cached are fetched using a single repository
+         * request.
+         *
+         * @param elementClass The class of the elements to look for.
+         * @param elementIds The ids of the elements to look for.
+         * @param <T> The type of element.
+         * @return A map of element id to element, elements that cannot be found are not part of the map.
+         */
+        public <T extends AbstractToscaType> Map<String, T> getElements(Class<T> elementClass, Collection<String> elementIds) {
+            String elementType = elementClass.getSimpleName();
+            Map<String, AbstractToscaType> typeElements = toscaTypesCache.get(elementType);
+            if (typeElements == null) {
+                typeElements = new HashMap<>();
+                toscaTypesCache.put(elementType, typeElements);
+            }
+            Map<String, T> elements = Maps.newHashMap();
+            Set<String> missingIds = Sets.newHashSet();
+            for (String elementId : elementIds) {
+                if (elementId == null || elements.containsKey(elementId)) {
+                    continue;
+                }
+                T element = (T) typeElements.get(elementId);
+                if (element == null) {
+                    element = typeCache.get(elementClass, elementId, dependencies);
+                    if (element != null) {
+                        typeElements.put(elementId, element);
+                    }
+                }
+                if (element == null) {
+                    missingIds.add(elementId);
+                } else {
+                    elements.put(elementId, element);
+                }
+            }
+            if (missingIds.isEmpty()) {
+                return elements;
+            }
+
+            Map<String, T> foundElements = csarRepositorySearchService.getElementsInDependencies(elementClass, missingIds, dependencies);
+            for (Map.Entry<String, T> foundElement : safe(foundElements).entrySet()) {
+                typeCache.put(elementClass, foundElement.getKey(), dependencies, foundElement.getValue());
+                typeElements.put(foundElement.getKey(), foundElement.getValue());
+                elements.put(foundElement.getKey(), foundElement.getValue());
+            }
+            log.debug("Retrieved {} of {} missing elements {} {}", safe(foundElements).size(), missingIds.size(), elementType, dependencies);
+            return elements;
+        }
+
         public <T extends AbstractToscaType> Optional<AbstractToscaType> getElement(Class<T> elementClass, Predicate<AbstractToscaType> filter) {
             String elementType = elementClass.getSimpleName();
             Map<String, AbstractToscaType> typeElements = toscaTypesCache.get(elementType);
@@ -2,6 +2,7 @@ package alien4cloud.tosca.context;
 
 import javax.annotation.Resource;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import alien4cloud.component.ICSARRepositorySearchService;
@@ -15,4 +16,9 @@ public class ToscaContextInjector {
     public void setCsarRepositorySearchService(ICSARRepositorySearchService csarRepositorySearchService) {
         ToscaContext.setCsarRepositorySearchService(csarRepositorySearchService);
     }
+
+    @Value("${tosca.context.types_cache.max_size:0}")
+    public void setTypeCacheMaxSize(long typeCacheMaxSize) {
+        ToscaContext.getTypeCache().configure(typeCacheMaxSize);
+    }
 }
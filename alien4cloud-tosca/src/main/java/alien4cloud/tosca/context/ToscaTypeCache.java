@@ -0,0 +1,176 @@
+package alien4cloud.tosca.context;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.types.AbstractToscaType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process-wide second level cache of TOSCA types shared by all {@link ToscaContext.Context} instances.
+ *
+ * Entries are keyed by the element type, the element id and the exact set of dependencies (name, version and hash) used to resolve the element so a given
+ * lookup always returns the same element for the same dependencies. Entries related to an archive must be evicted (see {@link #invalidate(String)}) whenever the
+ * archive content changes (SNAPSHOT re-indexing) or is deleted.
+ *
+ * Types are cached in their serialized form and every lookup returns a new instance: callers (and the contexts of other threads) may modify the types they
+ * get (for example when merging inherited definitions) without affecting the cached types.
+ */
+@Slf4j
+public class ToscaTypeCache {
+    private volatile boolean enabled;
+    private volatile Cache<TypeKey, CachedType> cache;
+    private volatile ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public ToscaTypeCache() {
+        // the cache is disabled until explicitly configured.
+        configure(0);
+    }
+
+    /**
+     * Reconfigure the cache with the given maximum size. Existing entries are dropped.
+     *
+     * @param maxSize The maximum number of types kept in the cache, 0 disables the cache.
+     */
+    public void configure(long maxSize) {
+        enabled = maxSize > 0;
+        cache = CacheBuilder.newBuilder().maximumSize(Math.max(maxSize, 0)).recordStats().build();
+    }
+
+    /**
+     * Set the mapper used to serialize the cached types, it must be able to read the types it writes (the elasticsearch mapper is used in alien4cloud).
+     *
+     * @param mapper The mapper to use. Existing entries are dropped.
+     */
+    public void setMapper(ObjectMapper mapper) {
+        this.mapper = mapper;
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get a copy of an element from the cache.
+     *
+     * @param elementClass The class of the element to look for.
+     * @param elementId The id of the element to look for.
+     * @param dependencies The dependencies in which the element has been resolved.
+     * @return A copy of the cached element or null if not in cache.
+     */
+    public <T extends AbstractToscaType> T get(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies) {
+        if (!enabled) {
+            return null;
+        }
+        TypeKey key = new TypeKey(elementClass, elementId, dependencies);
+        CachedType cachedType = cache.getIfPresent(key);
+        if (cachedType == null) {
+            return null;
+        }
+        try {
+            return (T) mapper.readValue(cachedType.content, cachedType.elementClass);
+        } catch (IOException e) {
+            log.warn("Unable to read type " + elementId + " from the shared TOSCA type cache", e);
+            cache.invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Put an element resolved from the repository in the cache.
+     *
+     * @param elementClass The class of the element.
+     * @param elementId The id of the element.
+     * @param dependencies The dependencies in which the element has been resolved.
+     * @param element The element to cache (it is serialized so later changes to the element are not cached).
+     */
+    public <T extends AbstractToscaType> void put(Class<T> elementClass, String elementId, Set<CSARDependency> dependencies, T element) {
+        if (enabled) {
+            try {
+                cache.put(new TypeKey(elementClass, elementId, dependencies), new CachedType(element.getClass(), mapper.writeValueAsBytes(element)));
+            } catch (JsonProcessingException e) {
+                log.warn("Unable to cache type " + elementId + " in the shared TOSCA type cache", e);
+            }
+        }
+    }
+
+    /**
+     * Evict all entries that have been resolved using the given archive as a dependency.
+     *
+     * @param archiveId The id of the archive (see {@link Csar#createId(String, String)}).
+     */
+    public void invalidate(String archiveId) {
+        int count = 0;
+        Iterator<TypeKey> keyIterator = cache.asMap().keySet().iterator();
+        while (keyIterator.hasNext()) {
+            if (keyIterator.next().archiveIds.contains(archiveId)) {
+                keyIterator.remove();
+                count++;
+            }
+        }
+        log.debug("Evicted {} types from the shared TOSCA type cache for archive {}", count, archiveId);
+    }
+
+    /**
+     * Evict all entries from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return The statistics of the cache (hits, misses, evictions).
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return The number of types currently cached.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    @AllArgsConstructor
+    private static class CachedType {
+        private final Class<? extends AbstractToscaType> elementClass;
+        private final byte[] content;
+    }
+
+    @EqualsAndHashCode(exclude = "archiveIds")
+    private static class TypeKey {
+        private final String elementType;
+        private final String elementId;
+        private final Set<String> dependencies;
+        private final Set<String> archiveIds;
+
+        private TypeKey(Class<? extends AbstractToscaType> elementClass, String elementId, Set<CSARDependency> dependencies) {
+            this.elementType = elementClass.getName();
+            this.elementId = elementId;
+            Set<String> dependencyKeys = new TreeSet<>();
+            Set<String> dependencyIds = new TreeSet<>();
+            if (dependencies != null) {
+                for (CSARDependency dependency : dependencies) {
+                    String archiveId = Csar.createId(dependency.getName(), dependency.getVersion());
+                    dependencyIds.add(archiveId);
+                    dependencyKeys.add(archiveId + ":" + dependency.getHash());
+                }
+            }
+            this.dependencies = Collections.unmodifiableSet(dependencyKeys);
+            this.archiveIds = Collections.unmodifiableSet(dependencyIds);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package alien4cloud.tosca.parser;
+
+import java.io.Reader;
+
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+/**
+ * Yaml stream reader that creates marks without any reference to the read data.
+ *
+ * SnakeYAML marks keep a reference to the data window of the reader at the time the mark was created (to be able to display a snippet of the yaml). As every
+ * event, token and node has a start and an end mark, the composed node tree of a definition file retains almost every data window read from the file, which
+ * is several times the size of the file itself. Parsing errors only report the line and column of the marks (see {@link SimpleMark}) so the data is not
+ * required.
+ */
+public class CompactMarkStreamReader extends StreamReader {
+    private static final String MARK_NAME = "'reader'";
+
+    public CompactMarkStreamReader(Reader reader) {
+        super(reader);
+    }
+
+    @Override
+    public Mark getMark() {
+        return new Mark(MARK_NAME, getIndex(), getLine(), getColumn(), null, 0);
+    }
+}
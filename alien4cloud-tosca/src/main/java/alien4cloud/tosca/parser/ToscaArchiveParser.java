@@ -22,10 +22,14 @@ import alien4cloud.tosca.model.ToscaMeta;
 import alien4cloud.tosca.parser.impl.ErrorCode;
 import alien4cloud.tosca.parser.mapping.ToscaMetaMapping;
 import alien4cloud.utils.FileUtil;
+import alien4cloud.utils.SharedZipFileSystem;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Parse a TOSCA archive.
+ *
+ * Zip archives are read through a {@link SharedZipFileSystem} so callers that keep a handle opened on the archive (see ArchiveUploadService) share a single zip
+ * file system for pre-parsing, parsing and indexing.
  */
 @Slf4j
 @Component
@@ -75,7 +79,8 @@ public class ToscaArchiveParser {
      */
     @ToscaContextual(requiresNew = true)
     public ParsingResult<ArchiveRoot> parse(Path archiveFile, boolean allowYamlFile) throws ParsingException {
-        try (FileSystem csarFS = FileSystems.newFileSystem(archiveFile, null)) {
+        try (SharedZipFileSystem zipFS = SharedZipFileSystem.open(archiveFile)) {
+            FileSystem csarFS = zipFS.getFileSystem();
             if (Files.exists(csarFS.getPath(TOSCA_META_FILE_LOCATION))) {
                 return parseFromToscaMeta(csarFS);
             }
@@ -117,7 +122,8 @@ public class ToscaArchiveParser {
 
     @ToscaContextual(requiresNew = true)
     public ParsingResult<CsarDependenciesBean> parseImports(Path archiveFile) throws ParsingException {
-        try (FileSystem csarFS = FileSystems.newFileSystem(archiveFile, null)) {
+        try (SharedZipFileSystem zipFS = SharedZipFileSystem.open(archiveFile)) {
+            FileSystem csarFS = zipFS.getFileSystem();
             if (Files.exists(csarFS.getPath(TOSCA_META_FILE_LOCATION))) {
                 YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(toscaMetaMapping.getParser());
                 ParsingResult<ToscaMeta> parsingResult = parser.parseFile(csarFS.getPath(TOSCA_META_FILE_LOCATION));
@@ -76,7 +76,8 @@ public abstract class YamlParser<T> {
      * @throws ParsingException In case there is a blocking issue while parsing the definition.
      */
     public ParsingResult<T> parseFile(String filePath, String fileName, InputStream yamlStream, T instance) throws ParsingException {
-        StreamReader sreader = new StreamReader(new UnicodeReader(yamlStream));
+        // marks are only used for line and column error reporting, do not retain the yaml data with every node.
+        StreamReader sreader = new CompactMarkStreamReader(new UnicodeReader(yamlStream));
         Composer composer = new Composer(new ParserImpl(sreader), new Resolver());
         Node rootNode = null;
         try {
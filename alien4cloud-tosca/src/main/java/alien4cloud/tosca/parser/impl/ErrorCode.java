@@ -107,6 +107,8 @@ public enum ErrorCode {
     INVALID_NAME,
     /** A node type a defined in other Csar **/
     TOSCA_TYPE_ALREADY_EXISTS_IN_OTHER_CSAR,
+    /** A tosca type of the archive could not be indexed **/
+    TOSCA_TYPE_INDEXING_FAILED,
     /** version conflict between a transitive and a direct dependency **/
     TRANSITIVE_DEPENDENCY_VERSION_CONFLICT,
     /** Same dependency name with different version **/
@@ -1,5 +1,7 @@
 package alien4cloud.tosca.parser.impl.base;
 
+import java.util.Map;
+
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -13,12 +15,16 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Parser implementation that delegates parsing to a parser referenced in the parser registry based on the type key.
+ *
+ * Registries are immutable so the delegate is resolved once per registry and then dispatched to directly.
  */
 @Slf4j
 @Component
 @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class ReferencedParser<T> implements INodeParser<T> {
     private String typeName;
+    /** Delegate resolved from the last used registry. */
+    private volatile ResolvedDelegate resolvedDelegate;
 
     public ReferencedParser(String typeName) {
         this.typeName = typeName;
@@ -26,7 +32,13 @@ public class ReferencedParser<T> implements INodeParser<T> {
 
     @Override
     public T parse(Node node, ParsingContextExecution context) {
-        INodeParser<?> delegate = context.getRegistry().get(typeName);
+        Map<String, INodeParser> registry = context.getRegistry();
+        ResolvedDelegate resolved = resolvedDelegate;
+        if (resolved == null || resolved.registry != registry) {
+            resolved = new ResolvedDelegate(registry, registry.get(typeName));
+            resolvedDelegate = resolved;
+        }
+        INodeParser<?> delegate = resolved.delegate;
         if (delegate == null) {
             log.error("No parser found for yaml type {}", typeName);
             context.getParsingErrors().add(
@@ -35,4 +47,14 @@ public class ReferencedParser<T> implements INodeParser<T> {
         }
         return (T) delegate.parse(node, context);
     }
+
+    private static class ResolvedDelegate {
+        private final Map<String, INodeParser> registry;
+        private final INodeParser<?> delegate;
+
+        private ResolvedDelegate(Map<String, INodeParser> registry, INodeParser<?> delegate) {
+            this.registry = registry;
+            this.delegate = delegate;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package alien4cloud.tosca.parser.mapping.generator;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Map;
 
 import javax.annotation.PostConstruct;
@@ -25,6 +26,9 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Load type mapping definition from yaml and add it to the type mapping registry.
+ *
+ * Generated registries are immutable and cached by mapping resource so a mapping file is processed only once by a generator. Registries are not shared
+ * between the generators of different contexts as they reference the parsers of their own context (a child context may override parsers).
  */
 @Slf4j
 @Component
@@ -36,6 +40,8 @@ public class MappingGenerator implements INodeParser<Map<String, INodeParser>> {
 
     private Map<String, INodeParser> parsers = Maps.newHashMap();
     private Map<String, IMappingBuilder> mappingBuilders = Maps.newHashMap();
+    /** Registries generated by this generator by mapping resource url. */
+    private final Map<String, Map<String, INodeParser>> registries = Maps.newHashMap();
 
     @PostConstruct
     public void initialize() {
@@ -67,6 +73,27 @@ public class MappingGenerator implements INodeParser<Map<String, INodeParser>> {
     }
 
     private Map<String, INodeParser> process(org.springframework.core.io.Resource resource) throws ParsingException {
+        String resourceKey = getResourceKey(resource);
+        synchronized (registries) {
+            Map<String, INodeParser> registry = registries.get(resourceKey);
+            if (registry == null) {
+                registry = Collections.unmodifiableMap(generate(resource));
+                registries.put(resourceKey, registry);
+            }
+            return registry;
+        }
+    }
+
+    private String getResourceKey(org.springframework.core.io.Resource resource) {
+        try {
+            return resource.getURL().toString();
+        } catch (IOException e) {
+            // the resource does not exists, the generation will report the error.
+            return resource.getDescription();
+        }
+    }
+
+    private Map<String, INodeParser> generate(org.springframework.core.io.Resource resource) throws ParsingException {
         YamlSimpleParser<Map<String, INodeParser>> nodeParser = new YamlSimpleParser<>(this);
         try {
             ParsingResult<Map<String, INodeParser>> result = nodeParser.parseFile(resource.getURI().toString(), resource.getFilename(),
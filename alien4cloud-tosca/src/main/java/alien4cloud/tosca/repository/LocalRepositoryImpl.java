@@ -1,11 +1,14 @@
 package alien4cloud.tosca.repository;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Resource;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
@@ -18,21 +21,36 @@ import org.alien4cloud.tosca.model.types.AbstractToscaType;
 import alien4cloud.tosca.context.ToscaContext;
 import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.ParsingContextExecution;
+import alien4cloud.tosca.parser.ParsingException;
 import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.tosca.parser.ToscaArchiveParser;
+import alien4cloud.utils.CloneUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * Manages a file-based local archive repository.
  *
+ * Parsed archives are kept in a bounded cache keyed by the archive path and validated against the modification time, size and content hash of the archive
+ * file so an archive is parsed only once as long as it does not change. Callers get their own copy of the cached archives so they can modify them.
+ *
  * Note: You should always access this class through the ToscaContext.
  */
+@Slf4j
 @Getter
 @Setter
 @Component
 public class LocalRepositoryImpl implements ICSARRepositorySearchService {
+    private static final int DEFAULT_ARCHIVE_CACHE_SIZE = 50;
+
     private static ThreadLocal<Boolean> recursiveCall = new ThreadLocal<>();
     @Resource
     private ToscaArchiveParser toscaArchiveParser;
@@ -40,8 +58,41 @@ public class LocalRepositoryImpl implements ICSARRepositorySearchService {
     /** Path of the local repository. */
     private Path localRepositoryPath = Paths.get("target/repository");
 
+    /** Parsed archives by archive path. */
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    private volatile Cache<Path, CachedArchive> archiveCache = buildArchiveCache(DEFAULT_ARCHIVE_CACHE_SIZE);
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    private final AtomicLong archiveCacheHits = new AtomicLong();
+    @Getter(lombok.AccessLevel.NONE)
+    @Setter(lombok.AccessLevel.NONE)
+    private final AtomicLong archiveCacheMisses = new AtomicLong();
+
     public void setPath(String path) {
         localRepositoryPath = Paths.get(path);
+        archiveCache.invalidateAll();
+    }
+
+    /**
+     * Configure the maximum number of parsed archives kept in cache, existing entries are dropped.
+     *
+     * @param maxSize The maximum number of archives to keep in cache, 0 disables the cache.
+     */
+    @Value("${tosca.local_repository.archive_cache_size:" + DEFAULT_ARCHIVE_CACHE_SIZE + "}")
+    public void setArchiveCacheSize(long maxSize) {
+        archiveCache = buildArchiveCache(maxSize);
+    }
+
+    /**
+     * @return The statistics of the parsed archive cache: hits, misses (archives actually parsed) and evictions.
+     */
+    public CacheStats getArchiveCacheStats() {
+        return new CacheStats(archiveCacheHits.get(), archiveCacheMisses.get(), 0, 0, 0, archiveCache.stats().evictionCount());
+    }
+
+    private static Cache<Path, CachedArchive> buildArchiveCache(long maxSize) {
+        return CacheBuilder.newBuilder().maximumSize(Math.max(maxSize, 0)).recordStats().build();
     }
 
     @Override
@@ -116,7 +167,34 @@ public class LocalRepositoryImpl implements ICSARRepositorySearchService {
     private ParsingResult<ArchiveRoot> parse(CSARDependency dependency) {
         String archiveFileName = dependency.getName().concat("-").concat(dependency.getVersion()).concat(".csar");
         Path archivePath = localRepositoryPath.resolve(dependency.getName()).resolve(dependency.getVersion()).resolve(archiveFileName);
+        if (!Files.isRegularFile(archivePath)) {
+            // let the parser report the missing archive.
+            return doParse(archivePath);
+        }
+
+        long lastModified = Files.getLastModifiedTime(archivePath).toMillis();
+        long size = Files.size(archivePath);
+        CachedArchive cachedArchive = archiveCache.getIfPresent(archivePath);
+        if (cachedArchive != null && cachedArchive.lastModified == lastModified && cachedArchive.size == size) {
+            archiveCacheHits.incrementAndGet();
+            return CloneUtil.clone(cachedArchive.result);
+        }
+        // the file may have been touched without any content change.
+        HashCode hash = com.google.common.io.Files.hash(archivePath.toFile(), Hashing.sha1());
+        if (cachedArchive != null && cachedArchive.hash.equals(hash)) {
+            archiveCacheHits.incrementAndGet();
+            archiveCache.put(archivePath, new CachedArchive(lastModified, size, hash, cachedArchive.result));
+            return CloneUtil.clone(cachedArchive.result);
+        }
 
+        archiveCacheMisses.incrementAndGet();
+        log.debug("Parsing local archive {} (cache stats {})", archivePath, archiveCache.stats());
+        ParsingResult<ArchiveRoot> result = doParse(archivePath);
+        archiveCache.put(archivePath, new CachedArchive(lastModified, size, hash, CloneUtil.clone(result)));
+        return result;
+    }
+
+    private ParsingResult<ArchiveRoot> doParse(Path archivePath) throws ParsingException {
         ParsingContextExecution.Context previousContext = ParsingContextExecution.get();
         try {
             ParsingContextExecution.init();
@@ -128,4 +206,12 @@ public class LocalRepositoryImpl implements ICSARRepositorySearchService {
             }
         }
     }
-}
\ No newline at end of file
+
+    @AllArgsConstructor
+    private static class CachedArchive {
+        private final long lastModified;
+        private final long size;
+        private final HashCode hash;
+        private final ParsingResult<ArchiveRoot> result;
+    }
+}
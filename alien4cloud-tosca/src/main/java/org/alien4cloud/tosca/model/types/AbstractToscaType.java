@@ -75,6 +75,11 @@ public abstract class AbstractToscaType implements IDatableResource, IWorkspaceR
     @DateField(includeInAll = false, index = IndexType.no)
     private Date lastUpdateDate;
 
+    /* Hash of the element content (excluding dates) used to index only the elements that changed when an archive is imported again. */
+    @FetchContext(contexts = { TAG_SUGGESTION }, include = { false })
+    @StringField(includeInAll = false, indexType = IndexType.no)
+    private String contentHash;
+
     /* Normative element */
     @StringField(indexType = IndexType.no)
     @FetchContext(contexts = { TAG_SUGGESTION }, include = { false })
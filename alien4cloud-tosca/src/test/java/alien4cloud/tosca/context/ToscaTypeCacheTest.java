@@ -0,0 +1,81 @@
+package alien4cloud.tosca.context;
+
+import java.util.Set;
+
+import org.alien4cloud.tosca.model.CSARDependency;
+import org.alien4cloud.tosca.model.Csar;
+import org.alien4cloud.tosca.model.types.NodeType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Sets;
+
+public class ToscaTypeCacheTest {
+    private ToscaTypeCache typeCache;
+
+    @Before
+    public void init() {
+        typeCache = new ToscaTypeCache();
+        typeCache.configure(10);
+    }
+
+    @Test
+    public void typesShouldBeKeyedByDependenciesHash() {
+        typeCache.put(NodeType.class, "tosca.nodes.Compute", dependencies("hash"), nodeType("tosca.nodes.Compute"));
+
+        Assert.assertNotNull(typeCache.get(NodeType.class, "tosca.nodes.Compute", dependencies("hash")));
+        Assert.assertNull(typeCache.get(NodeType.class, "tosca.nodes.Compute", dependencies("other-hash")));
+        Assert.assertNull(typeCache.get(NodeType.class, "tosca.nodes.Root", dependencies("hash")));
+    }
+
+    @Test
+    public void cachedTypesShouldNotBeSharedBetweenLookups() {
+        NodeType nodeType = nodeType("tosca.nodes.Compute");
+        typeCache.put(NodeType.class, "tosca.nodes.Compute", dependencies("hash"), nodeType);
+        nodeType.setDescription("modified after put");
+
+        NodeType cached = typeCache.get(NodeType.class, "tosca.nodes.Compute", dependencies("hash"));
+        Assert.assertNull(cached.getDescription());
+        cached.setDescription("modified after get");
+        Assert.assertNull(typeCache.get(NodeType.class, "tosca.nodes.Compute", dependencies("hash")).getDescription());
+    }
+
+    @Test
+    public void typesShouldBeEvictedWhenADependencyChanges() {
+        typeCache.put(NodeType.class, "tosca.nodes.Compute", dependencies("hash"), nodeType("tosca.nodes.Compute"));
+        typeCache.put(NodeType.class, "tosca.nodes.Compute", Sets.newHashSet(new CSARDependency("other-types", "1.0.0", "hash")),
+                nodeType("tosca.nodes.Compute"));
+
+        typeCache.invalidate(Csar.createId("tosca-normative-types", "1.0.0"));
+        Assert.assertNull(typeCache.get(NodeType.class, "tosca.nodes.Compute", dependencies("hash")));
+        Assert.assertNotNull(typeCache.get(NodeType.class, "tosca.nodes.Compute", Sets.newHashSet(new CSARDependency("other-types", "1.0.0", "hash"))));
+    }
+
+    @Test
+    public void cacheShouldBeBounded() {
+        typeCache.configure(1);
+        typeCache.put(NodeType.class, "tosca.nodes.Compute", dependencies("hash"), nodeType("tosca.nodes.Compute"));
+        typeCache.put(NodeType.class, "tosca.nodes.Root", dependencies("hash"), nodeType("tosca.nodes.Root"));
+        Assert.assertEquals(1, typeCache.size());
+    }
+
+    @Test
+    public void disabledCacheShouldNotKeepTypes() {
+        typeCache.configure(0);
+        typeCache.put(NodeType.class, "tosca.nodes.Compute", dependencies("hash"), nodeType("tosca.nodes.Compute"));
+        Assert.assertNull(typeCache.get(NodeType.class, "tosca.nodes.Compute", dependencies("hash")));
+    }
+
+    private Set<CSARDependency> dependencies(String hash) {
+        return Sets.newHashSet(new CSARDependency("tosca-normative-types", "1.0.0", hash));
+    }
+
+    private NodeType nodeType(String elementId) {
+        NodeType nodeType = new NodeType();
+        nodeType.setElementId(elementId);
+        nodeType.setArchiveName("tosca-normative-types");
+        nodeType.setArchiveVersion("1.0.0");
+        return nodeType;
+    }
+}
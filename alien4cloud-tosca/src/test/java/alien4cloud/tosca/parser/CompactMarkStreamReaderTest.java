@@ -0,0 +1,43 @@
+package alien4cloud.tosca.parser;
+
+import java.io.StringReader;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+public class CompactMarkStreamReaderTest {
+    private static final String YAML = "tosca_definitions_version: alien_dsl_2_0_0\nnode_types:\n  my.Type:\n    description: a type\n";
+
+    @Test
+    public void compactMarksShouldHaveSameLinesAndColumns() {
+        Node expected = compose(new StreamReader(new StringReader(YAML)));
+        Node actual = compose(new CompactMarkStreamReader(new StringReader(YAML)));
+        assertSameMarks(expected, actual);
+    }
+
+    private Node compose(StreamReader reader) {
+        return new Composer(new ParserImpl(reader), new Resolver()).getSingleNode();
+    }
+
+    private void assertSameMarks(Node expected, Node actual) {
+        Assert.assertEquals(expected.getStartMark().getLine(), actual.getStartMark().getLine());
+        Assert.assertEquals(expected.getStartMark().getColumn(), actual.getStartMark().getColumn());
+        Assert.assertEquals(expected.getEndMark().getLine(), actual.getEndMark().getLine());
+        Assert.assertEquals(expected.getEndMark().getColumn(), actual.getEndMark().getColumn());
+        if (expected instanceof MappingNode) {
+            MappingNode expectedMapping = (MappingNode) expected;
+            MappingNode actualMapping = (MappingNode) actual;
+            Assert.assertEquals(expectedMapping.getValue().size(), actualMapping.getValue().size());
+            for (int i = 0; i < expectedMapping.getValue().size(); i++) {
+                assertSameMarks(expectedMapping.getValue().get(i).getKeyNode(), actualMapping.getValue().get(i).getKeyNode());
+                assertSameMarks(expectedMapping.getValue().get(i).getValueNode(), actualMapping.getValue().get(i).getValueNode());
+            }
+        }
+    }
+}
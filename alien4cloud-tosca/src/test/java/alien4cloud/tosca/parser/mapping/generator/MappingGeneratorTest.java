@@ -0,0 +1,124 @@
+package alien4cloud.tosca.parser.mapping.generator;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.yaml.snakeyaml.nodes.Node;
+
+import alien4cloud.tosca.parser.INodeParser;
+import alien4cloud.tosca.parser.ParsingContextExecution;
+import alien4cloud.tosca.parser.impl.base.BaseParserFactory;
+import alien4cloud.tosca.parser.impl.base.ReferencedParser;
+
+/**
+ * Check that the registries cached by the mapping generators of a parent and a child context use the parsers of their own context.
+ */
+public class MappingGeneratorTest {
+    private static final String MAPPING = "classpath:mapping/context-value-mapping.yml";
+
+    private AnnotationConfigApplicationContext parentContext;
+    private AnnotationConfigApplicationContext childContext;
+
+    @Before
+    public void init() {
+        parentContext = new AnnotationConfigApplicationContext(ParentConfiguration.class);
+        childContext = new AnnotationConfigApplicationContext();
+        childContext.setParent(parentContext);
+        childContext.register(ChildConfiguration.class);
+        childContext.refresh();
+    }
+
+    @After
+    public void cleanup() {
+        childContext.close();
+        parentContext.close();
+    }
+
+    @Test
+    public void childContextParsersShouldOverrideParentContextParsers() throws Exception {
+        Map<String, INodeParser> parentRegistry = parentContext.getBean(MappingGenerator.class).process(MAPPING);
+        Map<String, INodeParser> childRegistry = childContext.getBean(MappingGenerator.class).process(MAPPING);
+
+        Assert.assertSame(parentContext.getBean(ContextValueParser.class), parentRegistry.get("value"));
+        Assert.assertSame(childContext.getBean(ContextValueParser.class), childRegistry.get("value"));
+        // registries are cached by every generator.
+        Assert.assertSame(parentRegistry, parentContext.getBean(MappingGenerator.class).process(MAPPING));
+        Assert.assertSame(childRegistry, childContext.getBean(MappingGenerator.class).process(MAPPING));
+    }
+
+    @Test
+    public void referencedParserShouldDelegateToTheParserOfTheCurrentRegistry() throws Exception {
+        Map<String, INodeParser> parentRegistry = parentContext.getBean(MappingGenerator.class).process(MAPPING);
+        Map<String, INodeParser> childRegistry = childContext.getBean(MappingGenerator.class).process(MAPPING);
+        ReferencedParser<String> referencedParser = new ReferencedParser<>("value");
+        Node node = Mockito.mock(Node.class);
+        ParsingContextExecution contextExecution = new ParsingContextExecution();
+        try {
+            ParsingContextExecution.init();
+            ParsingContextExecution.setRegistry(parentRegistry);
+            Assert.assertEquals("parent", referencedParser.parse(node, contextExecution));
+            // the delegate resolved from the parent registry must not be used with the child registry.
+            ParsingContextExecution.setRegistry(childRegistry);
+            Assert.assertEquals("child", referencedParser.parse(node, contextExecution));
+            ParsingContextExecution.setRegistry(parentRegistry);
+            Assert.assertEquals("parent", referencedParser.parse(node, contextExecution));
+            Assert.assertTrue(ParsingContextExecution.getParsingErrors().isEmpty());
+        } finally {
+            ParsingContextExecution.destroy();
+        }
+    }
+
+    /**
+     * Parser that returns the name of the context in which it is defined.
+     */
+    public static class ContextValueParser implements INodeParser<String> {
+        private final String value;
+
+        public ContextValueParser(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String parse(Node node, ParsingContextExecution context) {
+            return value;
+        }
+    }
+
+    @Configuration
+    static class ParentConfiguration {
+        @Bean
+        public BaseParserFactory baseParserFactory() {
+            return new BaseParserFactory();
+        }
+
+        @Bean
+        public MappingGenerator mappingGenerator() {
+            return new MappingGenerator();
+        }
+
+        @Bean
+        public ContextValueParser contextValueParser() {
+            return new ContextValueParser("parent");
+        }
+    }
+
+    @Configuration
+    static class ChildConfiguration {
+        @Bean
+        public MappingGenerator mappingGenerator() {
+            return new MappingGenerator();
+        }
+
+        @Bean
+        public ContextValueParser contextValueParser() {
+            return new ContextValueParser("child");
+        }
+    }
+}
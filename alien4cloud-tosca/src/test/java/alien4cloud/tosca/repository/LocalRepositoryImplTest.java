@@ -0,0 +1,84 @@
+package alien4cloud.tosca.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.alien4cloud.tosca.model.Csar;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.base.Charsets;
+
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingContext;
+import alien4cloud.tosca.parser.ParsingResult;
+import alien4cloud.tosca.parser.ToscaArchiveParser;
+import alien4cloud.utils.FileUtil;
+
+public class LocalRepositoryImplTest {
+    private Path repositoryPath;
+    private Path archivePath;
+    private ToscaArchiveParser toscaArchiveParser;
+    private LocalRepositoryImpl localRepository;
+
+    @Before
+    public void init() throws Exception {
+        repositoryPath = Files.createTempDirectory("local-repository-test");
+        archivePath = repositoryPath.resolve("archive").resolve("1.0.0").resolve("archive-1.0.0.csar");
+        Files.createDirectories(archivePath.getParent());
+        Files.write(archivePath, "content".getBytes(Charsets.UTF_8));
+
+        toscaArchiveParser = Mockito.mock(ToscaArchiveParser.class);
+        Mockito.when(toscaArchiveParser.parse(archivePath)).thenAnswer(invocation -> {
+            ArchiveRoot archiveRoot = new ArchiveRoot();
+            archiveRoot.setArchive(new Csar("archive", "1.0.0"));
+            archiveRoot.getArchive().setDescription(new String(Files.readAllBytes(archivePath), Charsets.UTF_8));
+            return new ParsingResult<>(archiveRoot, new ParsingContext(archivePath.getFileName().toString()));
+        });
+        localRepository = new LocalRepositoryImpl();
+        ReflectionTestUtils.setField(localRepository, "toscaArchiveParser", toscaArchiveParser);
+        localRepository.setPath(repositoryPath.toString());
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtil.delete(repositoryPath);
+    }
+
+    @Test
+    public void unchangedArchiveShouldBeParsedOnce() throws Exception {
+        Assert.assertEquals("content", localRepository.getArchive("archive", "1.0.0").getDescription());
+        Assert.assertEquals("content", localRepository.getArchive("archive", "1.0.0").getDescription());
+
+        Mockito.verify(toscaArchiveParser, Mockito.times(1)).parse(archivePath);
+        Assert.assertEquals(1, localRepository.getArchiveCacheStats().hitCount());
+        Assert.assertEquals(1, localRepository.getArchiveCacheStats().missCount());
+    }
+
+    @Test
+    public void modifiedArchiveShouldBeParsedAgain() throws Exception {
+        Assert.assertEquals("content", localRepository.getArchive("archive", "1.0.0").getDescription());
+        Files.write(archivePath, "updated content".getBytes(Charsets.UTF_8));
+        Assert.assertEquals("updated content", localRepository.getArchive("archive", "1.0.0").getDescription());
+
+        Mockito.verify(toscaArchiveParser, Mockito.times(2)).parse(archivePath);
+        Assert.assertEquals(0, localRepository.getArchiveCacheStats().hitCount());
+    }
+
+    @Test
+    public void callersShouldNotShareCachedArchives() throws Exception {
+        Csar parsed = localRepository.getArchive("archive", "1.0.0");
+        parsed.setDescription("modified by the first caller");
+        Csar cached = localRepository.getArchive("archive", "1.0.0");
+        Assert.assertEquals("content", cached.getDescription());
+        cached.setDescription("modified by the second caller");
+        Assert.assertEquals("content", localRepository.getArchive("archive", "1.0.0").getDescription());
+
+        Mockito.verify(toscaArchiveParser, Mockito.times(1)).parse(archivePath);
+    }
+}